@@ -0,0 +1,83 @@
+package com.localexchange.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sérialisation Jackson d'une page d'annonces, avec le même ObjectMapper que Spring Boot (dates ISO).
+ * ItemListingDTO : DTO complet ; ItemCardDTO : carte réellement renvoyée par /api/items.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PageSerializationBenchmark {
+
+	@Param({"12", "50"})
+	public int size;
+
+	private ObjectMapper objectMapper;
+	private Page<ItemListingDTO> listings;
+	private Page<ItemCardDTO> cards;
+
+	@Setup
+	public void setUp() {
+		objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+		List<ItemListingDTO> listingContent = new ArrayList<>();
+		List<ItemCardDTO> cardContent = new ArrayList<>();
+		for (long id = 1; id <= size; id++) {
+			ItemListingDTO dto = new ItemListingDTO();
+			dto.setId(id);
+			dto.setTitre("Annonce " + id);
+			dto.setDescription("Description de l'annonce " + id + ", en bon état, à récupérer sur place.");
+			dto.setCategorie("Bricolage");
+			dto.setImages("[\"/api/uploads/files/" + id + ".jpg\"]");
+			dto.setDisponibilite(true);
+			dto.setCommentaireEchange("Contre un service");
+			dto.setOwnerId(id % 7);
+			dto.setOwnerNom("Propriétaire " + id % 7);
+			dto.setOwnerLocalisation("Pau");
+			dto.setOwnerRating(4.2);
+			dto.setCreatedAt(LocalDateTime.now());
+			dto.setUpdatedAt(LocalDateTime.now());
+			listingContent.add(dto);
+
+			cardContent.add(new ItemCardDTO(id, dto.getTitre(), dto.getDescription(), dto.getCategorie(), dto.getImages(),
+					true, dto.getOwnerId(), dto.getOwnerNom(), null, "Pau", 5, 21L, dto.getCreatedAt()));
+		}
+		listings = new PageImpl<>(listingContent, PageRequest.of(0, size), 1000);
+		cards = new PageImpl<>(cardContent, PageRequest.of(0, size), 1000);
+	}
+
+	@Benchmark
+	public byte[] itemListingPage() throws Exception {
+		return objectMapper.writeValueAsBytes(listings);
+	}
+
+	@Benchmark
+	public byte[] itemCardPage() throws Exception {
+		return objectMapper.writeValueAsBytes(cards);
+	}
+}
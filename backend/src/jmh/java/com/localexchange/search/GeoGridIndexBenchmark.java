@@ -0,0 +1,76 @@
+package com.localexchange.search;
+
+import com.localexchange.geo.GeoPoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recherche « près de » sur un million d'annonces : moitié dispersée sur la métropole,
+ * moitié regroupée autour de quelques villes (cas défavorable : cellules très peuplées)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class GeoGridIndexBenchmark {
+
+	private static final GeoPoint[] CITIES = {
+			new GeoPoint(43.2951, -0.3708), new GeoPoint(43.4929, -1.4748), new GeoPoint(44.8378, -0.5792),
+			new GeoPoint(43.6047, 1.4442), new GeoPoint(48.8566, 2.3522), new GeoPoint(45.7640, 4.8357)};
+	private static final GeoPoint COUNTRYSIDE = new GeoPoint(46.3, 2.6);
+
+	@Param({"1000000"})
+	private int listings;
+
+	@Param({"5", "10", "50"})
+	private double radiusKm;
+
+	private GeoGridIndex index;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		index = new GeoGridIndex();
+		for (long id = 1; id <= listings; id++) {
+			GeoPoint point;
+			if (id % 2 == 0) {
+				point = new GeoPoint(42.3 + random.nextDouble() * 8.8, -4.8 + random.nextDouble() * 13.0);
+			} else {
+				// Environ 10 km d'écart type autour de la ville
+				GeoPoint city = CITIES[random.nextInt(CITIES.length)];
+				point = new GeoPoint(city.latitude() + random.nextGaussian() * 0.09, city.longitude() + random.nextGaussian() * 0.12);
+			}
+			index.put(new SearchDocument(id).attribute("categorie", id % 9 == 0 ? "Livres" : "Outils"), point);
+		}
+	}
+
+	@Benchmark
+	public List<GeoGridIndex.GeoHit> nearCity() {
+		return index.near(CITIES[0], radiusKm, null);
+	}
+
+	@Benchmark
+	public List<GeoGridIndex.GeoHit> nearCityWithCategorie() {
+		return index.near(CITIES[0], radiusKm, doc -> "Livres".equals(doc.getAttribute("categorie")));
+	}
+
+	@Benchmark
+	public List<GeoGridIndex.GeoHit> nearCountryside() {
+		return index.near(COUNTRYSIDE, radiusKm, null);
+	}
+}
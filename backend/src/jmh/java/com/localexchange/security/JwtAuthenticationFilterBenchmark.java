@@ -0,0 +1,71 @@
+package com.localexchange.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Passage d'une requête authentifiée dans JwtAuthenticationFilter, du header Authorization au SecurityContext.
+ * cached=true : principal déjà en cache (cas courant) ; cached=false : vérification de signature et chargement à chaque requête.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+	@Param({"true", "false"})
+	public boolean cached;
+
+	private JwtAuthenticationFilter filter;
+	private String authorization;
+
+	@Setup
+	public void setUp() {
+		JwtTokenProvider tokenProvider = JwtBenchmark.tokenProvider();
+		UserDetails user = new UserPrincipal(1L, "email@mail.fr", "mdp", AuthorityUtils.createAuthorityList("ROLE_USER"));
+
+		// Chargement utilisateur sans base : on mesure le filtre, pas la requête SQL
+		CustomUserDetailsService userDetailsService = new CustomUserDetailsService() {
+			@Override
+			public UserDetails loadUserByUsername(String username) {
+				return user;
+			}
+		};
+
+		filter = new JwtAuthenticationFilter();
+		ReflectionTestUtils.setField(filter, "tokenProvider", tokenProvider);
+		ReflectionTestUtils.setField(filter, "customUserDetailsService", userDetailsService);
+		ReflectionTestUtils.setField(filter, "principalCache", new PrincipalCache(cached ? 10_000 : 0, 300_000));
+		authorization = "Bearer " + tokenProvider.generateToken(user);
+	}
+
+	@Benchmark
+	public Object authenticate() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/notifications");
+		request.addHeader("Authorization", authorization);
+		filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+		Object authentication = SecurityContextHolder.getContext().getAuthentication();
+		SecurityContextHolder.clearContext();
+		return authentication;
+	}
+}
@@ -0,0 +1,59 @@
+package com.localexchange.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Génération et vérification d'un token JWT (signature HS512)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+	private JwtTokenProvider tokenProvider;
+	private UserDetails user;
+	private String token;
+
+	@Setup
+	public void setUp() {
+		tokenProvider = tokenProvider();
+		user = User.withUsername("email@mail.fr").password("mdp").authorities("ROLE_USER").build();
+		token = tokenProvider.generateToken(user);
+	}
+
+	@Benchmark
+	public String generate() {
+		return tokenProvider.generateToken(user);
+	}
+
+	@Benchmark
+	public Object validate() {
+		return tokenProvider.parseValidToken(token);
+	}
+
+	static JwtTokenProvider tokenProvider() {
+		JwtTokenProvider tokenProvider = new JwtTokenProvider();
+		ReflectionTestUtils.setField(tokenProvider, "jwtSecret",
+				"secret_de_banc_suffisamment_long_pour_hs512_secret_de_banc_suffisamment_long");
+		ReflectionTestUtils.setField(tokenProvider, "jwtExpirationMs", 3_600_000L);
+		tokenProvider.init();
+		return tokenProvider;
+	}
+}
@@ -0,0 +1,121 @@
+package com.localexchange.service;
+
+import com.localexchange.model.ExchangeRequest;
+import com.localexchange.model.ExchangeStatus;
+import com.localexchange.model.ItemListing;
+import com.localexchange.model.Message;
+import com.localexchange.model.SkillListing;
+import com.localexchange.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversions entité → DTO des services d'annonces, d'échanges et de messages, sur des entités déjà chargées
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConvertToDtoBenchmark {
+
+	private final ItemListingService itemListingService = new ItemListingService();
+	private final SkillListingService skillListingService = new SkillListingService();
+	private final ExchangeRequestService exchangeRequestService = new ExchangeRequestService();
+	private final MessageService messageService = new MessageService();
+
+	private ItemListing item;
+	private SkillListing skill;
+	private ExchangeRequest exchange;
+	private Message message;
+
+	@Setup
+	public void setUp() {
+		User owner = user(1L, "Alice");
+		User other = user(2L, "Bruno");
+
+		item = new ItemListing();
+		item.setId(10L);
+		item.setTitre("Perceuse à percussion");
+		item.setDescription("Perceuse 750 W avec coffret et jeu de forets, parfait état.");
+		item.setCategorie("Bricolage");
+		item.setImages("[\"/api/uploads/files/a.jpg\",\"/api/uploads/files/b.jpg\"]");
+		item.setCommentaireEchange("Contre un coup de main au jardin");
+		item.setCreatedAt(LocalDateTime.now());
+		item.setUpdatedAt(LocalDateTime.now());
+		item.setOwner(owner);
+
+		skill = new SkillListing();
+		skill.setId(20L);
+		skill.setTitre("Cours de guitare");
+		skill.setDescription("Initiation à la guitare acoustique, une heure par semaine.");
+		skill.setDisponibilites("Le soir en semaine");
+		skill.setCreatedAt(LocalDateTime.now());
+		skill.setUpdatedAt(LocalDateTime.now());
+		skill.setOwner(owner);
+
+		exchange = new ExchangeRequest();
+		exchange.setId(30L);
+		exchange.setOffreEnRetour("Un pot de confiture maison");
+		exchange.setDateEchange(LocalDate.now().plusDays(3));
+		exchange.setStatut(ExchangeStatus.ACCEPTED);
+		exchange.setMessageInitial("Bonjour, la perceuse est-elle disponible samedi ?");
+		exchange.setBeneficiaire(other);
+		exchange.setDonateur(owner);
+		exchange.setItemListing(item);
+		exchange.setCreatedAt(LocalDateTime.now());
+		exchange.setUpdatedAt(LocalDateTime.now());
+
+		message = new Message();
+		message.setId(40L);
+		message.setNumero(1L);
+		message.setContenu("Parfait, à samedi !");
+		message.setExpediteur(owner);
+		message.setDestinataire(other);
+		message.setExchangeRequest(exchange);
+		message.setCreatedAt(LocalDateTime.now());
+	}
+
+	@Benchmark
+	public Object itemListing() {
+		return itemListingService.convertToDTO(item, 4.5);
+	}
+
+	@Benchmark
+	public Object skillListing() {
+		return skillListingService.convertToDTO(skill, 4.5);
+	}
+
+	@Benchmark
+	public Object exchangeRequest() {
+		return exchangeRequestService.convertToDTO(exchange);
+	}
+
+	@Benchmark
+	public Object message() {
+		return messageService.convertToDTO(message);
+	}
+
+	private static User user(Long id, String nom) {
+		User user = new User();
+		user.setId(id);
+		user.setEmail(nom.toLowerCase() + "@mail.fr");
+		user.setNom(nom);
+		user.setLocalisation("Pau");
+		user.setPhoto("/api/uploads/files/" + id + ".jpg");
+		return user;
+	}
+}
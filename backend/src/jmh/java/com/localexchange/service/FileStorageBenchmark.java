@@ -0,0 +1,84 @@
+package com.localexchange.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Dépôt d'un fichier par FileStorageService.storeFiles : hash SHA-256 en flux, écriture et rangement.
+ * duplicate=true : contenu déjà stocké (dédoublonnage) ; duplicate=false : contenu nouveau à chaque appel.
+ * Les octets ne sont pas une image décodable : le coût des déclinaisons est exclu.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileStorageBenchmark {
+
+	@Param({"524288"})
+	public int size;
+
+	@Param({"false", "true"})
+	public boolean duplicate;
+
+	private Path uploadDir;
+	private FileStorageService storage;
+	private ImageDerivativeService derivatives;
+	private byte[] content;
+	private long counter;
+
+	@Setup(Level.Iteration)
+	public void setUp() throws IOException {
+		uploadDir = Files.createTempDirectory("storage-bench");
+		storage = new FileStorageService(uploadDir.toString());
+		derivatives = new ImageDerivativeService(1, 10_000, 0.8f);
+		ReflectionTestUtils.setField(storage, "imageDerivativeService", derivatives);
+		content = new byte[size];
+		new Random(size).nextBytes(content);
+	}
+
+	@TearDown(Level.Iteration)
+	public void tearDown() throws IOException {
+		derivatives.shutdown();
+		try (Stream<Path> files = Files.walk(uploadDir)) {
+			for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+				Files.deleteIfExists(path);
+			}
+		}
+	}
+
+	@Benchmark
+	public List<String> storeFiles() throws IOException {
+		if (!duplicate) {
+			// Contenu différent à chaque appel sans réallouer le tableau
+			ByteBuffer.wrap(content).putLong(0, ++counter);
+		}
+		MultipartFile file = new MockMultipartFile("files", "fichier.bin", "application/octet-stream", content);
+		return storage.storeFiles(new MultipartFile[] {file});
+	}
+}
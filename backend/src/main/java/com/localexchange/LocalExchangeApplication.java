@@ -2,12 +2,16 @@ package com.localexchange;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Application principale LocalExchange
  * Plateforme d'échange local de biens et compétences
  */
 @SpringBootApplication
+@EnableAsync
+@EnableScheduling
 public class LocalExchangeApplication {
     
     public static void main(String[] args) {
@@ -0,0 +1,128 @@
+package com.localexchange.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cloison (bulkhead) devant le pool de connexions : un sémaphore limite le nombre de threads
+ * qui tiennent ou attendent une connexion. Avec des threads virtuels, des milliers de requêtes
+ * attendent ici (sans bloquer de thread porteur) au lieu de s'empiler dans la file d'attente de Hikari.
+ * Le permis est rendu à la fermeture de la connexion.
+ * Un thread qui tient déjà une connexion en ouvre une seconde sans nouveau permis : c'est le cas des
+ * allocations de blocs d'identifiants (id_generators), faites par Hibernate dans une transaction séparée.
+ * Sans cela, des threads tenant tous les permis attendraient chacun un second permis indéfiniment.
+ */
+public class BulkheadDataSource extends DelegatingDataSource {
+    
+    private final Semaphore permits;
+    private final long acquireTimeoutMs;
+    
+    // Connexions ouvertes par le thread courant : seule la première consomme un permis
+    private final ThreadLocal<AtomicInteger> openConnections = ThreadLocal.withInitial(AtomicInteger::new);
+    
+    public BulkheadDataSource(DataSource target, int maxConcurrent, long acquireTimeoutMs) {
+        super(target);
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        return open(super::getConnection);
+    }
+    
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return open(() -> super.getConnection(username, password));
+    }
+    
+    /**
+     * Permis disponibles (connexions encore accordables sans attente)
+     */
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+    
+    /**
+     * Threads en attente d'un permis
+     */
+    public int queueLength() {
+        return permits.getQueueLength();
+    }
+    
+    private Connection open(ConnectionSource source) throws SQLException {
+        AtomicInteger open = openConnections.get();
+        boolean permit = open.get() == 0;
+        if (permit) {
+            acquire();
+        }
+        open.incrementAndGet();
+        try {
+            return guard(source.get(), open, permit);
+        } catch (SQLException | RuntimeException e) {
+            release(open, permit);
+            throw e;
+        }
+    }
+    
+    private void release(AtomicInteger open, boolean permit) {
+        open.decrementAndGet();
+        if (permit) {
+            permits.release();
+        }
+    }
+    
+    private void acquire() throws SQLException {
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException(
+                        "Base de données saturée : aucune connexion disponible après " + acquireTimeoutMs + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Attente d'une connexion interrompue", e);
+        }
+    }
+    
+    private Connection guard(Connection connection, AtomicInteger open, boolean permit) {
+        AtomicBoolean released = new AtomicBoolean();
+        InvocationHandler handler = (proxy, method, args) -> {
+            if ("close".equals(method.getName()) && method.getParameterCount() == 0) {
+                try {
+                    return method.invoke(connection);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                } finally {
+                    if (released.compareAndSet(false, true)) {
+                        release(open, permit);
+                    }
+                }
+            }
+            if ("unwrap".equals(method.getName()) && args != null && ((Class<?>) args[0]).isInstance(proxy)) {
+                return proxy;
+            }
+            try {
+                return method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        };
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(), new Class<?>[] {Connection.class}, handler);
+    }
+    
+    private interface ConnectionSource {
+        Connection get() throws SQLException;
+    }
+}
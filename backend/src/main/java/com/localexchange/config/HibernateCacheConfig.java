@@ -0,0 +1,68 @@
+package com.localexchange.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache de second niveau Hibernate (JCache sur Caffeine) pour les utilisateurs et les annonces.
+ * Régions bornées en nombre d'entrées et en durée ; stratégie READ_WRITE : une modification faite par une entité gérée
+ * (updateProfile, updateItem, updateSkill) verrouille l'entrée puis la remplace au commit.
+ * Succès / échecs par région : hibernate.second.level.cache.requests (statistiques Hibernate) ; évictions : cache.evictions.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    public static final String USERS = "users";
+    public static final String USERS_BY_EMAIL = "users-by-email";
+    public static final String ITEM_LISTINGS = "item-listings";
+    public static final String SKILL_LISTINGS = "skill-listings";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(@Value("${app.second-level-cache.users-max-size:10000}") long usersMaxSize,
+                                              @Value("${app.second-level-cache.listings-max-size:20000}") long listingsMaxSize,
+                                              @Value("${app.second-level-cache.ttl:3600000}") long ttl) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+        createIfAbsent(cacheManager, USERS, usersMaxSize, ttl);
+        createIfAbsent(cacheManager, USERS_BY_EMAIL, usersMaxSize, ttl);
+        createIfAbsent(cacheManager, ITEM_LISTINGS, listingsMaxSize, ttl);
+        createIfAbsent(cacheManager, SKILL_LISTINGS, listingsMaxSize, ttl);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put("hibernate.javax.cache.cache_manager", hibernateCacheManager);
+    }
+
+    @Bean
+    public MeterBinder secondLevelCacheMetrics(CacheManager hibernateCacheManager) {
+        return registry -> {
+            for (String region : List.of(USERS, USERS_BY_EMAIL, ITEM_LISTINGS, SKILL_LISTINGS)) {
+                JCacheMetrics.monitor(registry, hibernateCacheManager.getCache(region));
+            }
+        };
+    }
+
+    private static void createIfAbsent(CacheManager cacheManager, String region, long maxSize, long ttl) {
+        if (cacheManager.getCache(region) != null) {
+            return;
+        }
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maxSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.MILLISECONDS.toNanos(ttl)));
+        configuration.setStatisticsEnabled(true);
+        cacheManager.createCache(region, configuration);
+    }
+}
@@ -0,0 +1,72 @@
+package com.localexchange.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+import jakarta.persistence.metamodel.EntityType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Field;
+
+/**
+ * Recalage des générateurs d'identifiants au démarrage.
+ * Les entités tirent leurs identifiants par blocs dans la table id_generators (stratégie pooled-lo),
+ * ce qui permet à Hibernate de regrouper les INSERT ; une base créée avec AUTO_INCREMENT contient déjà des lignes,
+ * donc chaque compteur est porté au-delà du plus grand identifiant existant avant la première insertion.
+ * Idempotent : un compteur déjà en avance n'est jamais reculé.
+ */
+@Component
+public class IdGeneratorAlignment {
+
+    private static final Logger log = LoggerFactory.getLogger(IdGeneratorAlignment.class);
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Exécuté à l'initialisation du contexte : le schéma existe déjà, les tâches planifiées et Tomcat pas encore
+     */
+    @PostConstruct
+    public void align() {
+        for (EntityType<?> entity : entityManagerFactory.getMetamodel().getEntities()) {
+            Class<?> type = entity.getJavaType();
+            Table table = type.getAnnotation(Table.class);
+            for (Field field : type.getDeclaredFields()) {
+                TableGenerator generator = field.getAnnotation(TableGenerator.class);
+                if (generator != null && table != null) {
+                    align(generator, table.name(), field.getName());
+                }
+            }
+        }
+    }
+
+    private void align(TableGenerator generator, String table, String idColumn) {
+        long next = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(MAX(" + idColumn + "), 0) + 1 FROM " + table, Long.class);
+        String update = "UPDATE " + generator.table() + " SET " + generator.valueColumnName() + " = ? "
+                + "WHERE " + generator.pkColumnName() + " = ? AND " + generator.valueColumnName() + " < ?";
+        Integer rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + generator.table()
+                + " WHERE " + generator.pkColumnName() + " = ?", Integer.class, generator.pkColumnValue());
+        if (rows == null || rows == 0) {
+            try {
+                jdbcTemplate.update("INSERT INTO " + generator.table() + " (" + generator.pkColumnName() + ", "
+                        + generator.valueColumnName() + ") VALUES (?, ?)", generator.pkColumnValue(), next);
+                return;
+            } catch (DuplicateKeyException e) {
+                // Ligne créée au même instant par une autre instance
+            }
+        }
+        if (jdbcTemplate.update(update, next, generator.pkColumnValue(), next) > 0) {
+            log.info("Générateur {} recalé à {}", generator.pkColumnValue(), next);
+        }
+    }
+}
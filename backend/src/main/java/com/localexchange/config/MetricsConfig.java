@@ -0,0 +1,26 @@
+package com.localexchange.config;
+
+import com.localexchange.metrics.HibernateActivityInspector;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Métriques exposées sur le port de management (/actuator/prometheus).
+ * Latence par endpoint, pool Hikari et statistiques Hibernate viennent d'Actuator (voir management.* dans application.yml) ;
+ * s'y ajoutent les requêtes SQL et entités chargées par requête HTTP (PersistenceMetricsFilter)
+ * et les compteurs métier (BusinessMetrics).
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer persistenceActivityCustomizer() {
+        HibernateActivityInspector inspector = new HibernateActivityInspector();
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+            properties.put(AvailableSettings.INTERCEPTOR, inspector);
+        };
+    }
+}
@@ -0,0 +1,91 @@
+package com.localexchange.config;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Diagnostic des threads virtuels épinglés (bloqués sur leur thread porteur, typiquement
+ * une attente d'E/S dans un bloc synchronized) via l'événement JFR jdk.VirtualThreadPinned.
+ * Chaque site d'épinglage est journalisé en WARN à sa première occurrence, puis compté.
+ */
+@Component
+@ConditionalOnProperty(name = "app.diagnostics.pinned-threads.enabled", havingValue = "true")
+public class PinnedThreadMonitor {
+    
+    private static final Logger log = LoggerFactory.getLogger(PinnedThreadMonitor.class);
+    
+    private static final int STACK_DEPTH = 12;
+    
+    private final Map<String, LongAdder> pinnedSites = new ConcurrentHashMap<>();
+    
+    @Value("${app.diagnostics.pinned-threads.threshold:20}")
+    private long thresholdMs;
+    
+    private RecordingStream recording;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        recording = new RecordingStream();
+        recording.enable("jdk.VirtualThreadPinned")
+                .withThreshold(Duration.ofMillis(thresholdMs))
+                .withStackTrace();
+        recording.onEvent("jdk.VirtualThreadPinned", this::onPinned);
+        recording.startAsync();
+        log.info("Surveillance des threads virtuels épinglés active (seuil {} ms)", thresholdMs);
+    }
+    
+    @PreDestroy
+    public void stop() {
+        if (recording != null) {
+            recording.close();
+        }
+    }
+    
+    /**
+     * Nombre d'épinglages observés par site (pile d'appels abrégée)
+     */
+    public Map<String, Long> getPinnedSites() {
+        return pinnedSites.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().sum()));
+    }
+    
+    private void onPinned(RecordedEvent event) {
+        String site = describe(event);
+        LongAdder count = pinnedSites.computeIfAbsent(site, s -> new LongAdder());
+        count.increment();
+        if (count.sum() == 1) {
+            log.warn("Thread virtuel épinglé pendant {} ms :\n{}", event.getDuration().toMillis(), site);
+        } else {
+            log.debug("Thread virtuel épinglé pendant {} ms ({} fois) :\n{}",
+                    event.getDuration().toMillis(), count.sum(), site);
+        }
+    }
+    
+    private String describe(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "(pile indisponible)";
+        }
+        List<RecordedFrame> frames = event.getStackTrace().getFrames();
+        return frames.stream()
+                .limit(STACK_DEPTH)
+                .map(frame -> "    at " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                        + "(ligne " + frame.getLineNumber() + ")")
+                .collect(Collectors.joining("\n"));
+    }
+}
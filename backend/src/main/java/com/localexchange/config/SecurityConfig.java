@@ -2,6 +2,8 @@ package com.localexchange.config;
 
 import com.localexchange.security.CustomUserDetailsService;
 import com.localexchange.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -63,6 +65,8 @@ public class SecurityConfig {
                 }))
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // Redistribution asynchrone des flux SSE : déjà autorisés à l'ouverture
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         // Endpoints publics
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/items", "/api/items/**").permitAll()
@@ -73,6 +77,8 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.DELETE, "/api/skills/**").authenticated()
                         .requestMatchers("/api/uploads/**").permitAll()
                         .requestMatchers("/api/reviews/user/**").permitAll()
+                        // Sondes et scrape Prometheus, servis sur le port de management (8081)
+                        .requestMatchers(EndpointRequest.to("health", "prometheus")).permitAll()
                         // Tous les autres endpoints nécessitent une authentification
                         .anyRequest().authenticated()
                 )
@@ -0,0 +1,61 @@
+package com.localexchange.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Cloison d'accès à la base, active dans les deux modes de threads.
+ * En threads virtuels (spring.threads.virtual.enabled), Tomcat, @Async et @Scheduled ne sont plus bornés :
+ * c'est ici qu'on limite la concurrence sur le pool Hikari.
+ * En threads plateforme, les 200 threads Tomcat dépassent aussi la taille du pool : la cloison y garde
+ * la connexion réservée aux allocations d'identifiants.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.db.bulkhead.enabled", havingValue = "true", matchIfMissing = true)
+public class VirtualThreadConfig {
+    
+    /**
+     * Par défaut, une connexion du pool reste hors cloison : elle sert aux allocations d'identifiants
+     * qu'un thread déjà connecté ouvre en parallèle de sa transaction
+     */
+    @Bean
+    public static BeanPostProcessor dataSourceBulkhead(Environment environment) {
+        int poolSize = environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+        int maxConcurrent = environment.getProperty("app.db.bulkhead.max-concurrent", Integer.class, Math.max(1, poolSize - 1));
+        long acquireTimeoutMs = environment.getProperty("app.db.bulkhead.acquire-timeout", Long.class, 10000L);
+        
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof BulkheadDataSource)) {
+                    return new BulkheadDataSource(dataSource, maxConcurrent, acquireTimeoutMs);
+                }
+                return bean;
+            }
+        };
+    }
+    
+    /**
+     * Saturation de la cloison : permis libres et threads en attente d'une connexion
+     */
+    @Bean
+    public MeterBinder dataSourceBulkheadMetrics(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof BulkheadDataSource bulkhead) {
+                Gauge.builder("db.bulkhead.permits.available", bulkhead, BulkheadDataSource::availablePermits)
+                        .description("Threads pouvant encore obtenir une connexion sans attendre")
+                        .register(registry);
+                Gauge.builder("db.bulkhead.waiting", bulkhead, BulkheadDataSource::queueLength)
+                        .description("Threads en attente d'une connexion")
+                        .register(registry);
+            }
+        };
+    }
+}
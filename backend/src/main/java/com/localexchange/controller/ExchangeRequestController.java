@@ -1,5 +1,6 @@
 package com.localexchange.controller;
 
+import com.localexchange.dto.ExchangeInboxDTO;
 import com.localexchange.dto.ExchangeRequestDTO;
 import com.localexchange.service.ExchangeRequestService;
 import jakarta.validation.Valid;
@@ -53,6 +54,34 @@ public class ExchangeRequestController {
         return ResponseEntity.ok(requests);
     }
     
+    /**
+     * Demandes reçues paginées (statut optionnel) et nombre de demandes par statut
+     */
+    @GetMapping("/inbox/received")
+    public ResponseEntity<?> getReceivedInbox(
+            @RequestParam(required = false) String statut,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        ExchangeInboxDTO inbox = exchangeRequestService.getReceivedInbox(
+                userDetails.getUsername(), statut, page, size);
+        return ResponseEntity.ok(inbox);
+    }
+    
+    /**
+     * Demandes envoyées paginées (statut optionnel) et nombre de demandes par statut
+     */
+    @GetMapping("/inbox/sent")
+    public ResponseEntity<?> getSentInbox(
+            @RequestParam(required = false) String statut,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        ExchangeInboxDTO inbox = exchangeRequestService.getSentInbox(
+                userDetails.getUsername(), statut, page, size);
+        return ResponseEntity.ok(inbox);
+    }
+    
     /**
      * Récupérer un échange par ID
      */
@@ -1,7 +1,11 @@
 package com.localexchange.controller;
 
+import com.localexchange.dto.CategoryFacetDTO;
+import com.localexchange.dto.CursorPageDTO;
+import com.localexchange.dto.ItemCardDTO;
 import com.localexchange.dto.ItemDetailDTO;
 import com.localexchange.dto.ItemListingDTO;
+import com.localexchange.service.CategoryFacetService;
 import com.localexchange.service.ItemListingService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -24,6 +28,9 @@ public class ItemListingController {
     @Autowired
     private ItemListingService itemListingService;
     
+    @Autowired
+    private CategoryFacetService categoryFacetService;
+    
     /**
      * Créer une nouvelle annonce d'objet
      */
@@ -37,20 +44,46 @@ public class ItemListingController {
     }
     
     /**
-     * Récupérer tous les objets avec filtres et pagination
+     * Récupérer tous les objets avec filtres et pagination.
+     * Avec le paramètre cursor (vide pour la première page), pagination par curseur sans total.
+     * Avec near (commune, code postal ou « latitude,longitude »), objets à moins de radiusKm triés par distance.
      */
     @GetMapping
     public ResponseEntity<?> getAllItems(
             @RequestParam(required = false) String categorie,
             @RequestParam(required = false) String search,
+            @RequestParam(required = false) String near,
+            @RequestParam(defaultValue = "10") double radiusKm,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "12") int size) {
         
+        if (near != null && !near.isBlank()) {
+            if (cursor != null) {
+                return ResponseEntity.ok(itemListingService.getItemsNearByCursor(near, radiusKm, categorie, search, cursor, size));
+            }
+            return ResponseEntity.ok(itemListingService.getItemsNear(near, radiusKm, categorie, search, PageRequest.of(page, size)));
+        }
+        
+        if (cursor != null) {
+            CursorPageDTO<ItemCardDTO> items = itemListingService.getItemsByCursor(categorie, search, cursor, size);
+            return ResponseEntity.ok(items);
+        }
+        
         Pageable pageable = PageRequest.of(page, size);
-        Page<ItemListingDTO> items = itemListingService.getAllItems(categorie, search, pageable);
+        Page<ItemCardDTO> items = itemListingService.getAllItems(categorie, search, pageable);
         return ResponseEntity.ok(items);
     }
     
+    /**
+     * Nombre d'objets disponibles par catégorie, éventuellement restreint à une recherche
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<?> getCategoryFacets(@RequestParam(required = false) String search) {
+        List<CategoryFacetDTO> facets = categoryFacetService.getFacets(search);
+        return ResponseEntity.ok(facets);
+    }
+    
     /**
      * Récupérer un objet par son ID
      */
@@ -1,16 +1,21 @@
 package com.localexchange.controller;
 
 import com.localexchange.dto.MessageDTO;
+import com.localexchange.security.UserPrincipal;
 import com.localexchange.service.MessageService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/messages")
@@ -33,17 +38,64 @@ public class MessageController {
     }
     
     /**
-     * Récupérer la conversation d'un échange
+     * Récupérer la conversation d'un échange : derniers messages, messages avant before ou après after
+     * (rangs dans la conversation, champ numero)
      */
     @GetMapping("/conversation/{exchangeId}")
     public ResponseEntity<?> getConversation(
             @PathVariable Long exchangeId,
+            @RequestParam(required = false) Long before,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "50") int limit,
             @AuthenticationPrincipal UserDetails userDetails) {
         
-        List<MessageDTO> messages = messageService.getConversation(exchangeId, userDetails.getUsername());
+        List<MessageDTO> messages = messageService.getConversation(
+                exchangeId, before, after, limit, userDetails.getUsername());
         return ResponseEntity.ok(messages);
     }
     
+    /**
+     * Flux temps réel (Server-Sent Events) des nouveaux messages d'un échange
+     */
+    @GetMapping(value = "/conversation/{exchangeId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamConversation(
+            @PathVariable Long exchangeId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        
+        return messageService.openConversationStream(exchangeId, userDetails.getUsername(), lastEventId).getEmitter();
+    }
+    
+    /**
+     * Marquer comme lus les messages reçus dans une conversation, jusqu'au rang upTo inclus
+     */
+    @PutMapping("/conversation/{exchangeId}/read")
+    public ResponseEntity<?> markConversationAsRead(
+            @PathVariable Long exchangeId,
+            @RequestParam(required = false) Long upTo,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        
+        int updated = messageService.markConversationAsRead(exchangeId, upTo, userDetails.getUsername());
+        
+        Map<String, Integer> response = new HashMap<>();
+        response.put("count", updated);
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Récupérer le nombre de messages non lus
+     */
+    @GetMapping("/unread-count")
+    public ResponseEntity<?> getUnreadCount(@AuthenticationPrincipal UserPrincipal principal) {
+        Integer count = messageService.getUnreadMessageCount(principal.getId());
+        
+        Map<String, Integer> response = new HashMap<>();
+        response.put("count", count);
+        
+        return ResponseEntity.ok(response);
+    }
+    
     /**
      * Marquer un message comme lu
      */
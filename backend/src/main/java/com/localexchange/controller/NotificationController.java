@@ -1,12 +1,15 @@
 package com.localexchange.controller;
 
 import com.localexchange.dto.NotificationDTO;
+import com.localexchange.security.UserPrincipal;
 import com.localexchange.service.NotificationService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.HashMap;
 import java.util.List;
@@ -29,12 +32,23 @@ public class NotificationController {
         return ResponseEntity.ok(notifications);
     }
     
+    /**
+     * Flux temps réel (Server-Sent Events) des notifications et du compteur de non lues
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        
+        return notificationService.openStream(userDetails.getUsername(), lastEventId).getEmitter();
+    }
+    
     /**
      * Récupérer le nombre de notifications non lues
      */
     @GetMapping("/unread-count")
-    public ResponseEntity<?> getUnreadCount(@AuthenticationPrincipal UserDetails userDetails) {
-        Integer count = notificationService.getUnreadCount(userDetails.getUsername());
+    public ResponseEntity<?> getUnreadCount(@AuthenticationPrincipal UserPrincipal principal) {
+        Integer count = notificationService.getUnreadCount(principal.getId());
         
         Map<String, Integer> response = new HashMap<>();
         response.put("count", count);
@@ -59,10 +73,11 @@ public class NotificationController {
      */
     @PutMapping("/read-all")
     public ResponseEntity<?> markAllAsRead(@AuthenticationPrincipal UserDetails userDetails) {
-        notificationService.markAllAsRead(userDetails.getUsername());
+        int updated = notificationService.markAllAsRead(userDetails.getUsername());
         
-        Map<String, String> response = new HashMap<>();
+        Map<String, Object> response = new HashMap<>();
         response.put("message", "Toutes les notifications ont été marquées comme lues");
+        response.put("count", updated);
         
         return ResponseEntity.ok(response);
     }
@@ -1,5 +1,6 @@
 package com.localexchange.controller;
 
+import com.localexchange.dto.ReputationDTO;
 import com.localexchange.dto.ReviewDTO;
 import com.localexchange.service.ReviewService;
 import jakarta.validation.Valid;
@@ -64,4 +65,13 @@ public class ReviewController {
         
         return ResponseEntity.ok(response);
     }
+    
+    /**
+     * Récupérer la réputation d'un utilisateur (moyenne, nombre d'avis, histogramme)
+     */
+    @GetMapping("/user/{userId}/reputation")
+    public ResponseEntity<?> getReputation(@PathVariable Long userId) {
+        ReputationDTO reputation = reviewService.getReputation(userId);
+        return ResponseEntity.ok(reputation);
+    }
 }
\ No newline at end of file
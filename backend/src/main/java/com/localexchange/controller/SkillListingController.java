@@ -1,5 +1,7 @@
 package com.localexchange.controller;
 
+import com.localexchange.dto.CursorPageDTO;
+import com.localexchange.dto.SkillCardDTO;
 import com.localexchange.dto.SkillDetailDTO;
 import com.localexchange.dto.SkillListingDTO;
 import com.localexchange.service.SkillListingService;
@@ -37,16 +39,33 @@ public class SkillListingController {
     }
     
     /**
-     * Récupérer toutes les compétences avec recherche et pagination
+     * Récupérer toutes les compétences avec recherche et pagination.
+     * Avec le paramètre cursor (vide pour la première page), pagination par curseur sans total.
+     * Avec near (commune, code postal ou « latitude,longitude »), compétences à moins de radiusKm triées par distance.
      */
     @GetMapping
     public ResponseEntity<?> getAllSkills(
             @RequestParam(required = false) String search,
+            @RequestParam(required = false) String near,
+            @RequestParam(defaultValue = "10") double radiusKm,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "12") int size) {
         
+        if (near != null && !near.isBlank()) {
+            if (cursor != null) {
+                return ResponseEntity.ok(skillListingService.getSkillsNearByCursor(near, radiusKm, search, cursor, size));
+            }
+            return ResponseEntity.ok(skillListingService.getSkillsNear(near, radiusKm, search, PageRequest.of(page, size)));
+        }
+        
+        if (cursor != null) {
+            CursorPageDTO<SkillCardDTO> skills = skillListingService.getSkillsByCursor(search, cursor, size);
+            return ResponseEntity.ok(skills);
+        }
+        
         Pageable pageable = PageRequest.of(page, size);
-        Page<SkillListingDTO> skills = skillListingService.getAllSkills(search, pageable);
+        Page<SkillCardDTO> skills = skillListingService.getAllSkills(search, pageable);
         return ResponseEntity.ok(skills);
     }
     
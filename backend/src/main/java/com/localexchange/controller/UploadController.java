@@ -1,19 +1,18 @@
 package com.localexchange.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import java.util.Objects;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.localexchange.service.FileStorageService;
+import com.localexchange.service.ImageVariant;
+import com.localexchange.service.StoredFile;
+import com.localexchange.web.StaticFileResponder;
 
 import java.io.IOException;
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
@@ -24,32 +23,25 @@ public class UploadController {
     @Autowired
     private FileStorageService fileStorageService;
 
+    @Autowired
+    private StaticFileResponder staticFileResponder;
+
     @PostMapping
     public ResponseEntity<List<String>> uploadFiles(@RequestParam("files") MultipartFile[] files) throws IOException {
         List<String> urls = fileStorageService.storeFiles(files);
         return ResponseEntity.ok(urls);
     }
 
+    /**
+     * Servir un fichier ; ?variant=thumb|card|full sert la déclinaison redimensionnée quand elle est prête
+     */
     @GetMapping("/files/{filename:.+}")
-    public ResponseEntity<Resource> serveFile(@PathVariable String filename) throws IOException {
-        Resource file = fileStorageService.loadAsResource(filename);
-        String encoded = URLEncoder.encode(filename, StandardCharsets.UTF_8);
-        
-        // Determine content type based on file extension
-        MediaType contentType = MediaType.APPLICATION_OCTET_STREAM;
-        if (filename.toLowerCase().endsWith(".jpg") || filename.toLowerCase().endsWith(".jpeg")) {
-            contentType = MediaType.IMAGE_JPEG;
-        } else if (filename.toLowerCase().endsWith(".png")) {
-            contentType = MediaType.IMAGE_PNG;
-        } else if (filename.toLowerCase().endsWith(".gif")) {
-            contentType = MediaType.IMAGE_GIF;
-        } else if (filename.toLowerCase().endsWith(".webp")) {
-            contentType = MediaType.parseMediaType("image/webp");
-        }
-        
-        return ResponseEntity.ok()
-                .contentType(Objects.requireNonNull(contentType))
-                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + encoded + "\"")
-                .body(file);
+    public void serveFile(
+            @PathVariable String filename,
+            @RequestParam(required = false) String variant,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        StoredFile file = fileStorageService.locate(filename, ImageVariant.fromParam(variant));
+        staticFileResponder.serve(file, filename, request, response);
     }
 }
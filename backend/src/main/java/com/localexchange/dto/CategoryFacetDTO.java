@@ -0,0 +1,17 @@
+package com.localexchange.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Nombre d'objets disponibles d'une catégorie
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryFacetDTO {
+    
+    private String categorie;
+    private long count;
+}
@@ -0,0 +1,20 @@
+package com.localexchange.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Page en mode curseur : pas de total, seulement le jeton de la page suivante
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDTO<T> {
+    
+    private List<T> content;
+    private String nextCursor;
+    private boolean hasNext;
+}
@@ -0,0 +1,26 @@
+package com.localexchange.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Page de demandes reçues ou envoyées, avec le nombre de demandes de chaque statut (onglets)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExchangeInboxDTO {
+    
+    private List<ExchangeRequestDTO> content;
+    private int page;
+    private int size;
+    /** Demandes du filtre courant (un statut, ou tous) */
+    private long totalElements;
+    private int totalPages;
+    /** Tous les statuts, dans l'ordre de ExchangeStatus, y compris ceux à zéro */
+    private Map<String, Long> statusCounts;
+}
@@ -0,0 +1,53 @@
+package com.localexchange.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Carte d'objet pour les listes paginées : uniquement les champs affichés dans la grille,
+ * chargés avec le propriétaire et sa réputation en une seule requête
+ */
+@Data
+@NoArgsConstructor
+public class ItemCardDTO {
+    
+    private Long id;
+    private String titre;
+    private String description;
+    private String categorie;
+    private String images;
+    private Boolean disponibilite;
+    
+    private Long ownerId;
+    private String ownerNom;
+    private String ownerPhoto;
+    private String ownerLocalisation;
+    private Double ownerRating;
+    
+    private LocalDateTime createdAt;
+    
+    /** Renseignée uniquement pour une recherche « près de » */
+    private Double distanceKm;
+    
+    /**
+     * Constructeur utilisé par les requêtes de projection JPQL
+     */
+    public ItemCardDTO(Long id, String titre, String description, String categorie, String images,
+                       Boolean disponibilite, Long ownerId, String ownerNom, String ownerPhoto,
+                       String ownerLocalisation, Integer reviewCount, Long ratingSum, LocalDateTime createdAt) {
+        this.id = id;
+        this.titre = titre;
+        this.description = description;
+        this.categorie = categorie;
+        this.images = ListingImages.cover(images);
+        this.disponibilite = disponibilite;
+        this.ownerId = ownerId;
+        this.ownerNom = ownerNom;
+        this.ownerPhoto = ownerPhoto;
+        this.ownerLocalisation = ownerLocalisation;
+        this.ownerRating = reviewCount == null || reviewCount == 0 ? null : (double) ratingSum / reviewCount;
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,111 @@
+package com.localexchange.dto;
+
+import com.localexchange.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position opaque dans une liste d'annonces.
+ * Parcours chronologique : dernière carte vue (createdAt, id), pour une pagination par clé sans OFFSET.
+ * Résultats de recherche (classés en mémoire) : simple décalage dans la liste classée.
+ */
+public final class ListingCursor {
+    
+    /** Avant toute annonce : point de départ du parcours chronologique décroissant */
+    private static final LocalDateTime START = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+    
+    /** Taille maximale d'une page parcourue par curseur */
+    public static final int MAX_PAGE_SIZE = 100;
+    
+    private static final String KEYSET = "k";
+    private static final String OFFSET = "o";
+    
+    private final LocalDateTime createdAt;
+    private final Long id;
+    private final int offset;
+    
+    private ListingCursor(LocalDateTime createdAt, Long id, int offset) {
+        this.createdAt = createdAt;
+        this.id = id;
+        this.offset = offset;
+    }
+    
+    public static ListingCursor after(LocalDateTime createdAt, Long id) {
+        return new ListingCursor(createdAt, id, 0);
+    }
+    
+    public static ListingCursor atOffset(int offset) {
+        return new ListingCursor(null, null, offset);
+    }
+    
+    /**
+     * Taille de page demandée ramenée entre 1 et MAX_PAGE_SIZE : une page vide ne ferait jamais avancer le curseur
+     */
+    public static int pageSize(int requested) {
+        return Math.min(Math.max(requested, 1), MAX_PAGE_SIZE);
+    }
+    
+    /**
+     * Décoder un jeton de parcours chronologique ; vide = première page
+     */
+    public static ListingCursor decodeKeyset(String token) {
+        if (token == null || token.isBlank()) {
+            return after(START, Long.MAX_VALUE);
+        }
+        String[] parts = decode(token);
+        try {
+            if (parts.length == 3 && KEYSET.equals(parts[0])) {
+                return after(LocalDateTime.parse(parts[1]), Long.parseLong(parts[2]));
+            }
+        } catch (NumberFormatException | DateTimeParseException e) {
+            // jeton altéré
+        }
+        throw new InvalidCursorException();
+    }
+    
+    /**
+     * Décoder un jeton de résultats de recherche ; vide = première page
+     */
+    public static ListingCursor decodeOffset(String token) {
+        if (token == null || token.isBlank()) {
+            return atOffset(0);
+        }
+        String[] parts = decode(token);
+        try {
+            if (parts.length == 2 && OFFSET.equals(parts[0]) && Integer.parseInt(parts[1]) >= 0) {
+                return atOffset(Integer.parseInt(parts[1]));
+            }
+        } catch (NumberFormatException e) {
+            // jeton altéré
+        }
+        throw new InvalidCursorException();
+    }
+    
+    private static String[] decode(String token) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|");
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException();
+        }
+    }
+    
+    public String encode() {
+        String raw = createdAt != null ? KEYSET + "|" + createdAt + "|" + id : OFFSET + "|" + offset;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public int getOffset() {
+        return offset;
+    }
+}
@@ -0,0 +1,30 @@
+package com.localexchange.dto;
+
+/**
+ * Extraction de l'image de couverture depuis le champ images d'une annonce
+ * (tableau JSON, liste séparée par des virgules ou URL unique)
+ */
+final class ListingImages {
+    
+    private ListingImages() {
+    }
+    
+    static String cover(String images) {
+        if (images == null || images.isBlank()) {
+            return null;
+        }
+        String value = images.trim();
+        if (value.startsWith("[")) {
+            value = value.substring(1, value.endsWith("]") ? value.length() - 1 : value.length());
+        }
+        int comma = value.indexOf(',');
+        if (comma >= 0) {
+            value = value.substring(0, comma);
+        }
+        value = value.trim();
+        if (value.startsWith("\"") && value.endsWith("\"") && value.length() >= 2) {
+            value = value.substring(1, value.length() - 1);
+        }
+        return value.isEmpty() ? null : value;
+    }
+}
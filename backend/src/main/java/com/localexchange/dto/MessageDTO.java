@@ -16,6 +16,9 @@ public class MessageDTO {
     
     private Long id;
     
+    /** Rang dans la conversation : ordre d'affichage et curseur de pagination */
+    private Long numero;
+    
     @NotBlank(message = "Le contenu du message est obligatoire")
     @Size(max = 2000, message = "Le message ne peut pas dépasser 2000 caractères")
     private String contenu;
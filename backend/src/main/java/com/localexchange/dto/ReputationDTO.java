@@ -0,0 +1,18 @@
+package com.localexchange.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReputationDTO {
+    
+    private Long userId;
+    private Double averageRating;
+    private Integer reviewCount;
+    private Map<Integer, Integer> histogram;
+}
@@ -0,0 +1,12 @@
+package com.localexchange.exception;
+
+public class InvalidCursorException extends RuntimeException {
+    
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+    
+    public InvalidCursorException() {
+        super("Curseur de pagination invalide");
+    }
+}
@@ -0,0 +1,8 @@
+package com.localexchange.exception;
+
+public class UnknownLocationException extends RuntimeException {
+    
+    public UnknownLocationException(String localisation) {
+        super(String.format("Localisation inconnue : '%s'", localisation));
+    }
+}
@@ -0,0 +1,8 @@
+package com.localexchange.exception;
+
+public class UnknownStatusException extends RuntimeException {
+    
+    public UnknownStatusException(String statut) {
+        super(String.format("Statut d'échange inconnu : '%s'", statut));
+    }
+}
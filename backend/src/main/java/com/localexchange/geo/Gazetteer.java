@@ -0,0 +1,118 @@
+package com.localexchange.geo;
+
+import com.localexchange.exception.UnknownLocationException;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Géocodage hors ligne des localisations saisies librement (« Pau », « 64000 Pau », « Saint-Jean-de-Luz, France »).
+ * Les communes sont lues depuis geo/communes.csv (nom;code_postal;latitude;longitude) :
+ * le nom sans accents ni ponctuation est essayé d'abord, parmi les communes du code postal indiqué puis partout,
+ * le code postal seul ensuite.
+ */
+@Component
+public class Gazetteer {
+
+    private static final Logger log = LoggerFactory.getLogger(Gazetteer.class);
+
+    private static final String RESOURCE = "geo/communes.csv";
+
+    private static final Pattern POSTAL_CODE = Pattern.compile("\\b\\d{5}\\b");
+
+    private final Map<String, GeoPoint> byName = new HashMap<>();
+    /** Communes d'un même code postal, dans l'ordre du fichier */
+    private final Map<String, List<Commune>> byPostalCode = new HashMap<>();
+
+    @PostConstruct
+    public void load() {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new ClassPathResource(RESOURCE).getInputStream(), StandardCharsets.UTF_8))) {
+            reader.readLine();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] columns = line.split(";");
+                if (columns.length < 4) {
+                    continue;
+                }
+                GeoPoint point = new GeoPoint(Double.parseDouble(columns[2]), Double.parseDouble(columns[3]));
+                // Homonymes : la première commune listée l'emporte
+                String name = normalize(columns[0]);
+                byName.putIfAbsent(name, point);
+                byPostalCode.computeIfAbsent(columns[1], k -> new ArrayList<>()).add(new Commune(name, point));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Lecture de " + RESOURCE + " impossible", e);
+        }
+        log.info("Gazetteer chargé : {} communes", byName.size());
+    }
+
+    /**
+     * Coordonnées d'une localisation : « latitude,longitude », code postal ou nom de commune
+     */
+    public Optional<GeoPoint> locate(String localisation) {
+        if (localisation == null || localisation.isBlank()) {
+            return Optional.empty();
+        }
+        GeoPoint coordinates = GeoPoint.parse(localisation);
+        if (coordinates != null) {
+            return Optional.of(coordinates);
+        }
+        Matcher postalCode = POSTAL_CODE.matcher(localisation);
+        List<Commune> sameCode = postalCode.find() ? byPostalCode.getOrDefault(postalCode.group(), List.of()) : List.of();
+        // « Pau, France », « 64140 Lons », « Anglet (64) » : chaque segment est essayé dans l'ordre
+        for (String part : localisation.split("[,(/]")) {
+            String name = normalize(part.replaceAll("\\d", ""));
+            for (Commune commune : sameCode) {
+                if (commune.name().equals(name)) {
+                    return Optional.of(commune.point());
+                }
+            }
+            GeoPoint point = byName.get(name);
+            if (point != null) {
+                return Optional.of(point);
+            }
+        }
+        // Code postal seul, ou nom inconnu : première commune listée pour ce code
+        return sameCode.stream().findFirst().map(Commune::point);
+    }
+
+    /**
+     * Comme locate, mais une localisation inconnue est une erreur de la requête
+     */
+    public GeoPoint require(String localisation) {
+        return locate(localisation).orElseThrow(() -> new UnknownLocationException(localisation));
+    }
+
+    private record Commune(String name, GeoPoint point) {
+    }
+
+    static String normalize(String name) {
+        String folded = Normalizer.normalize(name, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT)
+                .replaceAll("[^a-z0-9]+", " ")
+                .trim();
+        return (" " + folded + " ")
+                .replace(" st ", " saint ")
+                .replace(" ste ", " sainte ")
+                .trim();
+    }
+}
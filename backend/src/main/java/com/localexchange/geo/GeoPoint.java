@@ -0,0 +1,50 @@
+package com.localexchange.geo;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Point géographique en degrés décimaux (WGS 84)
+ */
+public record GeoPoint(double latitude, double longitude) {
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+
+    private static final Pattern COORDINATES =
+            Pattern.compile("\\s*(-?\\d{1,2}(?:\\.\\d+)?)\\s*[,;]\\s*(-?\\d{1,3}(?:\\.\\d+)?)\\s*");
+
+    /**
+     * Point à partir de coordonnées éventuellement absentes (null si l'une manque)
+     */
+    public static GeoPoint of(Double latitude, Double longitude) {
+        return latitude == null || longitude == null ? null : new GeoPoint(latitude, longitude);
+    }
+
+    /**
+     * Lire « latitude,longitude » (null si le texte n'a pas cette forme ou sort des bornes)
+     */
+    public static GeoPoint parse(String text) {
+        Matcher matcher = COORDINATES.matcher(text);
+        if (!matcher.matches()) {
+            return null;
+        }
+        double latitude = Double.parseDouble(matcher.group(1));
+        double longitude = Double.parseDouble(matcher.group(2));
+        if (Math.abs(latitude) > 90 || Math.abs(longitude) > 180) {
+            return null;
+        }
+        return new GeoPoint(latitude, longitude);
+    }
+
+    /**
+     * Distance orthodromique en kilomètres (formule de haversine)
+     */
+    public double distanceKm(double latitude, double longitude) {
+        double dLat = Math.toRadians(latitude - this.latitude);
+        double dLon = Math.toRadians(longitude - this.longitude);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(this.latitude)) * Math.cos(Math.toRadians(latitude))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+}
@@ -0,0 +1,56 @@
+package com.localexchange.geo;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Géocodage au démarrage des comptes créés avant l'ajout des coordonnées, puis recopie sur leurs annonces.
+ * Idempotent : seules les lignes sans latitude sont touchées ; une localisation inconnue du Gazetteer reste sans coordonnées.
+ */
+@Component
+public class LocationBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(LocationBackfill.class);
+
+    private static final String[] LISTING_TABLES = {"item_listings", "skill_listings"};
+
+    @Autowired
+    private Gazetteer gazetteer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Exécuté à l'initialisation du contexte, avant la construction des index de recherche
+     */
+    @PostConstruct
+    public void backfill() {
+        List<Object[]> located = new ArrayList<>();
+        for (String localisation : jdbcTemplate.queryForList(
+                "SELECT DISTINCT localisation FROM users WHERE latitude IS NULL AND localisation IS NOT NULL", String.class)) {
+            gazetteer.locate(localisation).ifPresent(point ->
+                    located.add(new Object[] {point.latitude(), point.longitude(), localisation}));
+        }
+        if (!located.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "UPDATE users SET latitude = ?, longitude = ? WHERE localisation = ? AND latitude IS NULL", located);
+        }
+
+        for (String table : LISTING_TABLES) {
+            int rows = jdbcTemplate.update("UPDATE " + table + " SET "
+                    + "latitude = (SELECT u.latitude FROM users u WHERE u.id = " + table + ".owner_id), "
+                    + "longitude = (SELECT u.longitude FROM users u WHERE u.id = " + table + ".owner_id) "
+                    + "WHERE latitude IS NULL AND owner_id IN (SELECT id FROM users WHERE latitude IS NOT NULL)");
+            if (rows > 0) {
+                log.info("{} : {} annonces géolocalisées", table, rows);
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.localexchange.metrics;
+
+import com.localexchange.model.ExchangeStatus;
+import com.localexchange.model.NotificationType;
+import com.localexchange.util.AfterCommit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Compteurs métier, incrémentés après commit : une transaction annulée ne compte pas
+ */
+@Component
+public class BusinessMetrics {
+
+    private final MeterRegistry registry;
+
+    private final Counter messagesSent;
+
+    public BusinessMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.messagesSent = Counter.builder("messages.sent")
+                .description("Messages envoyés")
+                .register(registry);
+    }
+
+    /**
+     * Changement de statut d'une demande d'échange ; from null pour une création
+     */
+    public void exchangeTransition(ExchangeStatus from, ExchangeStatus to) {
+        Counter counter = Counter.builder("exchanges.transitions")
+                .description("Changements de statut des demandes d'échange")
+                .tags("from", from != null ? from.name() : "NONE", "to", to.name())
+                .register(registry);
+        AfterCommit.run(counter::increment);
+    }
+
+    public void messageSent() {
+        AfterCommit.run(messagesSent::increment);
+    }
+
+    public void notificationsCreated(NotificationType type, int count) {
+        Counter counter = Counter.builder("notifications.created")
+                .description("Notifications insérées")
+                .tags("type", type.name())
+                .register(registry);
+        AfterCommit.run(() -> counter.increment(count));
+    }
+}
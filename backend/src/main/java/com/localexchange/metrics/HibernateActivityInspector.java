@@ -0,0 +1,24 @@
+package com.localexchange.metrics;
+
+import org.hibernate.Interceptor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.type.Type;
+
+/**
+ * Branché sur la SessionFactory (MetricsConfig) : signale chaque requête préparée et chaque entité chargée
+ * à la mesure PersistenceActivity du thread courant. Le SQL n'est pas modifié.
+ */
+public class HibernateActivityInspector implements StatementInspector, Interceptor {
+
+    @Override
+    public String inspect(String sql) {
+        PersistenceActivity.statementPrepared();
+        return sql;
+    }
+
+    @Override
+    public boolean onLoad(Object entity, Object id, Object[] state, String[] propertyNames, Type[] types) {
+        PersistenceActivity.entityLoaded();
+        return false;
+    }
+}
@@ -0,0 +1,61 @@
+package com.localexchange.metrics;
+
+/**
+ * Activité de persistance du thread courant entre begin() et end() : requêtes SQL préparées et entités chargées.
+ * Alimentée par HibernateActivityInspector ; hors mesure, les signalements sont ignorés.
+ * Les mesures s'imbriquent : une mesure interne est aussi comptée dans celle qui l'englobe.
+ */
+public final class PersistenceActivity {
+
+    private static final ThreadLocal<PersistenceActivity> CURRENT = new ThreadLocal<>();
+
+    private final PersistenceActivity parent;
+    private int statements;
+    private int entityLoads;
+
+    private PersistenceActivity(PersistenceActivity parent) {
+        this.parent = parent;
+    }
+
+    public static PersistenceActivity begin() {
+        PersistenceActivity activity = new PersistenceActivity(CURRENT.get());
+        CURRENT.set(activity);
+        return activity;
+    }
+
+    /**
+     * Clore la mesure courante et revenir à celle qui l'englobe ; null si aucune mesure n'était ouverte
+     */
+    public static PersistenceActivity end() {
+        PersistenceActivity activity = CURRENT.get();
+        if (activity == null) {
+            return null;
+        }
+        if (activity.parent != null) {
+            CURRENT.set(activity.parent);
+        } else {
+            CURRENT.remove();
+        }
+        return activity;
+    }
+
+    static void statementPrepared() {
+        for (PersistenceActivity activity = CURRENT.get(); activity != null; activity = activity.parent) {
+            activity.statements++;
+        }
+    }
+
+    static void entityLoaded() {
+        for (PersistenceActivity activity = CURRENT.get(); activity != null; activity = activity.parent) {
+            activity.entityLoads++;
+        }
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public int getEntityLoads() {
+        return entityLoads;
+    }
+}
@@ -0,0 +1,60 @@
+package com.localexchange.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Requêtes SQL et entités chargées par requête HTTP, par endpoint (même tag uri que http.server.requests).
+ * Placé avant la sécurité pour compter aussi le chargement de l'utilisateur authentifié ;
+ * les flux SSE (requêtes asynchrones) ne sont pas mesurés.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class PersistenceMetricsFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry registry;
+
+    public PersistenceMetricsFilter(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        PersistenceActivity.begin();
+        PersistenceActivity activity = null;
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            activity = PersistenceActivity.end();
+        }
+        if (activity == null || request.isAsyncStarted()) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        DistributionSummary.builder("http.server.requests.db.statements")
+                .description("Requêtes SQL préparées par requête HTTP")
+                .baseUnit("statements")
+                .tags("method", request.getMethod(), "uri", uri)
+                .register(registry)
+                .record(activity.getStatements());
+        DistributionSummary.builder("http.server.requests.entity.loads")
+                .description("Entités chargées par Hibernate par requête HTTP")
+                .baseUnit("entities")
+                .tags("method", request.getMethod(), "uri", uri)
+                .register(registry)
+                .record(activity.getEntityLoads());
+    }
+}
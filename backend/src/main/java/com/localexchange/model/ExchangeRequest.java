@@ -15,14 +15,21 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "exchange_requests")
+@Table(name = "exchange_requests", indexes = {
+    @Index(name = "idx_exchange_requests_donateur_created", columnList = "donateur_id, created_at"),
+    @Index(name = "idx_exchange_requests_beneficiaire_created", columnList = "beneficiaire_id, created_at"),
+    @Index(name = "idx_exchange_requests_donateur_statut_created", columnList = "donateur_id, statut, created_at"),
+    @Index(name = "idx_exchange_requests_beneficiaire_statut_created", columnList = "beneficiaire_id, statut, created_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class ExchangeRequest {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "exchange_requests")
+    @TableGenerator(name = "exchange_requests", table = "id_generators", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "exchange_requests", allocationSize = 100)
     private Long id;
     
     @NotBlank
@@ -66,6 +73,7 @@ public class ExchangeRequest {
     @OneToMany(mappedBy = "exchangeRequest", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Message> messages = new ArrayList<>();
     
-    @OneToOne(mappedBy = "exchangeRequest", cascade = CascadeType.ALL)
-    private Review review;
+    // Un avis par participant : jusqu'à deux par échange
+    @OneToMany(mappedBy = "exchangeRequest", cascade = CascadeType.ALL)
+    private List<Review> reviews = new ArrayList<>();
 }
\ No newline at end of file
@@ -10,16 +10,28 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "messages")
+@Table(name = "messages", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_messages_exchange_numero", columnNames = {"exchange_request_id", "numero"})
+}, indexes = {
+    @Index(name = "idx_messages_exchange_destinataire_lu", columnList = "exchange_request_id, destinataire_id, lu"),
+    @Index(name = "idx_messages_destinataire_lu", columnList = "destinataire_id, lu")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Message {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "messages")
+    @TableGenerator(name = "messages", table = "id_generators", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "messages", allocationSize = 100)
     private Long id;
     
+    // Rang dans la conversation (1, 2, ...), attribué sous le verrou de l'échange : suit l'ordre de validation,
+    // ce que ne garantit pas l'identifiant, tiré par blocs propres à chaque instance
+    @Column(nullable = false)
+    private Long numero;
+    
     @NotBlank
     @Column(length = 2000, nullable = false)
     private String contenu;
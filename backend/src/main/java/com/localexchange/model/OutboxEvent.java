@@ -0,0 +1,67 @@
+package com.localexchange.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Événement de notification enregistré dans la transaction métier (outbox),
+ * distribué ensuite en arrière-plan par NotificationDispatcher
+ */
+@Entity
+@Table(name = "outbox_events", indexes = {
+    @Index(name = "idx_outbox_status_next_attempt", columnList = "status, next_attempt_at, id"),
+    @Index(name = "idx_outbox_user_status", columnList = "user_id, status, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "outbox_events")
+    @TableGenerator(name = "outbox_events", table = "id_generators", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "outbox_events", allocationSize = 100)
+    private Long id;
+    
+    /** Destinataire de la notification (simple identifiant : aucun chargement à l'enregistrement) */
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private NotificationType type;
+    
+    @Column(length = 500, nullable = false)
+    private String message;
+    
+    @Column
+    private Long exchangeId;
+    
+    @Column
+    private Long itemListingId;
+    
+    @Column
+    private Long skillListingId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OutboxStatus status = OutboxStatus.PENDING;
+    
+    @Column(nullable = false)
+    private Integer attempts = 0;
+    
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+    
+    @Column(length = 500)
+    private String lastError;
+    
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,6 @@
+package com.localexchange.model;
+
+public enum OutboxStatus {
+    PENDING,    // En attente de distribution (ou de nouvelle tentative)
+    FAILED      // Abandonné après le nombre maximal de tentatives
+}
@@ -14,6 +14,9 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "reviews", uniqueConstraints = {
     @UniqueConstraint(columnNames = {"exchange_request_id", "reviewer_id"})
+}, indexes = {
+    @Index(name = "idx_reviews_reviewee_created", columnList = "reviewee_id, created_at"),
+    @Index(name = "idx_reviews_reviewee_notation", columnList = "reviewee_id, notation")
 })
 @Data
 @NoArgsConstructor
@@ -21,7 +24,9 @@ import java.time.LocalDateTime;
 public class Review {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "reviews")
+    @TableGenerator(name = "reviews", table = "id_generators", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "reviews", allocationSize = 100)
     private Long id;
     
     @NotNull
@@ -5,6 +5,8 @@ import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -13,14 +15,21 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "skill_listings")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "skill-listings")
+@Table(name = "skill_listings", indexes = {
+    @Index(name = "idx_skill_listings_created", columnList = "created_at, id"),
+    @Index(name = "idx_skill_listings_owner_created", columnList = "owner_id, created_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class SkillListing {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "skill_listings")
+    @TableGenerator(name = "skill_listings", table = "id_generators", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "skill_listings", allocationSize = 100)
     private Long id;
     
     @NotBlank
@@ -51,6 +60,11 @@ public class SkillListing {
     @UpdateTimestamp
     private LocalDateTime updatedAt;
     
+    // Coordonnées du propriétaire recopiées pour l'index géographique (GeoGridIndex)
+    private Double latitude;
+    
+    private Double longitude;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "owner_id", nullable = false)
     private User owner;
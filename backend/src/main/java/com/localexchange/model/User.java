@@ -6,7 +6,11 @@ import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
@@ -14,6 +18,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
+@NaturalIdCache(region = "users-by-email")
 @Table(name = "users")
 @Data
 @NoArgsConstructor
@@ -21,9 +28,13 @@ import java.util.List;
 public class User {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "users")
+    @TableGenerator(name = "users", table = "id_generators", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "users", allocationSize = 100)
     private Long id;
     
+    // Clé naturelle immuable : findByEmail passe par le cache users-by-email sans requête
+    @NaturalId
     @Email
     @NotBlank
     @Column(unique = true, nullable = false)
@@ -48,6 +59,11 @@ public class User {
     
     private String phoneNumber;
     
+    // Coordonnées de la commune (Gazetteer), nulles tant que la localisation n'est pas reconnue
+    private Double latitude;
+    
+    private Double longitude;
+    
     @Column(nullable = false)
     private Boolean phoneVerified = false;
     
@@ -0,0 +1,71 @@
+package com.localexchange.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Agrégat de réputation d'un utilisateur (moyenne, nombre d'avis, histogramme 1-5 étoiles).
+ * Maintenu par ReviewService dans la même transaction que l'insertion de l'avis,
+ * afin que les listes d'annonces n'aient plus à calculer AVG() sur la table reviews.
+ */
+@Entity
+@Table(name = "user_reputations")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserReputation {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private Integer reviewCount = 0;
+
+    @Column(nullable = false)
+    private Long ratingSum = 0L;
+
+    @Column(nullable = false)
+    private Integer oneStarCount = 0;
+
+    @Column(nullable = false)
+    private Integer twoStarCount = 0;
+
+    @Column(nullable = false)
+    private Integer threeStarCount = 0;
+
+    @Column(nullable = false)
+    private Integer fourStarCount = 0;
+
+    @Column(nullable = false)
+    private Integer fiveStarCount = 0;
+
+    public UserReputation(Long userId) {
+        this.userId = userId;
+    }
+
+    /**
+     * Ajouter une note (1 à 5) à l'agrégat
+     */
+    public void addRating(int notation) {
+        reviewCount++;
+        ratingSum += notation;
+        switch (notation) {
+            case 1 -> oneStarCount++;
+            case 2 -> twoStarCount++;
+            case 3 -> threeStarCount++;
+            case 4 -> fourStarCount++;
+            case 5 -> fiveStarCount++;
+            default -> throw new IllegalArgumentException("La notation doit être entre 1 et 5");
+        }
+    }
+
+    /**
+     * Note moyenne, ou null si l'utilisateur n'a reçu aucun avis
+     */
+    public Double getAverageRating() {
+        return reviewCount == 0 ? null : (double) ratingSum / reviewCount;
+    }
+}
@@ -0,0 +1,329 @@
+package com.localexchange.perf;
+
+import com.localexchange.geo.GeoPoint;
+import com.localexchange.geo.Gazetteer;
+import com.localexchange.model.ExchangeRequest;
+import com.localexchange.model.ExchangeStatus;
+import com.localexchange.model.ItemListing;
+import com.localexchange.model.Message;
+import com.localexchange.model.Notification;
+import com.localexchange.model.NotificationType;
+import com.localexchange.model.Review;
+import com.localexchange.model.SkillListing;
+import com.localexchange.model.User;
+import com.localexchange.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+/**
+ * Jeu de données du profil perf : utilisateurs, annonces, échanges dans tous les statuts, messages, avis
+ * et notifications, en volumes configurables (app.perf.seed.*).
+ * Génération déterministe (graine fixe) et faite une seule fois : rien n'est inséré si des utilisateurs existent.
+ * Tous les comptes ont pour email user{n}@perf.local (n à partir de 1) et pour mot de passe app.perf.seed.password.
+ */
+@Component
+@Profile("perf")
+public class PerfDataSeeder implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(PerfDataSeeder.class);
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private static final String[] CATEGORIES = {
+            "Bricolage", "Électronique", "Livres", "Sport", "Cuisine", "Jardin", "Vêtements", "Jouets", "Autre"};
+    private static final String[] OBJECTS = {
+            "perceuse", "vélo", "tondeuse", "livre", "appareil photo", "tente", "raquette", "robot pâtissier",
+            "échelle", "guitare", "ponceuse", "poussette", "console", "manteau", "scie", "trottinette"};
+    private static final String[] ADJECTIVES = {
+            "ancien", "neuf", "électrique", "pliable", "robuste", "léger", "vintage", "complet", "pratique"};
+    private static final String[] SKILLS = {
+            "cours de guitare", "aide au jardinage", "réparation de vélo", "soutien en mathématiques",
+            "cours de cuisine", "montage de meubles", "initiation informatique", "couture", "baby-sitting"};
+    private static final String[] CITIES = {"Pau", "Bayonne", "Tarbes", "Biarritz", "Lourdes", "Orthez", "Oloron-Sainte-Marie"};
+    private static final String[] PHRASES = {
+            "Bonjour, est-ce toujours disponible ?", "Oui, sans problème.", "Samedi matin vous irait ?",
+            "Parfait, à bientôt !", "Je peux passer ce soir.", "Merci beaucoup pour l'échange.",
+            "Pouvez-vous m'envoyer l'adresse ?", "C'est noté."};
+
+    @Value("${app.perf.seed.users:2000}")
+    private int users;
+
+    @Value("${app.perf.seed.items-per-user:3}")
+    private int itemsPerUser;
+
+    @Value("${app.perf.seed.skills-per-user:1}")
+    private int skillsPerUser;
+
+    @Value("${app.perf.seed.exchanges:5000}")
+    private int exchanges;
+
+    @Value("${app.perf.seed.messages-per-exchange:6}")
+    private int messagesPerExchange;
+
+    @Value("${app.perf.seed.notifications-per-user:20}")
+    private int notificationsPerUser;
+
+    @Value("${app.perf.seed.password:perf}")
+    private String password;
+
+    @Value("${app.perf.seed.random-seed:42}")
+    private long randomSeed;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private Gazetteer gazetteer;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public PerfDataSeeder(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (userRepository.count() > 0) {
+            log.info("Base perf déjà alimentée, génération ignorée");
+            return;
+        }
+        long start = System.currentTimeMillis();
+        Random random = new Random(randomSeed);
+
+        // Un seul hachage BCrypt pour tous les comptes : le coût est volontairement élevé
+        String passwordHash = passwordEncoder.encode(password);
+        GeoPoint[] userPoints = new GeoPoint[users];
+        List<Long> userIds = insert("utilisateurs", users, i -> {
+            User user = new User();
+            user.setEmail("user" + (i + 1) + "@perf.local");
+            user.setPassword(passwordHash);
+            user.setNom("Utilisateur " + (i + 1));
+            user.setLocalisation(pick(random, CITIES));
+            userPoints[i] = gazetteer.locate(user.getLocalisation()).orElse(null);
+            user.setLatitude(userPoints[i] != null ? userPoints[i].latitude() : null);
+            user.setLongitude(userPoints[i] != null ? userPoints[i].longitude() : null);
+            user.setBio("Membre depuis " + (2015 + random.nextInt(10)));
+            return user;
+        });
+
+        Long[] itemOwners = new Long[users * itemsPerUser];
+        List<Long> itemIds = insert("objets", itemOwners.length, i -> {
+            itemOwners[i] = userIds.get(i / itemsPerUser);
+            ItemListing item = new ItemListing();
+            String object = pick(random, OBJECTS);
+            item.setTitre(capitalize(object) + " " + pick(random, ADJECTIVES));
+            item.setDescription("Je prête mon " + object + " " + pick(random, ADJECTIVES)
+                    + ", en bon état, à récupérer à " + pick(random, CITIES) + ".");
+            item.setCategorie(pick(random, CATEGORIES));
+            item.setDisponibilite(random.nextInt(10) > 0);
+            item.setCommentaireEchange("Contre un service ou un autre objet");
+            item.setOwner(ref(User.class, itemOwners[i]));
+            GeoPoint point = userPoints[i / itemsPerUser];
+            item.setLatitude(point != null ? point.latitude() : null);
+            item.setLongitude(point != null ? point.longitude() : null);
+            return item;
+        });
+
+        Long[] skillOwners = new Long[users * skillsPerUser];
+        List<Long> skillIds = insert("compétences", skillOwners.length, i -> {
+            skillOwners[i] = userIds.get(i / skillsPerUser);
+            SkillListing skill = new SkillListing();
+            String name = pick(random, SKILLS);
+            skill.setTitre(capitalize(name));
+            skill.setDescription("Je propose " + name + " près de " + pick(random, CITIES) + ".");
+            skill.setDisponibilites(random.nextBoolean() ? "Le soir en semaine" : "Le week-end");
+            skill.setOwner(ref(User.class, skillOwners[i]));
+            GeoPoint point = userPoints[i / skillsPerUser];
+            skill.setLatitude(point != null ? point.latitude() : null);
+            skill.setLongitude(point != null ? point.longitude() : null);
+            return skill;
+        });
+
+        ExchangeStatus[] statuses = ExchangeStatus.values();
+        long[][] participants = new long[exchanges][];
+        ExchangeStatus[] exchangeStatuses = new ExchangeStatus[exchanges];
+        boolean withItems = !itemIds.isEmpty();
+        boolean withSkills = !skillIds.isEmpty();
+        List<Long> exchangeIds = insert("échanges", withItems || withSkills ? exchanges : 0, i -> {
+            ExchangeRequest exchange = new ExchangeRequest();
+            boolean item = withItems && (!withSkills || random.nextInt(3) > 0);
+            Long donateur;
+            if (item) {
+                int index = random.nextInt(itemIds.size());
+                exchange.setItemListing(ref(ItemListing.class, itemIds.get(index)));
+                donateur = itemOwners[index];
+            } else {
+                int index = random.nextInt(skillIds.size());
+                exchange.setSkillListing(ref(SkillListing.class, skillIds.get(index)));
+                donateur = skillOwners[index];
+            }
+            Long beneficiaire = otherUser(random, userIds, donateur);
+            participants[i] = new long[] {beneficiaire, donateur};
+            exchangeStatuses[i] = statuses[i % statuses.length];
+
+            exchange.setBeneficiaire(ref(User.class, beneficiaire));
+            exchange.setDonateur(ref(User.class, donateur));
+            exchange.setStatut(exchangeStatuses[i]);
+            exchange.setOffreEnRetour("Un coup de main en échange");
+            exchange.setMessageInitial(pick(random, PHRASES));
+            exchange.setDateEchange(LocalDate.now().plusDays(random.nextInt(60) - 30));
+            return exchange;
+        });
+
+        // Messages alternés entre les deux participants ; les derniers d'une conversation restent non lus
+        int[] conversation = new int[exchangeIds.size()];
+        for (int i = 0; i < conversation.length; i++) {
+            conversation[i] = exchangeStatuses[i] == ExchangeStatus.PENDING ? 1 : random.nextInt(messagesPerExchange * 2 + 1);
+        }
+        int[] messageExchange = expand(conversation);
+        insert("messages", messageExchange.length, i -> {
+            int exchange = messageExchange[i];
+            int position = i - firstIndexOf(messageExchange, i);
+            int from = position % 2;
+            Message message = new Message();
+            message.setNumero((long) position + 1);
+            message.setContenu(pick(random, PHRASES));
+            message.setExpediteur(ref(User.class, participants[exchange][from]));
+            message.setDestinataire(ref(User.class, participants[exchange][1 - from]));
+            message.setExchangeRequest(ref(ExchangeRequest.class, exchangeIds.get(exchange)));
+            message.setLu(position < conversation[exchange] - 2);
+            return message;
+        });
+
+        // Avis des deux participants sur les échanges terminés
+        List<int[]> reviews = new ArrayList<>();
+        for (int i = 0; i < exchangeIds.size(); i++) {
+            if (exchangeStatuses[i] == ExchangeStatus.COMPLETED) {
+                for (int side = 0; side < 2; side++) {
+                    if (random.nextInt(5) > 0) {
+                        reviews.add(new int[] {i, side});
+                    }
+                }
+            }
+        }
+        insert("avis", reviews.size(), i -> {
+            int exchange = reviews.get(i)[0];
+            int side = reviews.get(i)[1];
+            Review review = new Review();
+            review.setNotation(1 + Math.min(4, random.nextInt(6)));
+            review.setCommentaire(random.nextBoolean() ? "Très bon échange" : null);
+            review.setReviewer(ref(User.class, participants[exchange][side]));
+            review.setReviewee(ref(User.class, participants[exchange][1 - side]));
+            review.setExchangeRequest(ref(ExchangeRequest.class, exchangeIds.get(exchange)));
+            return review;
+        });
+
+        NotificationType[] types = NotificationType.values();
+        insert("notifications", users * notificationsPerUser, i -> {
+            Notification notification = new Notification();
+            notification.setType(types[random.nextInt(types.length)]);
+            notification.setMessage("Notification de test " + (i + 1));
+            notification.setLu(random.nextInt(10) < 7);
+            notification.setUser(ref(User.class, userIds.get(i / notificationsPerUser)));
+            if (!exchangeIds.isEmpty()) {
+                notification.setExchangeId(exchangeIds.get(random.nextInt(exchangeIds.size())));
+            }
+            return notification;
+        });
+
+        log.info("Base perf générée en {} ms (mot de passe commun : app.perf.seed.password)", System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Persister count entités par transactions de CHUNK_SIZE, en vidant le contexte entre deux lots ; renvoie les ids
+     */
+    private List<Long> insert(String label, int count, IntFunction<Object> factory) {
+        List<Long> ids = new ArrayList<>(count);
+        for (int from = 0; from < count; from += CHUNK_SIZE) {
+            int chunkStart = from;
+            int chunkEnd = Math.min(count, from + CHUNK_SIZE);
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Object> entities = new ArrayList<>(chunkEnd - chunkStart);
+                for (int i = chunkStart; i < chunkEnd; i++) {
+                    Object entity = factory.apply(i);
+                    entityManager.persist(entity);
+                    entities.add(entity);
+                }
+                entityManager.flush();
+                for (Object entity : entities) {
+                    ids.add((Long) entityManager.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(entity));
+                }
+                entityManager.clear();
+            });
+        }
+        log.info("{} {} générés", count, label);
+        return ids;
+    }
+
+    private <T> T ref(Class<T> type, Long id) {
+        return entityManager.getReference(type, id);
+    }
+
+    private static Long otherUser(Random random, List<Long> userIds, Long excluded) {
+        if (userIds.size() < 2) {
+            return excluded;
+        }
+        Long candidate;
+        do {
+            candidate = userIds.get(random.nextInt(userIds.size()));
+        } while (candidate.equals(excluded));
+        return candidate;
+    }
+
+    /**
+     * [2, 0, 3] → [0, 0, 2, 2, 2] : l'échange de chaque message
+     */
+    private static int[] expand(int[] counts) {
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        int[] expanded = new int[total];
+        int position = 0;
+        for (int index = 0; index < counts.length; index++) {
+            for (int i = 0; i < counts[index]; i++) {
+                expanded[position++] = index;
+            }
+        }
+        return expanded;
+    }
+
+    private static int firstIndexOf(int[] expanded, int i) {
+        int first = i;
+        while (first > 0 && expanded[first - 1] == expanded[i]) {
+            first--;
+        }
+        return first;
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static String capitalize(String value) {
+        return Character.toUpperCase(value.charAt(0)) + value.substring(1);
+    }
+}
@@ -0,0 +1,49 @@
+package com.localexchange.realtime;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Flux temps réel des conversations, une clé par échange.
+ * Les deux participants reçoivent uniquement les nouveaux messages ; une conversation inactive ne coûte aucune requête.
+ */
+@Component
+public class ConversationStream {
+
+    public static final String MESSAGE_EVENT = "message";
+    public static final String RESYNC_EVENT = "resync";
+
+    private final EventStream<Long> stream;
+
+    public ConversationStream(@Value("${app.sse.replay-size:50}") int replaySize,
+                              @Value("${app.sse.timeout:1800000}") long timeout) {
+        this.stream = new EventStream<>("conversations", replaySize, timeout);
+    }
+
+    /**
+     * Ouvrir le flux d'un échange. Si les messages manqués ne peuvent pas être rejoués,
+     * le client reçoit un événement "resync" et recharge la conversation.
+     */
+    public EventStream.Subscription subscribe(Long exchangeId, String lastEventId) {
+        EventStream.Subscription subscription = stream.subscribe(exchangeId, lastEventId);
+        if (!subscription.isReplayed()) {
+            stream.sendDirect(subscription.getEmitter(), RESYNC_EVENT, Map.of("exchangeId", exchangeId));
+        }
+        return subscription;
+    }
+
+    /**
+     * Diffuser un nouveau message aux participants, après commit
+     */
+    public void publishMessage(Long exchangeId, Object message) {
+        stream.publishAfterCommit(exchangeId, MESSAGE_EVENT, message);
+    }
+
+    @Scheduled(fixedRateString = "${app.sse.heartbeat-interval:20000}")
+    public void heartbeat() {
+        stream.heartbeat();
+    }
+}
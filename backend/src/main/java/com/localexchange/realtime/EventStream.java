@@ -0,0 +1,256 @@
+package com.localexchange.realtime;
+
+import com.localexchange.util.AfterCommit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Flux Server-Sent Events regroupés par clé (utilisateur, conversation...).
+ * Chaque clé garde un tampon des derniers événements pour rejouer ceux manqués
+ * lors d'une reconnexion avec l'en-tête Last-Event-ID.
+ * Les connexions inactives ne bloquent aucun thread : SseEmitter repose sur le traitement asynchrone du conteneur.
+ */
+public class EventStream<K> {
+
+    private static final Logger log = LoggerFactory.getLogger(EventStream.class);
+
+    private final String name;
+    private final int replaySize;
+    private final long emitterTimeout;
+
+    /** Identifie le démarrage courant : les identifiants d'un démarrage précédent ne sont pas rejouables */
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final Map<K, Channel> channels = new ConcurrentHashMap<>();
+
+    public EventStream(String name, int replaySize, long emitterTimeout) {
+        this.name = name;
+        this.replaySize = replaySize;
+        this.emitterTimeout = emitterTimeout;
+    }
+
+    /**
+     * Ouvrir une connexion pour une clé.
+     * Renvoie vrai dans {@link Subscription#isReplayed()} si tous les événements manqués ont pu être rejoués,
+     * faux si l'appelant doit renvoyer un état complet (première connexion ou tampon dépassé).
+     */
+    public Subscription subscribe(K key, String lastEventId) {
+        SseEmitter emitter = createEmitter();
+        Channel channel = channels.computeIfAbsent(key, k -> new Channel());
+
+        Runnable cleanup = () -> release(key, channel, emitter);
+        emitter.onCompletion(cleanup);
+        emitter.onTimeout(cleanup);
+        emitter.onError(e -> cleanup.run());
+
+        boolean replayed;
+        // Rejeu et inscription sous le verrou des publications : un événement publié entre-temps
+        // n'est ni envoyé deux fois ni avant ceux rejoués
+        synchronized (channel) {
+            List<StreamEvent> missed = new ArrayList<>();
+            replayed = channel.missedSince(lastEventId, missed);
+            boolean open = true;
+            for (StreamEvent event : missed) {
+                if (!send(emitter, event)) {
+                    open = false;
+                    break;
+                }
+            }
+            if (open) {
+                channel.emitters.add(emitter);
+            }
+        }
+        return new Subscription(emitter, replayed);
+    }
+
+    /**
+     * Publier un événement vers toutes les connexions d'une clé
+     */
+    public void publish(K key, String eventName, Object data) {
+        Channel channel = channels.computeIfAbsent(key, k -> new Channel());
+        synchronized (channel) {
+            StreamEvent event = channel.append(eventName, data);
+            for (SseEmitter emitter : channel.emitters) {
+                if (!send(emitter, event)) {
+                    channel.emitters.remove(emitter);
+                }
+            }
+        }
+    }
+
+    /**
+     * Publier un événement une fois la transaction courante validée (immédiatement hors transaction)
+     */
+    public void publishAfterCommit(K key, String eventName, Object data) {
+        AfterCommit.run(() -> publish(key, eventName, data));
+    }
+
+    /**
+     * Envoyer un événement à une seule connexion, sans le mémoriser (état initial, resynchronisation)
+     */
+    public void sendDirect(SseEmitter emitter, String eventName, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(eventName).data(data));
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+        }
+    }
+
+    /**
+     * Envoyer un commentaire à toutes les connexions pour les garder ouvertes derrière les proxys
+     * et détecter les clients partis
+     */
+    public void heartbeat() {
+        int open = 0;
+        for (Map.Entry<K, Channel> entry : channels.entrySet()) {
+            Channel channel = entry.getValue();
+            for (SseEmitter emitter : channel.emitters) {
+                try {
+                    emitter.send(SseEmitter.event().comment("ping"));
+                    open++;
+                } catch (IOException | IllegalStateException e) {
+                    channel.emitters.remove(emitter);
+                    emitter.completeWithError(e);
+                }
+            }
+            if (channel.isIdle()) {
+                channels.remove(entry.getKey(), channel);
+            }
+        }
+        log.debug("Flux {} : {} connexions ouvertes", name, open);
+    }
+
+    /**
+     * Nombre de connexions ouvertes pour une clé
+     */
+    public int connectionCount(K key) {
+        Channel channel = channels.get(key);
+        return channel == null ? 0 : channel.emitters.size();
+    }
+
+    SseEmitter createEmitter() {
+        return new SseEmitter(emitterTimeout);
+    }
+
+    /**
+     * Identifiant d'événement tel qu'envoyé aux clients
+     */
+    String eventId(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    private boolean send(SseEmitter emitter, StreamEvent event) {
+        try {
+            emitter.send(SseEmitter.event().id(event.id()).name(event.name()).data(event.data()));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    private void release(K key, Channel channel, SseEmitter emitter) {
+        channel.emitters.remove(emitter);
+        if (channel.isIdle()) {
+            channels.remove(key, channel);
+        }
+    }
+
+    private record StreamEvent(String id, long sequence, String name, Object data) {
+    }
+
+    /**
+     * Connexions et tampon de rejeu d'une clé ; son moniteur ordonne publications et rejeux
+     */
+    private class Channel {
+
+        private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+        private final Deque<StreamEvent> buffer = new ArrayDeque<>();
+        private long sequence;
+        private long lastPublishedAt = System.currentTimeMillis();
+
+        synchronized StreamEvent append(String eventName, Object data) {
+            sequence++;
+            StreamEvent event = new StreamEvent(eventId(sequence), sequence, eventName, data);
+            buffer.addLast(event);
+            if (buffer.size() > replaySize) {
+                buffer.removeFirst();
+            }
+            lastPublishedAt = System.currentTimeMillis();
+            return event;
+        }
+
+        /**
+         * Événements postérieurs à lastEventId ; faux si certains ne sont plus disponibles
+         */
+        synchronized boolean missedSince(String lastEventId, List<StreamEvent> missed) {
+            if (lastEventId == null || lastEventId.isBlank()) {
+                return false;
+            }
+            int separator = lastEventId.lastIndexOf('-');
+            if (separator < 0 || !epoch.equals(lastEventId.substring(0, separator))) {
+                return false;
+            }
+            long lastSequence;
+            try {
+                lastSequence = Long.parseLong(lastEventId.substring(separator + 1));
+            } catch (NumberFormatException e) {
+                return false;
+            }
+            if (lastSequence > sequence) {
+                return false;
+            }
+            long expected = lastSequence + 1;
+            for (StreamEvent event : buffer) {
+                if (event.sequence() > lastSequence) {
+                    if (event.sequence() != expected) {
+                        missed.clear();
+                        return false;
+                    }
+                    missed.add(event);
+                    expected++;
+                }
+            }
+            return expected == sequence + 1;
+        }
+
+        /**
+         * Sans connexion ni événement récent, le tampon peut être oublié
+         */
+        synchronized boolean isIdle() {
+            return emitters.isEmpty() && System.currentTimeMillis() - lastPublishedAt > emitterTimeout;
+        }
+    }
+
+    /**
+     * Connexion ouverte et résultat du rejeu
+     */
+    public static class Subscription {
+
+        private final SseEmitter emitter;
+        private final boolean replayed;
+
+        Subscription(SseEmitter emitter, boolean replayed) {
+            this.emitter = emitter;
+            this.replayed = replayed;
+        }
+
+        public SseEmitter getEmitter() {
+            return emitter;
+        }
+
+        public boolean isReplayed() {
+            return replayed;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.localexchange.realtime;
+
+import com.localexchange.util.AfterCommit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.function.IntSupplier;
+
+/**
+ * Flux temps réel des notifications, une clé par utilisateur.
+ * Pousse les nouvelles notifications et le compteur de non lues à la place du polling.
+ */
+@Component
+public class NotificationStream {
+
+    public static final String NOTIFICATION_EVENT = "notification";
+    public static final String UNREAD_COUNT_EVENT = "unread-count";
+
+    private final EventStream<Long> stream;
+
+    public NotificationStream(@Value("${app.sse.replay-size:50}") int replaySize,
+                              @Value("${app.sse.timeout:1800000}") long timeout) {
+        this.stream = new EventStream<>("notifications", replaySize, timeout);
+    }
+
+    /**
+     * Ouvrir le flux d'un utilisateur
+     */
+    public EventStream.Subscription subscribe(Long userId, String lastEventId) {
+        return stream.subscribe(userId, lastEventId);
+    }
+
+    /**
+     * Envoyer le compteur courant à une connexion qui n'a pas pu être resynchronisée par rejeu
+     */
+    public void sendUnreadCount(EventStream.Subscription subscription, int count) {
+        stream.sendDirect(subscription.getEmitter(), UNREAD_COUNT_EVENT, Map.of("count", count));
+    }
+
+    /**
+     * Publier une nouvelle notification et le compteur à jour, après commit de la transaction courante
+     */
+    public void publishNotification(Long userId, Object notification, IntSupplier unreadCount) {
+        stream.publishAfterCommit(userId, NOTIFICATION_EVENT, notification);
+        publishUnreadCount(userId, unreadCount);
+    }
+
+    /**
+     * Publier le compteur à jour (lecture depuis un autre onglet ou appareil), après commit.
+     * Le compteur est lu au moment de l'envoi, une fois appliquées les mises à jour enregistrées avant.
+     */
+    public void publishUnreadCount(Long userId, IntSupplier unreadCount) {
+        AfterCommit.run(() -> stream.publish(userId, UNREAD_COUNT_EVENT, Map.of("count", unreadCount.getAsInt())));
+    }
+
+    @Scheduled(fixedRateString = "${app.sse.heartbeat-interval:20000}")
+    public void heartbeat() {
+        stream.heartbeat();
+    }
+}
@@ -3,7 +3,13 @@ package com.localexchange.repository;
 import com.localexchange.model.ExchangeRequest;
 import com.localexchange.model.ExchangeStatus;
 import com.localexchange.model.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,12 +18,24 @@ import java.util.Optional;
 @Repository
 public interface ExchangeRequestRepository extends JpaRepository<ExchangeRequest, Long> {
     
+    /**
+     * Participants et annonce joints : une seule requête pour la liste
+     */
+    @EntityGraph(attributePaths = {"beneficiaire", "donateur", "itemListing", "skillListing"})
     List<ExchangeRequest> findByDonateurOrderByCreatedAtDesc(User donateur);
     
+    @EntityGraph(attributePaths = {"beneficiaire", "donateur", "itemListing", "skillListing"})
     List<ExchangeRequest> findByBeneficiaireOrderByCreatedAtDesc(User beneficiaire);
     
     List<ExchangeRequest> findByStatut(ExchangeStatus statut);
     
+    /**
+     * Échange verrouillé (SELECT ... FOR UPDATE) jusqu'à la fin de la transaction : sérialise les envois dans sa conversation
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM ExchangeRequest e WHERE e.id = :id")
+    Optional<ExchangeRequest> findByIdForUpdate(@Param("id") Long id);
+    
     List<ExchangeRequest> findByDonateurAndStatut(User donateur, ExchangeStatus statut);
     
     List<ExchangeRequest> findByBeneficiaireAndStatut(User beneficiaire, ExchangeStatus statut);
@@ -27,4 +45,27 @@ public interface ExchangeRequestRepository extends JpaRepository<ExchangeRequest
     Long countByBeneficiaireAndStatut(User beneficiaire, ExchangeStatus statut);
     
     Long countByDonateurAndStatut(User donateur, ExchangeStatus statut);
+    
+    /**
+     * Boîte de réception paginée : une page jointe comme les listes complètes, sans requête de comptage
+     * (le total vient de countByStatutForDonateur / countByStatutForBeneficiaire)
+     */
+    @EntityGraph(attributePaths = {"beneficiaire", "donateur", "itemListing", "skillListing"})
+    List<ExchangeRequest> findByDonateur(User donateur, Pageable pageable);
+    
+    @EntityGraph(attributePaths = {"beneficiaire", "donateur", "itemListing", "skillListing"})
+    List<ExchangeRequest> findByDonateurAndStatut(User donateur, ExchangeStatus statut, Pageable pageable);
+    
+    @EntityGraph(attributePaths = {"beneficiaire", "donateur", "itemListing", "skillListing"})
+    List<ExchangeRequest> findByBeneficiaire(User beneficiaire, Pageable pageable);
+    
+    @EntityGraph(attributePaths = {"beneficiaire", "donateur", "itemListing", "skillListing"})
+    List<ExchangeRequest> findByBeneficiaireAndStatut(User beneficiaire, ExchangeStatus statut, Pageable pageable);
+    
+    /** Nombre de demandes reçues par statut, en une requête (statuts absents omis) */
+    @Query("SELECT e.statut, COUNT(e) FROM ExchangeRequest e WHERE e.donateur.id = :userId GROUP BY e.statut")
+    List<Object[]> countByStatutForDonateur(@Param("userId") Long userId);
+    
+    @Query("SELECT e.statut, COUNT(e) FROM ExchangeRequest e WHERE e.beneficiaire.id = :userId GROUP BY e.statut")
+    List<Object[]> countByStatutForBeneficiaire(@Param("userId") Long userId);
 }
\ No newline at end of file
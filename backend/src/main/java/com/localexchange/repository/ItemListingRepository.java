@@ -1,17 +1,32 @@
 package com.localexchange.repository;
 
+import com.localexchange.dto.ItemCardDTO;
 import com.localexchange.model.ItemListing;
 import com.localexchange.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ItemListingRepository extends JpaRepository<ItemListing, Long> {
     
+    String CARD_SELECT = "SELECT new com.localexchange.dto.ItemCardDTO(i.id, i.titre, SUBSTRING(i.description, 1, 200), " +
+            "i.categorie, i.images, i.disponibilite, o.id, o.nom, o.photo, o.localisation, " +
+            "r.reviewCount, r.ratingSum, i.createdAt) " +
+            "FROM ItemListing i JOIN i.owner o LEFT JOIN UserReputation r ON r.userId = o.id ";
+    
+    /** Pagination par clé : annonces strictement après la dernière carte vue, du plus récent au plus ancien */
+    String AFTER_CURSOR = "(i.createdAt < :createdAt OR (i.createdAt = :createdAt AND i.id < :id)) ";
+    
+    String CURSOR_ORDER = "ORDER BY i.createdAt DESC, i.id DESC";
+    
     Page<ItemListing> findByCategorie(String categorie, Pageable pageable);
     
     Page<ItemListing> findByTitreContainingIgnoreCase(String search, Pageable pageable);
@@ -22,4 +37,65 @@ public interface ItemListingRepository extends JpaRepository<ItemListing, Long>
     List<ItemListing> findByOwnerOrderByCreatedAtDesc(User owner);
     
     Page<ItemListing> findByDisponibiliteTrue(Pageable pageable);
-}
\ No newline at end of file
+    
+    /** Lot suivant par clé pour la construction des index : insensible aux suppressions concurrentes */
+    List<ItemListing> findByIdGreaterThanOrderByIdAsc(Long id, Pageable limit);
+    
+    @Query(value = CARD_SELECT,
+           countQuery = "SELECT COUNT(i) FROM ItemListing i")
+    Page<ItemCardDTO> findCards(Pageable pageable);
+    
+    @Query(value = CARD_SELECT + "WHERE i.categorie = :categorie",
+           countQuery = "SELECT COUNT(i) FROM ItemListing i WHERE i.categorie = :categorie")
+    Page<ItemCardDTO> findCardsByCategorie(@Param("categorie") String categorie, Pageable pageable);
+    
+    @Query(CARD_SELECT + "WHERE i.id IN :ids")
+    List<ItemCardDTO> findCardsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Query(value = CARD_SELECT + "WHERE LOWER(i.titre) LIKE LOWER(CONCAT('%', :search, '%'))",
+           countQuery = "SELECT COUNT(i) FROM ItemListing i WHERE LOWER(i.titre) LIKE LOWER(CONCAT('%', :search, '%'))")
+    Page<ItemCardDTO> findCardsByTitre(@Param("search") String search, Pageable pageable);
+    
+    @Query(value = CARD_SELECT + "WHERE i.categorie = :categorie AND LOWER(i.titre) LIKE LOWER(CONCAT('%', :search, '%'))",
+           countQuery = "SELECT COUNT(i) FROM ItemListing i " +
+                   "WHERE i.categorie = :categorie AND LOWER(i.titre) LIKE LOWER(CONCAT('%', :search, '%'))")
+    Page<ItemCardDTO> findCardsByCategorieAndTitre(
+            @Param("categorie") String categorie, @Param("search") String search, Pageable pageable);
+    
+    @Query(CARD_SELECT + "WHERE " + AFTER_CURSOR + CURSOR_ORDER)
+    List<ItemCardDTO> findCardsAfter(
+            @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+    
+    @Query(CARD_SELECT + "WHERE i.categorie = :categorie AND " + AFTER_CURSOR + CURSOR_ORDER)
+    List<ItemCardDTO> findCardsByCategorieAfter(
+            @Param("categorie") String categorie,
+            @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+    
+    @Query(CARD_SELECT + "WHERE LOWER(i.titre) LIKE LOWER(CONCAT('%', :search, '%')) AND " + AFTER_CURSOR + CURSOR_ORDER)
+    List<ItemCardDTO> findCardsByTitreAfter(
+            @Param("search") String search,
+            @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+    
+    @Query(CARD_SELECT + "WHERE i.categorie = :categorie AND LOWER(i.titre) LIKE LOWER(CONCAT('%', :search, '%')) AND " +
+            AFTER_CURSOR + CURSOR_ORDER)
+    List<ItemCardDTO> findCardsByCategorieAndTitreAfter(
+            @Param("categorie") String categorie, @Param("search") String search,
+            @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+    
+    /** Repli de la recherche « près de » tant que l'index géographique n'est pas construit : (id, latitude, longitude) */
+    @Query("SELECT i.id, i.latitude, i.longitude FROM ItemListing i " +
+           "WHERE i.latitude BETWEEN :minLat AND :maxLat AND i.longitude BETWEEN :minLon AND :maxLon " +
+           "AND (:categorie IS NULL OR i.categorie = :categorie) " +
+           "AND (:search IS NULL OR LOWER(i.titre) LIKE LOWER(CONCAT('%', :search, '%')))")
+    List<Object[]> findCoordinatesWithin(@Param("minLat") double minLat, @Param("maxLat") double maxLat,
+                                         @Param("minLon") double minLon, @Param("maxLon") double maxLon,
+                                         @Param("categorie") String categorie, @Param("search") String search);
+    
+    /** Objets disponibles par catégorie (chargement et réconciliation des facettes) */
+    @Query("SELECT i.categorie, COUNT(i) FROM ItemListing i WHERE i.disponibilite = true GROUP BY i.categorie")
+    List<Object[]> countAvailableByCategorie();
+    
+    @Query("SELECT i.categorie, COUNT(i) FROM ItemListing i WHERE i.disponibilite = true " +
+           "AND LOWER(i.titre) LIKE LOWER(CONCAT('%', :search, '%')) GROUP BY i.categorie")
+    List<Object[]> countAvailableByCategorieAndTitre(@Param("search") String search);
+}
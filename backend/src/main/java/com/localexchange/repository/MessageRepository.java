@@ -1,19 +1,65 @@
 package com.localexchange.repository;
 
-import com.localexchange.model.ExchangeRequest;
+import com.localexchange.dto.MessageDTO;
 import com.localexchange.model.Message;
 import com.localexchange.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface MessageRepository extends JpaRepository<Message, Long> {
     
-    List<Message> findByExchangeRequestOrderByCreatedAtAsc(ExchangeRequest exchangeRequest);
+    /** Projection sur le constructeur complet de MessageDTO (ordre des champs), expéditeur et destinataire résumés */
+    String CONVERSATION_SELECT = "SELECT new com.localexchange.dto.MessageDTO(m.id, m.numero, m.contenu, m.lu, " +
+            "e.id, e.nom, e.photo, d.id, d.nom, d.photo, m.exchangeRequest.id, m.createdAt) " +
+            "FROM Message m JOIN m.expediteur e JOIN m.destinataire d ";
+    
+    /**
+     * Derniers messages d'une conversation, du plus récent au plus ancien (index unique exchange_request_id, numero)
+     */
+    @Query(CONVERSATION_SELECT + "WHERE m.exchangeRequest.id = :exchangeId ORDER BY m.numero DESC")
+    List<MessageDTO> findLatestInConversation(@Param("exchangeId") Long exchangeId, Pageable pageable);
+    
+    /** Messages de rang inférieur à before, du plus récent au plus ancien */
+    @Query(CONVERSATION_SELECT + "WHERE m.exchangeRequest.id = :exchangeId AND m.numero < :before ORDER BY m.numero DESC")
+    List<MessageDTO> findInConversationBefore(
+            @Param("exchangeId") Long exchangeId, @Param("before") Long before, Pageable pageable);
+    
+    /** Messages de rang supérieur à after, dans l'ordre de la conversation */
+    @Query(CONVERSATION_SELECT + "WHERE m.exchangeRequest.id = :exchangeId AND m.numero > :after ORDER BY m.numero ASC")
+    List<MessageDTO> findInConversationAfter(
+            @Param("exchangeId") Long exchangeId, @Param("after") Long after, Pageable pageable);
+    
+    /** Dernier rang attribué dans une conversation, 0 si elle est vide */
+    @Query("SELECT COALESCE(MAX(m.numero), 0) FROM Message m WHERE m.exchangeRequest.id = :exchangeId")
+    long findLastNumero(@Param("exchangeId") Long exchangeId);
     
     Integer countByDestinataireAndLuFalse(User destinataire);
     
     List<Message> findByDestinataireAndLuFalse(User destinataire);
+    
+    @Query("SELECT COUNT(m) FROM Message m WHERE m.destinataire.id = :userId AND m.lu = false")
+    long countUnreadByUserId(@Param("userId") Long userId);
+    
+    @Query("SELECT m.destinataire.id, COUNT(m) FROM Message m " +
+           "WHERE m.lu = false AND m.destinataire.id IN :userIds GROUP BY m.destinataire.id")
+    List<Object[]> countUnreadByUserIds(@Param("userIds") Collection<Long> userIds);
+    
+    /**
+     * Marquer lus, en une seule requête, les messages reçus dans un échange jusqu'au rang upTo inclus ;
+     * renvoie le nombre modifié
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Message m SET m.lu = true WHERE m.exchangeRequest.id = :exchangeId " +
+           "AND m.destinataire.id = :destinataireId AND m.lu = false AND m.numero <= :upTo")
+    int markConversationReadUpTo(@Param("exchangeId") Long exchangeId,
+                                 @Param("destinataireId") Long destinataireId,
+                                 @Param("upTo") Long upTo);
 }
\ No newline at end of file
@@ -3,8 +3,12 @@ package com.localexchange.repository;
 import com.localexchange.model.Notification;
 import com.localexchange.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -14,5 +18,18 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     
     Integer countByUserAndLuFalse(User user);
     
+    @Query("SELECT COUNT(n) FROM Notification n WHERE n.user.id = :userId AND n.lu = false")
+    long countUnreadByUserId(@Param("userId") Long userId);
+    
     List<Notification> findByUserAndLuFalse(User user);
+    
+    /**
+     * Marquer toutes les notifications non lues d'un utilisateur en une seule requête ; renvoie le nombre modifié
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Notification n SET n.lu = true WHERE n.user.id = :userId AND n.lu = false")
+    int markAllAsReadByUserId(@Param("userId") Long userId);
+    
+    @Query("SELECT n.user.id, COUNT(n) FROM Notification n WHERE n.lu = false AND n.user.id IN :userIds GROUP BY n.user.id")
+    List<Object[]> countUnreadByUserIds(@Param("userIds") Collection<Long> userIds);
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.localexchange.repository;
+
+import com.localexchange.model.OutboxEvent;
+import com.localexchange.model.OutboxStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    
+    /**
+     * Réserver un lot d'événements à distribuer, dans l'ordre d'enregistrement.
+     * Les événements d'un utilisateur dont un événement plus ancien attend une nouvelle tentative sont exclus,
+     * et les lignes déjà réservées par une autre instance sont sautées (FOR UPDATE SKIP LOCKED).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OutboxEvent e WHERE e.status = com.localexchange.model.OutboxStatus.PENDING " +
+           "AND e.nextAttemptAt <= :now AND NOT EXISTS (SELECT o.id FROM OutboxEvent o " +
+           "WHERE o.userId = e.userId AND o.status = com.localexchange.model.OutboxStatus.PENDING " +
+           "AND o.id < e.id AND o.nextAttemptAt > :now) ORDER BY e.id")
+    List<OutboxEvent> lockDue(@Param("now") LocalDateTime now, Pageable pageable);
+    
+    /**
+     * Plus ancien événement en attente de chaque utilisateur (réservé ou non, en attente de nouvelle tentative ou non)
+     */
+    @Query("SELECT e.userId, MIN(e.id) FROM OutboxEvent e " +
+           "WHERE e.status = com.localexchange.model.OutboxStatus.PENDING AND e.userId IN :userIds GROUP BY e.userId")
+    List<Object[]> findOldestPendingIdByUser(@Param("userIds") Collection<Long> userIds);
+    
+    long countByStatus(OutboxStatus status);
+}
@@ -3,6 +3,7 @@ package com.localexchange.repository;
 import com.localexchange.model.ExchangeRequest;
 import com.localexchange.model.Review;
 import com.localexchange.model.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -14,6 +15,7 @@ import java.util.Optional;
 @Repository
 public interface ReviewRepository extends JpaRepository<Review, Long> {
     
+    @EntityGraph(attributePaths = {"reviewer", "reviewee"})
     List<Review> findByRevieweeOrderByCreatedAtDesc(User reviewee);
     
     Optional<Review> findByExchangeRequestAndReviewer(ExchangeRequest exchangeRequest, User reviewer);
@@ -25,4 +27,7 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
     
     @Query("SELECT COUNT(r) FROM Review r WHERE r.reviewee.id = :userId")
     Long countReviewsByUserId(@Param("userId") Long userId);
+    
+    @Query("SELECT r.reviewee.id, r.notation, COUNT(r) FROM Review r GROUP BY r.reviewee.id, r.notation")
+    List<Object[]> countNotationsByReviewee();
 }
\ No newline at end of file
@@ -1,20 +1,66 @@
 package com.localexchange.repository;
 
+import com.localexchange.dto.SkillCardDTO;
 import com.localexchange.model.SkillListing;
 import com.localexchange.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface SkillListingRepository extends JpaRepository<SkillListing, Long> {
     
+    String CARD_SELECT = "SELECT new com.localexchange.dto.SkillCardDTO(s.id, s.titre, SUBSTRING(s.description, 1, 200), " +
+            "s.disponibilites, s.images, s.actif, o.id, o.nom, o.photo, o.localisation, " +
+            "r.reviewCount, r.ratingSum, s.createdAt) " +
+            "FROM SkillListing s JOIN s.owner o LEFT JOIN UserReputation r ON r.userId = o.id ";
+    
+    /** Pagination par clé : annonces strictement après la dernière carte vue, du plus récent au plus ancien */
+    String AFTER_CURSOR = "(s.createdAt < :createdAt OR (s.createdAt = :createdAt AND s.id < :id)) ";
+    
+    String CURSOR_ORDER = "ORDER BY s.createdAt DESC, s.id DESC";
+    
     Page<SkillListing> findByTitreContainingIgnoreCase(String search, Pageable pageable);
     
     List<SkillListing> findByOwnerOrderByCreatedAtDesc(User owner);
     
     Page<SkillListing> findByActifTrue(Pageable pageable);
-}
\ No newline at end of file
+    
+    /** Lot suivant par clé pour la construction des index : insensible aux suppressions concurrentes */
+    List<SkillListing> findByIdGreaterThanOrderByIdAsc(Long id, Pageable limit);
+    
+    @Query(value = CARD_SELECT,
+           countQuery = "SELECT COUNT(s) FROM SkillListing s")
+    Page<SkillCardDTO> findCards(Pageable pageable);
+    
+    /** Repli de la recherche « près de » tant que l'index géographique n'est pas construit : (id, latitude, longitude) */
+    @Query("SELECT s.id, s.latitude, s.longitude FROM SkillListing s " +
+           "WHERE s.latitude BETWEEN :minLat AND :maxLat AND s.longitude BETWEEN :minLon AND :maxLon " +
+           "AND (:search IS NULL OR LOWER(s.titre) LIKE LOWER(CONCAT('%', :search, '%')))")
+    List<Object[]> findCoordinatesWithin(@Param("minLat") double minLat, @Param("maxLat") double maxLat,
+                                         @Param("minLon") double minLon, @Param("maxLon") double maxLon,
+                                         @Param("search") String search);
+    
+    @Query(CARD_SELECT + "WHERE s.id IN :ids")
+    List<SkillCardDTO> findCardsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Query(value = CARD_SELECT + "WHERE LOWER(s.titre) LIKE LOWER(CONCAT('%', :search, '%'))",
+           countQuery = "SELECT COUNT(s) FROM SkillListing s WHERE LOWER(s.titre) LIKE LOWER(CONCAT('%', :search, '%'))")
+    Page<SkillCardDTO> findCardsByTitre(@Param("search") String search, Pageable pageable);
+    
+    @Query(CARD_SELECT + "WHERE " + AFTER_CURSOR + CURSOR_ORDER)
+    List<SkillCardDTO> findCardsAfter(
+            @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+    
+    @Query(CARD_SELECT + "WHERE LOWER(s.titre) LIKE LOWER(CONCAT('%', :search, '%')) AND " + AFTER_CURSOR + CURSOR_ORDER)
+    List<SkillCardDTO> findCardsByTitreAfter(
+            @Param("search") String search,
+            @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+}
@@ -0,0 +1,13 @@
+package com.localexchange.repository;
+
+import com.localexchange.model.User;
+
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+
+    /**
+     * Recherche par clé naturelle : résolue par les caches de second niveau (users-by-email puis users) avant la base
+     */
+    Optional<User> findByEmail(String email);
+}
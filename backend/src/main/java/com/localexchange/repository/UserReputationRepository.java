@@ -0,0 +1,41 @@
+package com.localexchange.repository;
+
+import com.localexchange.model.UserReputation;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface UserReputationRepository extends JpaRepository<UserReputation, Long> {
+
+    List<UserReputation> findByUserIdIn(Collection<Long> userIds);
+
+    /**
+     * Incrémente l'agrégat en une seule instruction (création de la ligne au premier avis).
+     * L'espace de requête déclaré évite à Hibernate de vider toutes les régions du cache de second niveau
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_reputations"))
+    @Query(nativeQuery = true, value =
+            "INSERT INTO user_reputations (user_id, review_count, rating_sum, " +
+            "one_star_count, two_star_count, three_star_count, four_star_count, five_star_count) " +
+            "VALUES (:userId, 1, :notation, " +
+            "CASE WHEN :notation = 1 THEN 1 ELSE 0 END, CASE WHEN :notation = 2 THEN 1 ELSE 0 END, " +
+            "CASE WHEN :notation = 3 THEN 1 ELSE 0 END, CASE WHEN :notation = 4 THEN 1 ELSE 0 END, " +
+            "CASE WHEN :notation = 5 THEN 1 ELSE 0 END) " +
+            "ON DUPLICATE KEY UPDATE review_count = review_count + 1, rating_sum = rating_sum + :notation, " +
+            "one_star_count = one_star_count + CASE WHEN :notation = 1 THEN 1 ELSE 0 END, " +
+            "two_star_count = two_star_count + CASE WHEN :notation = 2 THEN 1 ELSE 0 END, " +
+            "three_star_count = three_star_count + CASE WHEN :notation = 3 THEN 1 ELSE 0 END, " +
+            "four_star_count = four_star_count + CASE WHEN :notation = 4 THEN 1 ELSE 0 END, " +
+            "five_star_count = five_star_count + CASE WHEN :notation = 5 THEN 1 ELSE 0 END")
+    int addRating(@Param("userId") Long userId, @Param("notation") int notation);
+}
@@ -0,0 +1,88 @@
+package com.localexchange.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Analyseur de texte français pour l'index de recherche :
+ * découpage, minuscules, suppression des accents et des élisions, mots vides et racinisation légère
+ */
+public final class FrenchAnalyzer {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "le", "la", "les", "un", "une", "des", "du", "de", "et", "ou", "au", "aux", "en",
+            "pour", "par", "sur", "sous", "dans", "avec", "sans", "ce", "cet", "cette", "ces",
+            "mon", "ma", "mes", "ton", "ta", "tes", "son", "sa", "ses", "notre", "nos", "votre", "vos",
+            "leur", "leurs", "je", "tu", "il", "elle", "on", "nous", "vous", "ils", "elles",
+            "qui", "que", "quoi", "dont", "est", "sont", "pas", "ne", "plus", "tres", "se", "qu"
+    );
+
+    private FrenchAnalyzer() {
+    }
+
+    /**
+     * Découper un texte en termes normalisés
+     */
+    public static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return terms;
+        }
+
+        String folded = fold(text);
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean letterOrDigit = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (letterOrDigit && start < 0) {
+                start = i;
+            } else if (!letterOrDigit && start >= 0) {
+                addTerm(terms, folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Minuscules et suppression des accents ("Vélo électrique" -> "velo electrique")
+     */
+    public static String fold(String text) {
+        String lower = text.toLowerCase(Locale.FRENCH)
+                .replace("œ", "oe")
+                .replace("æ", "ae");
+        return DIACRITICS.matcher(Normalizer.normalize(lower, Normalizer.Form.NFD)).replaceAll("");
+    }
+
+    private static void addTerm(List<String> terms, String token) {
+        // Les élisions (l', d', j'...) produisent des jetons d'une lettre, ignorés ici
+        if (token.length() < 2 || STOP_WORDS.contains(token)) {
+            return;
+        }
+        terms.add(stem(token));
+    }
+
+    /**
+     * Racinisation légère : pluriels en -s/-x/-aux et e muet final
+     */
+    static String stem(String term) {
+        if (term.length() <= 3 || Character.isDigit(term.charAt(term.length() - 1))) {
+            return term;
+        }
+        String stem = term;
+        if (stem.length() > 4 && stem.endsWith("aux")) {
+            stem = stem.substring(0, stem.length() - 3) + "al";
+        } else if (stem.endsWith("s") || stem.endsWith("x")) {
+            stem = stem.substring(0, stem.length() - 1);
+        }
+        if (stem.length() > 4 && stem.endsWith("e")) {
+            stem = stem.substring(0, stem.length() - 1);
+        }
+        return stem;
+    }
+}
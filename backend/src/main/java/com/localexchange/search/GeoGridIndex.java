@@ -0,0 +1,170 @@
+package com.localexchange.search;
+
+import com.localexchange.geo.GeoPoint;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * Index géographique en mémoire : grille régulière de cellules de CELL_DEGREES degrés (environ 11 km en latitude).
+ * Une recherche par rayon ne parcourt que les cellules recouvrant le rectangle englobant du cercle,
+ * puis calcule la distance exacte des seuls candidats retenus par ce rectangle.
+ * Thread-safe : les recherches partagent un verrou en lecture, les mises à jour prennent le verrou en écriture.
+ */
+public class GeoGridIndex {
+
+    private static final double CELL_DEGREES = 0.1;
+
+    private static final double KM_PER_DEGREE = 111.2;
+
+    /** Ordre des résultats : du plus proche au plus éloigné, puis par id décroissant */
+    public static final Comparator<GeoHit> NEAREST_FIRST = Comparator.comparingDouble(GeoHit::distanceKm)
+            .thenComparing(GeoHit::id, Comparator.reverseOrder());
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** cellule -> (document -> entrée) */
+    private final Map<Long, Map<Long, Entry>> cells = new HashMap<>();
+
+    private final Map<Long, Entry> entries = new HashMap<>();
+
+    /**
+     * Ajouter ou déplacer un document ; sans coordonnées, il est retiré de l'index
+     */
+    public void put(SearchDocument document, GeoPoint point) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(document.getId());
+            if (point != null) {
+                Entry entry = new Entry(document, point.latitude(), point.longitude());
+                entries.put(document.getId(), entry);
+                cells.computeIfAbsent(cellOf(entry.latitude(), entry.longitude()), cell -> new HashMap<>())
+                        .put(document.getId(), entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retirer un document
+     */
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Vider l'index
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            cells.clear();
+            entries.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Documents situés à moins de radiusKm de l'origine, du plus proche au plus éloigné (puis par id décroissant)
+     */
+    public List<GeoHit> near(GeoPoint origin, double radiusKm, Predicate<SearchDocument> filter) {
+        BoundingBox box = boundingBox(origin, radiusKm);
+
+        List<GeoHit> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (long row = index(box.minLat()); row <= index(box.maxLat()); row++) {
+                for (long column = index(box.minLon()); column <= index(box.maxLon()); column++) {
+                    Map<Long, Entry> cell = cells.get(key(row, column));
+                    if (cell == null) {
+                        continue;
+                    }
+                    for (Entry entry : cell.values()) {
+                        if (!box.contains(entry.latitude(), entry.longitude())) {
+                            continue;
+                        }
+                        double distance = origin.distanceKm(entry.latitude(), entry.longitude());
+                        if (distance <= radiusKm && (filter == null || filter.test(entry.document()))) {
+                            hits.add(new GeoHit(entry.document().getId(), distance));
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        hits.sort(NEAREST_FIRST);
+        return hits;
+    }
+
+    /**
+     * Rectangle englobant du cercle de rayon radiusKm autour de l'origine
+     */
+    public static BoundingBox boundingBox(GeoPoint origin, double radiusKm) {
+        double latDelta = radiusKm / KM_PER_DEGREE;
+        // Près des pôles le rectangle couvrirait toutes les longitudes : on borne le cosinus
+        double lonDelta = radiusKm / (KM_PER_DEGREE * Math.max(0.01, Math.cos(Math.toRadians(origin.latitude()))));
+        return new BoundingBox(origin.latitude() - latDelta, origin.latitude() + latDelta,
+                origin.longitude() - lonDelta, origin.longitude() + lonDelta);
+    }
+
+    private void removeInternal(Long id) {
+        Entry previous = entries.remove(id);
+        if (previous == null) {
+            return;
+        }
+        long cell = cellOf(previous.latitude(), previous.longitude());
+        Map<Long, Entry> documents = cells.get(cell);
+        documents.remove(id);
+        if (documents.isEmpty()) {
+            cells.remove(cell);
+        }
+    }
+
+    private static long cellOf(double latitude, double longitude) {
+        return key(index(latitude), index(longitude));
+    }
+
+    private static long index(double degrees) {
+        return (long) Math.floor(degrees / CELL_DEGREES);
+    }
+
+    private static long key(long row, long column) {
+        return (row << 32) ^ (column & 0xFFFFFFFFL);
+    }
+
+    private record Entry(SearchDocument document, double latitude, double longitude) {
+    }
+
+    public record GeoHit(Long id, double distanceKm) {
+    }
+
+    public record BoundingBox(double minLat, double maxLat, double minLon, double maxLon) {
+
+        public boolean contains(double latitude, double longitude) {
+            return latitude >= minLat && latitude <= maxLat && longitude >= minLon && longitude <= maxLon;
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package com.localexchange.search;
+
+import com.localexchange.geo.GeoPoint;
+import com.localexchange.model.ItemListing;
+import com.localexchange.model.SkillListing;
+import com.localexchange.repository.ItemListingRepository;
+import com.localexchange.repository.SkillListingRepository;
+import com.localexchange.util.AfterCommit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Moteur de recherche plein texte et géographique des annonces (objets et compétences).
+ * Les index sont construits au démarrage puis mis à jour après commit
+ * par les chemins de création, modification et suppression des services d'annonces.
+ */
+@Service
+public class ListingSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(ListingSearchService.class);
+
+    private static final int BUILD_BATCH_SIZE = 1000;
+
+    private static final double TITRE_BOOST = 3.0;
+    private static final double CATEGORIE_BOOST = 2.0;
+    private static final double DESCRIPTION_BOOST = 1.0;
+
+    /** Rayon maximal d'une recherche « près de » : au-delà, le parcours de la grille n'est plus borné */
+    public static final double MAX_RADIUS_KM = 100.0;
+
+    private final SearchIndex itemIndex = new SearchIndex();
+    private final SearchIndex skillIndex = new SearchIndex();
+    private final GeoGridIndex itemGeoIndex = new GeoGridIndex();
+    private final GeoGridIndex skillGeoIndex = new GeoGridIndex();
+
+    private volatile boolean ready;
+
+    /** Annonces modifiées après commit pendant une construction des index, null hors construction */
+    private final Object buildLock = new Object();
+    private Set<Long> touchedItems;
+    private Set<Long> touchedSkills;
+
+    @Autowired
+    private ItemListingRepository itemListingRepository;
+
+    @Autowired
+    private SkillListingRepository skillListingRepository;
+
+    /**
+     * Construire les index à partir de la base, par lots, sans retarder le démarrage
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndexes() {
+        long start = System.currentTimeMillis();
+        synchronized (buildLock) {
+            touchedItems = new HashSet<>();
+            touchedSkills = new HashSet<>();
+        }
+        itemIndex.clear();
+        skillIndex.clear();
+        itemGeoIndex.clear();
+        skillGeoIndex.clear();
+
+        List<ItemListing> items;
+        long lastId = 0;
+        do {
+            items = itemListingRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, BUILD_BATCH_SIZE));
+            items.forEach(this::put);
+            lastId = items.isEmpty() ? lastId : items.get(items.size() - 1).getId();
+        } while (items.size() == BUILD_BATCH_SIZE);
+
+        List<SkillListing> skills;
+        lastId = 0;
+        do {
+            skills = skillListingRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, BUILD_BATCH_SIZE));
+            skills.forEach(this::put);
+            lastId = skills.isEmpty() ? lastId : skills.get(skills.size() - 1).getId();
+        } while (skills.size() == BUILD_BATCH_SIZE);
+
+        reconcileTouched();
+        ready = true;
+        log.info("Index de recherche construits : {} objets ({} géolocalisés), {} compétences ({} géolocalisées) en {} ms",
+                itemIndex.size(), itemGeoIndex.size(), skillIndex.size(), skillGeoIndex.size(),
+                System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Relire les annonces modifiées ou supprimées pendant la construction : un lot lu avant leur commit
+     * a pu écraser la mise à jour appliquée après. On recommence tant que de nouvelles modifications arrivent.
+     */
+    private void reconcileTouched() {
+        for (;;) {
+            Set<Long> items;
+            Set<Long> skills;
+            synchronized (buildLock) {
+                if (touchedItems.isEmpty() && touchedSkills.isEmpty()) {
+                    touchedItems = null;
+                    touchedSkills = null;
+                    return;
+                }
+                items = touchedItems;
+                skills = touchedSkills;
+                touchedItems = new HashSet<>();
+                touchedSkills = new HashSet<>();
+            }
+            for (ItemListing item : itemListingRepository.findAllById(items)) {
+                put(item);
+                items.remove(item.getId());
+            }
+            for (Long id : items) {
+                itemIndex.remove(id);
+                itemGeoIndex.remove(id);
+            }
+            for (SkillListing skill : skillListingRepository.findAllById(skills)) {
+                put(skill);
+                skills.remove(skill.getId());
+            }
+            for (Long id : skills) {
+                skillIndex.remove(id);
+                skillGeoIndex.remove(id);
+            }
+        }
+    }
+
+    /**
+     * Vrai une fois les index construits (la recherche SQL, plein texte ou géographique, sert de repli avant)
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Identifiants des objets correspondant à la recherche, par pertinence décroissante
+     */
+    public List<Long> searchItems(String query, String categorie) {
+        return itemIndex.search(query, doc -> categorie == null || categorie.isEmpty()
+                        || categorie.equalsIgnoreCase(doc.getAttribute("categorie")))
+                .stream()
+                .map(SearchIndex.SearchHit::id)
+                .toList();
+    }
+
+    /**
+     * Nombre d'objets disponibles correspondant à la recherche, par catégorie
+     */
+    public Map<String, Long> itemFacets(String query) {
+        return itemIndex.facets(query, "categorie", doc -> "true".equals(doc.getAttribute("disponible")));
+    }
+
+    /**
+     * Identifiants des compétences correspondant à la recherche, par pertinence décroissante
+     */
+    public List<Long> searchSkills(String query) {
+        return skillIndex.search(query, null).stream()
+                .map(SearchIndex.SearchHit::id)
+                .toList();
+    }
+
+    /**
+     * Objets à moins de radiusKm de l'origine, du plus proche au plus éloigné, filtrés par catégorie et recherche optionnelles
+     */
+    public List<GeoGridIndex.GeoHit> nearItems(GeoPoint origin, double radiusKm, String categorie, String query) {
+        double radius = boundedRadius(radiusKm);
+        if (!ready) {
+            // Index en construction : rectangle englobant en SQL (titre seul pour la recherche, comme le repli plein texte)
+            GeoGridIndex.BoundingBox box = GeoGridIndex.boundingBox(origin, radius);
+            return withinRadius(origin, radius, itemListingRepository.findCoordinatesWithin(
+                    box.minLat(), box.maxLat(), box.minLon(), box.maxLon(), emptyToNull(categorie), emptyToNull(query)));
+        }
+        Set<Long> matches = query == null || query.isEmpty() ? null : new HashSet<>(searchItems(query, categorie));
+        return itemGeoIndex.near(origin, radius, doc -> (matches == null || matches.contains(doc.getId()))
+                && (categorie == null || categorie.isEmpty() || categorie.equalsIgnoreCase(doc.getAttribute("categorie"))));
+    }
+
+    /**
+     * Compétences à moins de radiusKm de l'origine, de la plus proche à la plus éloignée, filtrées par recherche optionnelle
+     */
+    public List<GeoGridIndex.GeoHit> nearSkills(GeoPoint origin, double radiusKm, String query) {
+        double radius = boundedRadius(radiusKm);
+        if (!ready) {
+            GeoGridIndex.BoundingBox box = GeoGridIndex.boundingBox(origin, radius);
+            return withinRadius(origin, radius, skillListingRepository.findCoordinatesWithin(
+                    box.minLat(), box.maxLat(), box.minLon(), box.maxLon(), emptyToNull(query)));
+        }
+        Set<Long> matches = query == null || query.isEmpty() ? null : new HashSet<>(searchSkills(query));
+        return skillGeoIndex.near(origin, radius, doc -> matches == null || matches.contains(doc.getId()));
+    }
+
+    /**
+     * Indexer un objet créé ou modifié (appliqué après commit)
+     */
+    public void indexItem(ItemListing item) {
+        SearchDocument document = toDocument(item);
+        GeoPoint point = GeoPoint.of(item.getLatitude(), item.getLongitude());
+        AfterCommit.run(() -> {
+            itemIndex.put(document);
+            itemGeoIndex.put(document, point);
+            touchItem(item.getId());
+        });
+    }
+
+    /**
+     * Retirer un objet supprimé de l'index (appliqué après commit)
+     */
+    public void removeItem(Long id) {
+        AfterCommit.run(() -> {
+            itemIndex.remove(id);
+            itemGeoIndex.remove(id);
+            touchItem(id);
+        });
+    }
+
+    /**
+     * Indexer une compétence créée ou modifiée (appliqué après commit)
+     */
+    public void indexSkill(SkillListing skill) {
+        SearchDocument document = toDocument(skill);
+        GeoPoint point = GeoPoint.of(skill.getLatitude(), skill.getLongitude());
+        AfterCommit.run(() -> {
+            skillIndex.put(document);
+            skillGeoIndex.put(document, point);
+            touchSkill(skill.getId());
+        });
+    }
+
+    /**
+     * Retirer une compétence supprimée de l'index (appliqué après commit)
+     */
+    public void removeSkill(Long id) {
+        AfterCommit.run(() -> {
+            skillIndex.remove(id);
+            skillGeoIndex.remove(id);
+            touchSkill(id);
+        });
+    }
+
+    private void touchItem(Long id) {
+        synchronized (buildLock) {
+            if (touchedItems != null) {
+                touchedItems.add(id);
+            }
+        }
+    }
+
+    private void touchSkill(Long id) {
+        synchronized (buildLock) {
+            if (touchedSkills != null) {
+                touchedSkills.add(id);
+            }
+        }
+    }
+
+    private void put(ItemListing item) {
+        SearchDocument document = toDocument(item);
+        itemIndex.put(document);
+        itemGeoIndex.put(document, GeoPoint.of(item.getLatitude(), item.getLongitude()));
+    }
+
+    private void put(SkillListing skill) {
+        SearchDocument document = toDocument(skill);
+        skillIndex.put(document);
+        skillGeoIndex.put(document, GeoPoint.of(skill.getLatitude(), skill.getLongitude()));
+    }
+
+    private static double boundedRadius(double radiusKm) {
+        return Math.min(Math.max(radiusKm, 0), MAX_RADIUS_KM);
+    }
+
+    /**
+     * Lignes (id, latitude, longitude) du rectangle englobant réduites au cercle, dans l'ordre de l'index
+     */
+    private static List<GeoGridIndex.GeoHit> withinRadius(GeoPoint origin, double radiusKm, List<Object[]> rows) {
+        List<GeoGridIndex.GeoHit> hits = new ArrayList<>();
+        for (Object[] row : rows) {
+            double distance = origin.distanceKm((Double) row[1], (Double) row[2]);
+            if (distance <= radiusKm) {
+                hits.add(new GeoGridIndex.GeoHit((Long) row[0], distance));
+            }
+        }
+        hits.sort(GeoGridIndex.NEAREST_FIRST);
+        return hits;
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    private SearchDocument toDocument(ItemListing item) {
+        return new SearchDocument(item.getId())
+                .field(item.getTitre(), TITRE_BOOST)
+                .field(item.getCategorie(), CATEGORIE_BOOST)
+                .field(item.getDescription(), DESCRIPTION_BOOST)
+                .attribute("categorie", item.getCategorie())
+                .attribute("disponible", String.valueOf(Boolean.TRUE.equals(item.getDisponibilite())));
+    }
+
+    private SearchDocument toDocument(SkillListing skill) {
+        return new SearchDocument(skill.getId())
+                .field(skill.getTitre(), TITRE_BOOST)
+                .field(skill.getDescription(), DESCRIPTION_BOOST);
+    }
+}
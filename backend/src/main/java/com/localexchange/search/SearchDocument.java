@@ -0,0 +1,47 @@
+package com.localexchange.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Document à indexer : champs texte pondérés et attributs de filtrage
+ */
+public class SearchDocument {
+
+    private final Long id;
+    private final List<Field> fields = new ArrayList<>();
+    private final Map<String, String> attributes = new HashMap<>();
+
+    public SearchDocument(Long id) {
+        this.id = id;
+    }
+
+    public SearchDocument field(String text, double boost) {
+        if (text != null && !text.isBlank()) {
+            fields.add(new Field(text, boost));
+        }
+        return this;
+    }
+
+    public SearchDocument attribute(String name, String value) {
+        attributes.put(name, value);
+        return this;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public List<Field> getFields() {
+        return fields;
+    }
+
+    public String getAttribute(String name) {
+        return attributes.get(name);
+    }
+
+    public record Field(String text, double boost) {
+    }
+}
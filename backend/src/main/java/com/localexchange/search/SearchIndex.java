@@ -0,0 +1,276 @@
+package com.localexchange.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * Index inversé en mémoire avec classement BM25, complétion par préfixe
+ * et tolérance aux fautes de frappe par trigrammes.
+ * Thread-safe : les recherches partagent un verrou en lecture, les mises à jour prennent le verrou en écriture.
+ */
+public class SearchIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private static final double PREFIX_WEIGHT = 0.7;
+    private static final double FUZZY_WEIGHT = 0.8;
+    private static final double FUZZY_MIN_SIMILARITY = 0.5;
+    private static final int MAX_EXPANSIONS = 20;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** terme -> (document -> fréquence pondérée) */
+    private final NavigableMap<String, Map<Long, Double>> postings = new TreeMap<>();
+
+    /** trigramme -> termes du vocabulaire qui le contiennent */
+    private final Map<String, Set<String>> trigrams = new HashMap<>();
+
+    private final Map<Long, IndexedDocument> documents = new HashMap<>();
+
+    private double totalLength;
+
+    /**
+     * Ajouter ou remplacer un document
+     */
+    public void put(SearchDocument document) {
+        Map<String, Double> frequencies = new HashMap<>();
+        double length = 0;
+        for (SearchDocument.Field field : document.getFields()) {
+            for (String term : FrenchAnalyzer.analyze(field.text())) {
+                frequencies.merge(term, field.boost(), Double::sum);
+                length += field.boost();
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeInternal(document.getId());
+            for (Map.Entry<String, Double> entry : frequencies.entrySet()) {
+                Map<Long, Double> docs = postings.get(entry.getKey());
+                if (docs == null) {
+                    docs = new HashMap<>();
+                    postings.put(entry.getKey(), docs);
+                    for (String trigram : trigramsOf(entry.getKey())) {
+                        trigrams.computeIfAbsent(trigram, t -> new HashSet<>()).add(entry.getKey());
+                    }
+                }
+                docs.put(document.getId(), entry.getValue());
+            }
+            documents.put(document.getId(), new IndexedDocument(document, frequencies.keySet(), length));
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retirer un document
+     */
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Vider l'index
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            trigrams.clear();
+            documents.clear();
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rechercher les documents correspondant à la requête, triés par pertinence décroissante.
+     * Tous les termes doivent correspondre ; à défaut, les documents correspondant à au moins un terme sont renvoyés.
+     */
+    public List<SearchHit> search(String query, Predicate<SearchDocument> filter) {
+        List<String> queryTerms = FrenchAnalyzer.analyze(query);
+        if (queryTerms.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            int documentCount = documents.size();
+            if (documentCount == 0) {
+                return List.of();
+            }
+            double averageLength = totalLength / documentCount;
+
+            Map<Long, double[]> scores = new HashMap<>();
+            for (int q = 0; q < queryTerms.size(); q++) {
+                for (Map.Entry<String, Double> expansion : expand(queryTerms.get(q)).entrySet()) {
+                    Map<Long, Double> docs = postings.get(expansion.getKey());
+                    double idf = Math.log(1 + (documentCount - docs.size() + 0.5) / (docs.size() + 0.5));
+                    for (Map.Entry<Long, Double> posting : docs.entrySet()) {
+                        IndexedDocument doc = documents.get(posting.getKey());
+                        double tf = posting.getValue();
+                        double norm = tf + K1 * (1 - B + B * doc.length() / averageLength);
+                        double score = expansion.getValue() * idf * tf * (K1 + 1) / norm;
+                        double[] perTerm = scores.computeIfAbsent(posting.getKey(), id -> new double[queryTerms.size()]);
+                        // Une seule expansion compte par terme de la requête
+                        perTerm[q] = Math.max(perTerm[q], score);
+                    }
+                }
+            }
+
+            List<SearchHit> all = new ArrayList<>();
+            List<SearchHit> complete = new ArrayList<>();
+            for (Map.Entry<Long, double[]> entry : scores.entrySet()) {
+                IndexedDocument doc = documents.get(entry.getKey());
+                if (filter != null && !filter.test(doc.document())) {
+                    continue;
+                }
+                double total = 0;
+                boolean allTermsMatched = true;
+                for (double termScore : entry.getValue()) {
+                    total += termScore;
+                    allTermsMatched &= termScore > 0;
+                }
+                SearchHit hit = new SearchHit(entry.getKey(), total);
+                all.add(hit);
+                if (allTermsMatched) {
+                    complete.add(hit);
+                }
+            }
+
+            List<SearchHit> hits = complete.isEmpty() ? all : complete;
+            hits.sort(Comparator.comparingDouble(SearchHit::score).reversed()
+                    .thenComparing(SearchHit::id, Comparator.reverseOrder()));
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Nombre de documents correspondant à la recherche par valeur d'un attribut (mêmes règles de correspondance que search)
+     */
+    public Map<String, Long> facets(String query, String attribute, Predicate<SearchDocument> filter) {
+        List<SearchHit> hits = search(query, filter);
+        Map<String, Long> counts = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            for (SearchHit hit : hits) {
+                IndexedDocument doc = documents.get(hit.id());
+                String value = doc == null ? null : doc.document().getAttribute(attribute);
+                if (value != null) {
+                    counts.merge(value, 1L, Long::sum);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return counts;
+    }
+
+    /**
+     * Termes du vocabulaire correspondant à un terme de requête, avec leur poids :
+     * terme exact, complétions par préfixe, puis termes proches (trigrammes) si rien ne correspond
+     */
+    private Map<String, Double> expand(String term) {
+        Map<String, Double> expansions = new HashMap<>();
+        if (postings.containsKey(term)) {
+            expansions.put(term, 1.0);
+        }
+
+        if (term.length() >= 2) {
+            for (String candidate : postings.subMap(term, false, term + Character.MAX_VALUE, false).keySet()) {
+                if (expansions.size() >= MAX_EXPANSIONS) {
+                    break;
+                }
+                expansions.put(candidate, PREFIX_WEIGHT);
+            }
+        }
+
+        if (expansions.isEmpty() && term.length() >= 4) {
+            Set<String> queryTrigrams = trigramsOf(term);
+            Map<String, Integer> shared = new HashMap<>();
+            for (String trigram : queryTrigrams) {
+                for (String candidate : trigrams.getOrDefault(trigram, Set.of())) {
+                    shared.merge(candidate, 1, Integer::sum);
+                }
+            }
+            shared.entrySet().stream()
+                    .map(e -> Map.entry(e.getKey(),
+                            2.0 * e.getValue() / (queryTrigrams.size() + trigramsOf(e.getKey()).size())))
+                    .filter(e -> e.getValue() >= FUZZY_MIN_SIMILARITY)
+                    .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
+                    .limit(MAX_EXPANSIONS)
+                    .forEach(e -> expansions.put(e.getKey(), FUZZY_WEIGHT * e.getValue()));
+        }
+        return expansions;
+    }
+
+    private void removeInternal(Long id) {
+        IndexedDocument previous = documents.remove(id);
+        if (previous == null) {
+            return;
+        }
+        totalLength -= previous.length();
+        for (String term : previous.terms()) {
+            Map<Long, Double> docs = postings.get(term);
+            if (docs == null) {
+                continue;
+            }
+            docs.remove(id);
+            if (docs.isEmpty()) {
+                postings.remove(term);
+                for (String trigram : trigramsOf(term)) {
+                    Set<String> terms = trigrams.get(trigram);
+                    if (terms != null) {
+                        terms.remove(term);
+                        if (terms.isEmpty()) {
+                            trigrams.remove(trigram);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static Set<String> trigramsOf(String term) {
+        String padded = "$" + term + "$";
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            result.add(padded.substring(i, i + 3));
+        }
+        return result;
+    }
+
+    private record IndexedDocument(SearchDocument document, Set<String> terms, double length) {
+    }
+
+    public record SearchHit(Long id, double score) {
+    }
+}
@@ -3,6 +3,7 @@ package com.localexchange.security;
 import com.localexchange.model.User;
 import com.localexchange.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -21,10 +22,7 @@ public class CustomUserDetailsService implements UserDetailsService {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("Utilisateur non trouvé avec l'email : " + email));
         
-        return org.springframework.security.core.userdetails.User.builder()
-                .username(user.getEmail())
-                .password(user.getPassword())
-                .authorities("ROLE_USER")
-                .build();
+        return new UserPrincipal(user.getId(), user.getEmail(), user.getPassword(),
+                AuthorityUtils.createAuthorityList("ROLE_USER"));
     }
 }
\ No newline at end of file
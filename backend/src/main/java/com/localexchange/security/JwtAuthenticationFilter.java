@@ -1,5 +1,6 @@
 package com.localexchange.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -15,16 +16,39 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.lang.NonNull;
 
 import java.io.IOException;
+import java.util.regex.Pattern;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
+    /**
+     * Lectures publiques qui n'utilisent jamais le principal : aucune authentification à faire.
+     * (/api/items/my-items et /api/skills/my-skills restent filtrés)
+     */
+    private static final Pattern PUBLIC_READS = Pattern.compile(
+            "/api/(items|skills)(/\\d+)?/?|/api/reviews/user/.*|/api/uploads/files/.*");
+    
+    private final WebAuthenticationDetailsSource detailsSource = new WebAuthenticationDetailsSource();
+    
     @Autowired
     private JwtTokenProvider tokenProvider;
     
     @Autowired
     private CustomUserDetailsService customUserDetailsService;
     
+    @Autowired
+    private PrincipalCache principalCache;
+    
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        String method = request.getMethod();
+        if (!"GET".equals(method) && !"HEAD".equals(method)) {
+            return false;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return PUBLIC_READS.matcher(path).matches();
+    }
+    
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request,
                                     @NonNull HttpServletResponse response,
@@ -32,15 +56,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
             
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String username = tokenProvider.getUsernameFromToken(jwt);
-                
-                UserDetails userDetails = customUserDetailsService.loadUserByUsername(username);
-                UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+            if (StringUtils.hasText(jwt)) {
+                UserDetails userDetails = resolvePrincipal(jwt);
+                if (userDetails != null) {
+                    UsernamePasswordAuthenticationToken authentication =
+                            new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                    authentication.setDetails(detailsSource.buildDetails(request));
+                    
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                }
             }
         } catch (Exception ex) {
             logger.error("Erreur lors de l'authentification de l'utilisateur", ex);
@@ -49,6 +73,28 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
     
+    /**
+     * Principal du token : depuis le cache pour un token déjà vérifié,
+     * sinon une seule vérification de signature puis un chargement en base
+     */
+    private UserDetails resolvePrincipal(String jwt) {
+        UserDetails cached = principalCache.get(jwt);
+        if (cached != null) {
+            return cached;
+        }
+        
+        Claims claims = tokenProvider.parseValidToken(jwt);
+        if (claims == null) {
+            return null;
+        }
+        
+        UserDetails userDetails = customUserDetailsService.loadUserByUsername(claims.getSubject());
+        if (claims.getExpiration() != null) {
+            principalCache.put(jwt, userDetails, claims.getExpiration().getTime());
+        }
+        return userDetails;
+    }
+    
     /**
      * Extrait le token JWT du header Authorization
      */
@@ -59,4 +105,4 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         return null;
     }
-}
\ No newline at end of file
+}
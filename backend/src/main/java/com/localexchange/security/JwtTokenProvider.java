@@ -2,6 +2,9 @@ package com.localexchange.security;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
@@ -13,12 +16,29 @@ import java.util.Date;
 @Component
 public class JwtTokenProvider {
     
+    private static final Logger log = LoggerFactory.getLogger(JwtTokenProvider.class);
+    
     @Value("${jwt.secret}")
     private String jwtSecret;
     
     @Value("${jwt.expiration}")
     private long jwtExpirationMs;
     
+    private SecretKey key;
+    
+    private JwtParser parser;
+    
+    /**
+     * Construire la clé et le parseur une seule fois (thread-safe, réutilisés par toutes les requêtes)
+     */
+    @PostConstruct
+    public void init() {
+        key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build();
+    }
+    
     /**
      * Génère un token JWT pour un utilisateur
      */
@@ -26,8 +46,6 @@ public class JwtTokenProvider {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpirationMs);
         
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-        
         return Jwts.builder()
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(now)
@@ -36,43 +54,33 @@ public class JwtTokenProvider {
                 .compact();
     }
     
+    /**
+     * Vérifie le token et renvoie ses claims en une seule analyse, ou null s'il est invalide ou expiré
+     */
+    public Claims parseValidToken(String token) {
+        try {
+            return parser.parseClaimsJws(token).getBody();
+        } catch (ExpiredJwtException ex) {
+            log.debug("Token JWT expiré");
+        } catch (JwtException ex) {
+            log.debug("Token JWT invalide : {}", ex.getMessage());
+        } catch (IllegalArgumentException ex) {
+            log.debug("JWT claims string is empty");
+        }
+        return null;
+    }
+    
     /**
      * Extrait le username (email) du token JWT
      */
     public String getUsernameFromToken(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-        
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        
-        return claims.getSubject();
+        return parser.parseClaimsJws(token).getBody().getSubject();
     }
     
     /**
      * Valide le token JWT
      */
     public boolean validateToken(String token) {
-        try {
-            SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-            
-            Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token);
-            
-            return true;
-        } catch (MalformedJwtException ex) {
-            System.err.println("Token JWT invalide");
-        } catch (ExpiredJwtException ex) {
-            System.err.println("Token JWT expiré");
-        } catch (UnsupportedJwtException ex) {
-            System.err.println("Token JWT non supporté");
-        } catch (IllegalArgumentException ex) {
-            System.err.println("JWT claims string is empty");
-        }
-        return false;
+        return parseValidToken(token) != null;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,79 @@
+package com.localexchange.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache borné des tokens déjà vérifiés vers le principal chargé.
+ * Une entrée expire à l'expiration du token, et au plus tard après la durée maximale configurée
+ * pour que les changements de compte soient pris en compte.
+ */
+@Component
+public class PrincipalCache {
+    
+    private final Cache<String, Entry> cache;
+    
+    private final long maxTtlNanos;
+    
+    public PrincipalCache(@Value("${jwt.cache.max-size:10000}") long maxSize,
+                          @Value("${jwt.cache.max-ttl:300000}") long maxTtlMs) {
+        this.maxTtlNanos = TimeUnit.MILLISECONDS.toNanos(maxTtlMs);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String token, Entry entry, long currentTime) {
+                        long untilTokenExpiry = TimeUnit.MILLISECONDS.toNanos(
+                                entry.expiresAtMs() - System.currentTimeMillis());
+                        return Math.max(0, Math.min(untilTokenExpiry, maxTtlNanos));
+                    }
+                    
+                    @Override
+                    public long expireAfterUpdate(String token, Entry entry, long currentTime, long currentDuration) {
+                        return expireAfterCreate(token, entry, currentTime);
+                    }
+                    
+                    @Override
+                    public long expireAfterRead(String token, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+    
+    /**
+     * Principal d'un token déjà vérifié, ou null
+     */
+    public UserDetails get(String token) {
+        Entry entry = cache.getIfPresent(token);
+        if (entry == null) {
+            return null;
+        }
+        // Garde-fou si l'éviction n'est pas encore passée
+        if (entry.expiresAtMs() <= System.currentTimeMillis()) {
+            cache.invalidate(token);
+            return null;
+        }
+        return entry.principal();
+    }
+    
+    /**
+     * Mémoriser le principal d'un token vérifié jusqu'à son expiration
+     */
+    public void put(String token, UserDetails principal, long expiresAtMs) {
+        cache.put(token, new Entry(principal, expiresAtMs));
+    }
+    
+    public long size() {
+        return cache.estimatedSize();
+    }
+    
+    private record Entry(UserDetails principal, long expiresAtMs) {
+    }
+}
@@ -0,0 +1,24 @@
+package com.localexchange.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * Utilisateur authentifié avec son identifiant, pour éviter une recherche par email
+ * sur les chemins chauds (compteurs, flux temps réel)
+ */
+public class UserPrincipal extends User {
+    
+    private final Long id;
+    
+    public UserPrincipal(Long id, String email, String password, Collection<? extends GrantedAuthority> authorities) {
+        super(email, password, authorities);
+        this.id = id;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+}
@@ -4,9 +4,13 @@ import com.localexchange.dto.*;
 import com.localexchange.exception.DuplicateEmailException;
 import com.localexchange.exception.InvalidCredentialsException;
 import com.localexchange.exception.ResourceNotFoundException;
+import com.localexchange.geo.GeoPoint;
+import com.localexchange.geo.Gazetteer;
+import com.localexchange.model.ItemListing;
+import com.localexchange.model.SkillListing;
 import com.localexchange.model.User;
-import com.localexchange.repository.ReviewRepository;
 import com.localexchange.repository.UserRepository;
+import com.localexchange.search.ListingSearchService;
 import com.localexchange.security.JwtTokenProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -27,7 +31,7 @@ public class AuthService {
     private UserRepository userRepository;
     
     @Autowired
-    private ReviewRepository reviewRepository;
+    private ReputationService reputationService;
     
     @Autowired
     private PasswordEncoder passwordEncoder;
@@ -38,6 +42,12 @@ public class AuthService {
     @Autowired
     private JwtTokenProvider tokenProvider;
     
+    @Autowired
+    private Gazetteer gazetteer;
+    
+    @Autowired
+    private ListingSearchService listingSearchService;
+    
     /**
      * Inscription d'un nouvel utilisateur
      */
@@ -53,6 +63,7 @@ public class AuthService {
         user.setPassword(passwordEncoder.encode(registerDTO.getPassword()));
         user.setNom(registerDTO.getNom());
         user.setLocalisation(registerDTO.getLocalisation());
+        locate(user);
         user.setPhoneVerified(false);
         
         User savedUser = userRepository.save(user);
@@ -109,8 +120,10 @@ public class AuthService {
         if (profileUpdateDTO.getNom() != null) {
             user.setNom(profileUpdateDTO.getNom());
         }
-        if (profileUpdateDTO.getLocalisation() != null) {
+        if (profileUpdateDTO.getLocalisation() != null
+                && !profileUpdateDTO.getLocalisation().equals(user.getLocalisation())) {
             user.setLocalisation(profileUpdateDTO.getLocalisation());
+            relocate(user);
         }
         if (profileUpdateDTO.getBio() != null) {
             user.setBio(profileUpdateDTO.getBio());
@@ -130,11 +143,37 @@ public class AuthService {
         return convertToUserDTO(updatedUser);
     }
     
+    /**
+     * Géocoder la localisation de l'utilisateur (coordonnées effacées si la commune est inconnue)
+     */
+    private void locate(User user) {
+        GeoPoint point = gazetteer.locate(user.getLocalisation()).orElse(null);
+        user.setLatitude(point != null ? point.latitude() : null);
+        user.setLongitude(point != null ? point.longitude() : null);
+    }
+    
+    /**
+     * Nouvelle localisation : les annonces suivent leur propriétaire dans l'index géographique
+     */
+    private void relocate(User user) {
+        locate(user);
+        for (ItemListing item : user.getItemListings()) {
+            item.setLatitude(user.getLatitude());
+            item.setLongitude(user.getLongitude());
+            listingSearchService.indexItem(item);
+        }
+        for (SkillListing skill : user.getSkillListings()) {
+            skill.setLatitude(user.getLatitude());
+            skill.setLongitude(user.getLongitude());
+            listingSearchService.indexSkill(skill);
+        }
+    }
+    
     /**
      * Calculer la note moyenne d'un utilisateur
      */
     public Double getAverageRating(Long userId) {
-        Double average = reviewRepository.getAverageRatingByUserId(userId);
+        Double average = reputationService.getAverageRating(userId);
         return average != null ? average : 0.0;
     }
     
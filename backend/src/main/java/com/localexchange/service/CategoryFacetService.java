@@ -0,0 +1,148 @@
+package com.localexchange.service;
+
+import com.localexchange.dto.CategoryFacetDTO;
+import com.localexchange.repository.ItemListingRepository;
+import com.localexchange.search.ListingSearchService;
+import com.localexchange.util.AfterCommit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Facettes du catalogue : nombre d'objets disponibles par catégorie.
+ * Les compteurs sont chargés depuis la base au premier accès, puis tenus à jour après commit
+ * par createItem, updateItem et deleteItem ; une réconciliation périodique corrige les écarts éventuels.
+ * Restreintes à une recherche, les facettes sont comptées sur l'index plein texte (mêmes correspondances que les résultats).
+ */
+@Service
+public class CategoryFacetService {
+
+    private static final Logger log = LoggerFactory.getLogger(CategoryFacetService.class);
+
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+    private volatile boolean loaded;
+
+    @Autowired
+    private ItemListingRepository itemListingRepository;
+
+    @Autowired
+    private ListingSearchService listingSearchService;
+
+    /**
+     * Facettes, de la catégorie la plus fournie à la moins fournie (catégories vides omises)
+     */
+    public List<CategoryFacetDTO> getFacets(String search) {
+        if (search != null && !search.isEmpty()) {
+            // SQL LIKE en repli tant que l'index n'est pas prêt
+            Map<String, Long> counts = listingSearchService.isReady()
+                    ? listingSearchService.itemFacets(search)
+                    : toMap(itemListingRepository.countAvailableByCategorieAndTitre(search));
+            return toFacets(counts);
+        }
+
+        load();
+        Map<String, Long> counts = new HashMap<>();
+        counters.forEach((categorie, counter) -> counts.put(categorie, counter.sum()));
+        return toFacets(counts);
+    }
+
+    /**
+     * Appliquer la création, la modification ou la suppression d'un objet, après commit
+     * (catégorie nulle : l'objet n'existe pas avant ou après l'opération)
+     */
+    public void itemChanged(String categorieBefore, Boolean availableBefore, String categorieAfter, Boolean availableAfter) {
+        boolean countedBefore = categorieBefore != null && Boolean.TRUE.equals(availableBefore);
+        boolean countedAfter = categorieAfter != null && Boolean.TRUE.equals(availableAfter);
+        if (countedBefore == countedAfter && (!countedBefore || categorieBefore.equals(categorieAfter))) {
+            return;
+        }
+        AfterCommit.run(() -> {
+            // Variation ignorée tant que les compteurs ne sont pas chargés : la base fait foi au premier accès
+            if (!loaded) {
+                return;
+            }
+            if (countedBefore) {
+                counters.computeIfAbsent(categorieBefore, c -> new LongAdder()).decrement();
+            }
+            if (countedAfter) {
+                counters.computeIfAbsent(categorieAfter, c -> new LongAdder()).increment();
+            }
+        });
+    }
+
+    /**
+     * Recaler les compteurs en mémoire sur la base
+     */
+    @Scheduled(fixedDelayString = "${app.category-facets.reconcile-interval:300000}",
+               initialDelayString = "${app.category-facets.reconcile-interval:300000}")
+    public void reconcile() {
+        if (!loaded) {
+            return;
+        }
+        Map<String, Long> before = new HashMap<>();
+        counters.forEach((categorie, counter) -> before.put(categorie, counter.sum()));
+        Map<String, Long> actual = toMap(itemListingRepository.countAvailableByCategorie());
+
+        int corrected = 0;
+        Set<String> categories = new HashSet<>(before.keySet());
+        categories.addAll(actual.keySet());
+        for (String categorie : categories) {
+            long seen = before.getOrDefault(categorie, 0L);
+            long expected = actual.getOrDefault(categorie, 0L);
+            LongAdder counter = counters.computeIfAbsent(categorie, c -> new LongAdder());
+            // Compteur modifié pendant la requête : on le recalera au prochain passage
+            if (counter.sum() != seen || expected == seen) {
+                continue;
+            }
+            counter.add(expected - seen);
+            corrected++;
+            log.debug("Facette {} recalée de {} à {}", categorie, seen, expected);
+        }
+        if (corrected > 0) {
+            log.info("Facettes de catégories : {} écarts corrigés", corrected);
+        }
+    }
+
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        synchronized (counters) {
+            if (!loaded) {
+                toMap(itemListingRepository.countAvailableByCategorie())
+                        .forEach((categorie, count) -> counters.computeIfAbsent(categorie, c -> new LongAdder()).add(count));
+                loaded = true;
+            }
+        }
+    }
+
+    private static Map<String, Long> toMap(List<Object[]> rows) {
+        Map<String, Long> counts = new HashMap<>();
+        for (Object[] row : rows) {
+            counts.put((String) row[0], ((Number) row[1]).longValue());
+        }
+        return counts;
+    }
+
+    private static List<CategoryFacetDTO> toFacets(Map<String, Long> counts) {
+        return counts.entrySet().stream()
+                .filter(entry -> Objects.nonNull(entry.getKey()) && entry.getValue() > 0)
+                .map(entry -> new CategoryFacetDTO(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparingLong(CategoryFacetDTO::getCount).reversed()
+                        .thenComparing(CategoryFacetDTO::getCategorie))
+                .toList();
+    }
+}
@@ -1,21 +1,34 @@
 package com.localexchange.service;
 
+import com.localexchange.dto.ExchangeInboxDTO;
 import com.localexchange.dto.ExchangeRequestDTO;
 import com.localexchange.exception.ResourceNotFoundException;
 import com.localexchange.exception.UnauthorizedException;
+import com.localexchange.exception.UnknownStatusException;
+import com.localexchange.metrics.BusinessMetrics;
 import com.localexchange.model.*;
 import com.localexchange.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class ExchangeRequestService {
     
+    /** Ordre des boîtes de réception paginées, servi par les index (participant, statut, created_at) */
+    private static final Sort INBOX_ORDER = Sort.by(Sort.Direction.DESC, "createdAt", "id");
+    
+    private static final int MAX_INBOX_PAGE_SIZE = 50;
+    
     @Autowired
     private ExchangeRequestRepository exchangeRequestRepository;
     
@@ -31,6 +44,9 @@ public class ExchangeRequestService {
     @Autowired
     private NotificationService notificationService;
     
+    @Autowired
+    private BusinessMetrics businessMetrics;
+    
     /**
      * Créer une demande d'échange
      */
@@ -61,6 +77,7 @@ public class ExchangeRequestService {
         }
         
         ExchangeRequest savedRequest = exchangeRequestRepository.save(request);
+        businessMetrics.exchangeTransition(null, ExchangeStatus.PENDING);
         
         // Créer notification pour le donateur
         String message = String.format("%s souhaite échanger avec vous", beneficiaire.getNom());
@@ -104,6 +121,38 @@ public class ExchangeRequestService {
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Demandes reçues page par page, filtrées ou non par statut, avec le nombre de demandes de chaque statut
+     */
+    public ExchangeInboxDTO getReceivedInbox(String donateurEmail, String statut, int pageNumber, int size) {
+        User donateur = userRepository.findByEmail(donateurEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("Utilisateur", "email", donateurEmail));
+        
+        ExchangeStatus filter = parseStatut(statut);
+        Pageable page = inboxPage(pageNumber, size);
+        List<ExchangeRequest> requests = filter == null
+                ? exchangeRequestRepository.findByDonateur(donateur, page)
+                : exchangeRequestRepository.findByDonateurAndStatut(donateur, filter, page);
+        
+        return toInbox(requests, exchangeRequestRepository.countByStatutForDonateur(donateur.getId()), filter, page);
+    }
+    
+    /**
+     * Demandes envoyées page par page, filtrées ou non par statut, avec le nombre de demandes de chaque statut
+     */
+    public ExchangeInboxDTO getSentInbox(String beneficiaireEmail, String statut, int pageNumber, int size) {
+        User beneficiaire = userRepository.findByEmail(beneficiaireEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("Utilisateur", "email", beneficiaireEmail));
+        
+        ExchangeStatus filter = parseStatut(statut);
+        Pageable page = inboxPage(pageNumber, size);
+        List<ExchangeRequest> requests = filter == null
+                ? exchangeRequestRepository.findByBeneficiaire(beneficiaire, page)
+                : exchangeRequestRepository.findByBeneficiaireAndStatut(beneficiaire, filter, page);
+        
+        return toInbox(requests, exchangeRequestRepository.countByStatutForBeneficiaire(beneficiaire.getId()), filter, page);
+    }
+    
     /**
      * Récupérer un échange par ID
      */
@@ -139,6 +188,7 @@ public class ExchangeRequestService {
         
         request.setStatut(ExchangeStatus.ACCEPTED);
         ExchangeRequest updatedRequest = exchangeRequestRepository.save(request);
+        businessMetrics.exchangeTransition(ExchangeStatus.PENDING, ExchangeStatus.ACCEPTED);
         
         // Créer notification pour le bénéficiaire
         String message = String.format("%s a accepté votre demande d'échange", request.getDonateur().getNom());
@@ -173,6 +223,7 @@ public class ExchangeRequestService {
         
         request.setStatut(ExchangeStatus.REFUSED);
         ExchangeRequest updatedRequest = exchangeRequestRepository.save(request);
+        businessMetrics.exchangeTransition(ExchangeStatus.PENDING, ExchangeStatus.REFUSED);
         
         // Créer notification pour le bénéficiaire
         String message = String.format("%s a refusé votre demande d'échange", request.getDonateur().getNom());
@@ -208,6 +259,7 @@ public class ExchangeRequestService {
         
         request.setStatut(ExchangeStatus.COMPLETED);
         ExchangeRequest updatedRequest = exchangeRequestRepository.save(request);
+        businessMetrics.exchangeTransition(ExchangeStatus.ACCEPTED, ExchangeStatus.COMPLETED);
         
         return convertToDTO(updatedRequest);
     }
@@ -224,16 +276,59 @@ public class ExchangeRequestService {
             throw new UnauthorizedException("Seul le demandeur peut annuler cette demande");
         }
         
+        ExchangeStatus previous = request.getStatut();
         request.setStatut(ExchangeStatus.CANCELLED);
         ExchangeRequest updatedRequest = exchangeRequestRepository.save(request);
+        businessMetrics.exchangeTransition(previous, ExchangeStatus.CANCELLED);
         
         return convertToDTO(updatedRequest);
     }
     
+    private static ExchangeStatus parseStatut(String statut) {
+        if (statut == null || statut.isBlank()) {
+            return null;
+        }
+        try {
+            return ExchangeStatus.valueOf(statut.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new UnknownStatusException(statut);
+        }
+    }
+    
+    /**
+     * Page demandée ramenée dans les bornes : numéro positif, taille entre 1 et MAX_INBOX_PAGE_SIZE
+     */
+    private Pageable inboxPage(int pageNumber, int size) {
+        return PageRequest.of(Math.max(pageNumber, 0), Math.min(Math.max(size, 1), MAX_INBOX_PAGE_SIZE), INBOX_ORDER);
+    }
+    
+    /**
+     * Le total du filtre courant se déduit des compteurs par statut : pas de requête de comptage pour la page
+     */
+    private ExchangeInboxDTO toInbox(List<ExchangeRequest> requests, List<Object[]> rows,
+                                     ExchangeStatus filter, Pageable page) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (ExchangeStatus status : ExchangeStatus.values()) {
+            counts.put(status.name(), 0L);
+        }
+        for (Object[] row : rows) {
+            counts.put(((ExchangeStatus) row[0]).name(), ((Number) row[1]).longValue());
+        }
+        long total = filter == null
+                ? counts.values().stream().mapToLong(Long::longValue).sum()
+                : counts.get(filter.name());
+        
+        List<ExchangeRequestDTO> content = requests.stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+        int totalPages = (int) ((total + page.getPageSize() - 1) / page.getPageSize());
+        return new ExchangeInboxDTO(content, page.getPageNumber(), page.getPageSize(), total, totalPages, counts);
+    }
+    
     /**
      * Convertir ExchangeRequest en ExchangeRequestDTO
      */
-    private ExchangeRequestDTO convertToDTO(ExchangeRequest request) {
+    ExchangeRequestDTO convertToDTO(ExchangeRequest request) {
         ExchangeRequestDTO dto = new ExchangeRequestDTO();
         dto.setId(request.getId());
         dto.setOffreEnRetour(request.getOffreEnRetour());
@@ -0,0 +1,106 @@
+package com.localexchange.service;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Lecture de l'orientation EXIF d'un JPEG.
+ * Les déclinaisons sont réencodées sans métadonnées : la rotation indiquée par l'appareil photo
+ * doit donc être appliquée aux pixels, sinon les photos prises en portrait apparaîtraient couchées.
+ */
+final class ExifOrientation {
+
+    static final int NORMAL = 1;
+
+    private static final int TAG_ORIENTATION = 0x0112;
+
+    private ExifOrientation() {
+    }
+
+    /**
+     * Orientation EXIF (1 à 8), NORMAL si absente ou illisible
+     */
+    static int read(Path file) {
+        try (InputStream in = Files.newInputStream(file)) {
+            return read(new DataInputStream(in));
+        } catch (IOException | RuntimeException e) {
+            return NORMAL;
+        }
+    }
+
+    private static int read(DataInputStream in) throws IOException {
+        if (in.readUnsignedShort() != 0xFFD8) {
+            return NORMAL;
+        }
+        for (;;) {
+            int marker = in.readUnsignedShort();
+            if ((marker & 0xFF00) != 0xFF00 || marker == 0xFFDA || marker == 0xFFD9) {
+                // Début des données d'image : plus de segment APPn à lire
+                return NORMAL;
+            }
+            int length = in.readUnsignedShort() - 2;
+            if (length < 0) {
+                return NORMAL;
+            }
+            if (marker != 0xFFE1) {
+                in.skipNBytes(length);
+                continue;
+            }
+            byte[] segment = in.readNBytes(length);
+            if (segment.length == length && isExif(segment)) {
+                return fromSegment(segment);
+            }
+        }
+    }
+
+    /**
+     * Orientation portée par le contenu d'un segment APP1 Exif (sans marqueur ni longueur)
+     */
+    static int fromSegment(byte[] segment) {
+        try {
+            return orientation(ByteBuffer.wrap(segment, 6, segment.length - 6).slice());
+        } catch (RuntimeException e) {
+            return NORMAL;
+        }
+    }
+
+    /**
+     * Contenu d'un segment APP1 Exif minimal : un IFD0 réduit à la seule balise Orientation
+     */
+    static byte[] segment(int orientation) {
+        ByteBuffer segment = ByteBuffer.allocate(32).order(ByteOrder.BIG_ENDIAN);
+        segment.put(new byte[] {'E', 'x', 'i', 'f', 0, 0});
+        segment.put(new byte[] {'M', 'M'}).putShort((short) 42).putInt(8);
+        segment.putShort((short) 1);
+        segment.putShort((short) TAG_ORIENTATION).putShort((short) 3).putInt(1).putShort((short) orientation).putShort((short) 0);
+        segment.putInt(0);
+        return segment.array();
+    }
+
+    static boolean isExif(byte[] segment) {
+        return segment.length > 14 && segment[0] == 'E' && segment[1] == 'x' && segment[2] == 'i' && segment[3] == 'f'
+                && segment[4] == 0 && segment[5] == 0;
+    }
+
+    /**
+     * Parcourir l'IFD0 de l'en-tête TIFF à la recherche de la balise Orientation
+     */
+    private static int orientation(ByteBuffer tiff) {
+        tiff.order(tiff.get(0) == 'I' ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+        int ifd = tiff.getInt(4);
+        int entries = tiff.getShort(ifd) & 0xFFFF;
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if ((tiff.getShort(entry) & 0xFFFF) == TAG_ORIENTATION) {
+                int value = tiff.getShort(entry + 8) & 0xFFFF;
+                return value >= 1 && value <= 8 ? value : NORMAL;
+            }
+        }
+        return NORMAL;
+    }
+}
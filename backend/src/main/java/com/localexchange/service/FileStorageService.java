@@ -1,29 +1,67 @@
 package com.localexchange.service;
 
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.localexchange.exception.ResourceNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
-import java.net.MalformedURLException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
-import java.time.Instant;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.HexFormat;
 import java.util.List;
-import java.util.UUID;
+import java.util.Locale;
+import java.util.regex.Pattern;
 
+/**
+ * Stockage des fichiers téléversés, adressé par contenu : un fichier est nommé par le SHA-256 de ses octets stockés
+ * (images JPEG et PNG débarrassées de leurs métadonnées)
+ * et rangé dans uploads/ab/cd/ (deux premiers octets du hash) pour garder des répertoires courts.
+ * Un contenu déjà présent n'est pas stocké une seconde fois : l'URL existante est renvoyée.
+ * Les fichiers de l'ancien nommage (horodatage + UUID, à la racine) restent servis.
+ */
 @Service
 public class FileStorageService {
 
-    private final Path uploadDir = Paths.get("uploads").toAbsolutePath().normalize();
+    private static final Pattern CONTENT_NAME = Pattern.compile("[0-9a-f]{64}(\\.[a-z0-9]{1,10})?");
+    private static final Pattern EXTENSION = Pattern.compile("[a-z0-9]{1,10}");
 
-    public FileStorageService() {
+    static final String INCOMING_DIR = ".incoming";
+
+    private final Path uploadDir;
+    private final Path incomingDir;
+
+    @Autowired
+    private ImageDerivativeService imageDerivativeService;
+
+    // Métadonnées de service (type, taille, ETag) : renseignées au dépôt, recalculées au besoin après un redémarrage
+    private final Cache<Path, StoredFile> metadata = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .build();
+
+    public FileStorageService(@Value("${app.uploads.dir:uploads}") String uploadDir) {
+        this.uploadDir = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.incomingDir = this.uploadDir.resolve(INCOMING_DIR);
         try {
-            Files.createDirectories(uploadDir);
+            Files.createDirectories(incomingDir);
         } catch (IOException e) {
             throw new RuntimeException("Could not create upload directory", e);
         }
@@ -33,27 +71,143 @@ public class FileStorageService {
         List<String> urls = new ArrayList<>();
         for (MultipartFile file : files) {
             if (file.isEmpty()) continue;
-            String original = file.getOriginalFilename();
-            String ext = "";
-            if (original != null && original.contains(".")) {
-                ext = original.substring(original.lastIndexOf('.'));
-            }
-            String filename = Instant.now().toEpochMilli() + "-" + UUID.randomUUID() + ext;
-            Path target = uploadDir.resolve(filename);
-            Files.copy(file.getInputStream(), target, StandardCopyOption.REPLACE_EXISTING);
+            String filename = store(file);
             // URL exposed under /api/uploads/files/{filename}
             urls.add("/api/uploads/files/" + filename);
         }
         return urls;
     }
 
-    public Resource loadAsResource(String filename) throws MalformedURLException {
-        Path file = uploadDir.resolve(filename).normalize();
-        Resource resource = new UrlResource(file.toUri());
-        if (resource.exists() || resource.isReadable()) {
-            return resource;
-        } else {
-            throw new RuntimeException("Could not read file: " + filename);
+    /**
+     * Écrire le flux dans un fichier temporaire, sans les métadonnées d'image (position GPS...) puisque l'original
+     * est servi tel quel, en calculant le SHA-256 des octets écrits ; puis le ranger sous son hash,
+     * ou l'abandonner si ce contenu est déjà stocké
+     */
+    private String store(MultipartFile file) throws IOException {
+        MessageDigest digest = sha256();
+        Path temp = Files.createTempFile(incomingDir, "upload-", ".tmp");
+        try {
+            try (InputStream in = file.getInputStream();
+                 OutputStream out = new DigestOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)), digest)) {
+                ImageMetadata.copyWithoutMetadata(in, out);
+            }
+            String filename = HexFormat.of().formatHex(digest.digest()) + extension(file.getOriginalFilename());
+            Path target = contentPath(filename);
+
+            boolean created = false;
+            if (!Files.exists(target)) {
+                Files.createDirectories(target.getParent());
+                try {
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                    created = true;
+                } catch (FileAlreadyExistsException e) {
+                    // Même contenu déposé au même instant par une autre requête
+                }
+            }
+            if (created) {
+                metadata.put(target, describe(target, true));
+            }
+            // Déclinaisons générées en arrière-plan, la réponse n'attend pas ; pour un doublon, seulement si elles manquent
+            if (created || !Files.exists(imageDerivativeService.variantPath(target, ImageVariant.THUMB))) {
+                imageDerivativeService.submit(target);
+            }
+            return filename;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Fichier à servir : la déclinaison demandée si elle est prête, l'original sinon
+     * (variant null, déclinaison en cours de génération ou fichier qui n'est pas une image)
+     */
+    public StoredFile locate(String filename, ImageVariant variant) {
+        Path original = resolve(filename);
+        if (original == null) {
+            throw new ResourceNotFoundException("Fichier", "nom", filename);
+        }
+        if (variant != null) {
+            StoredFile derived = lookup(imageDerivativeService.variantPath(original, variant), false);
+            if (derived != null) {
+                return derived;
+            }
+        }
+        StoredFile stored = lookup(original, CONTENT_NAME.matcher(filename).matches());
+        if (stored == null) {
+            throw new ResourceNotFoundException("Fichier", "nom", filename);
+        }
+        return variant != null ? stored.asFallback() : stored;
+    }
+
+    /**
+     * Chemin d'un nom public : rangé sous son hash, ou à la racine pour l'ancien nommage ; null si le nom sort du stockage
+     */
+    private Path resolve(String filename) {
+        if (CONTENT_NAME.matcher(filename).matches()) {
+            return contentPath(filename);
+        }
+        Path legacy = uploadDir.resolve(filename).normalize();
+        return uploadDir.equals(legacy.getParent()) ? legacy : null;
+    }
+
+    private Path contentPath(String filename) {
+        return uploadDir.resolve(filename.substring(0, 2)).resolve(filename.substring(2, 4)).resolve(filename);
+    }
+
+    private StoredFile lookup(Path file, boolean contentAddressed) {
+        StoredFile stored = metadata.getIfPresent(file);
+        if (stored != null) {
+            return stored;
+        }
+        try {
+            stored = describe(file, contentAddressed);
+        } catch (NoSuchFileException e) {
+            // Absence non mise en cache : une déclinaison peut apparaître à tout moment
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        metadata.put(file, stored);
+        return stored;
+    }
+
+    private static StoredFile describe(Path file, boolean contentAddressed) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        if (!attributes.isRegularFile()) {
+            throw new NoSuchFileException(file.toString());
+        }
+        String name = file.getFileName().toString();
+        long length = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        String contentType = MediaTypeFactory.getMediaType(name)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM)
+                .toString();
+        // Un fichier adressé par contenu a déjà son validateur idéal : son hash
+        String etag = contentAddressed
+                ? "\"" + name.substring(0, 64) + "\""
+                : "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+        return new StoredFile(file, contentType, length, lastModified, etag, true);
+    }
+
+    /**
+     * Extension normalisée (minuscules, jpeg → jpg) pour qu'un même contenu garde un seul nom
+     */
+    static String extension(String originalFilename) {
+        if (originalFilename == null || originalFilename.lastIndexOf('.') < 0) {
+            return "";
+        }
+        String ext = originalFilename.substring(originalFilename.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+        if (ext.equals("jpeg")) {
+            ext = "jpg";
+        }
+        return EXTENSION.matcher(ext).matches() ? "." + ext : "";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
         }
     }
 }
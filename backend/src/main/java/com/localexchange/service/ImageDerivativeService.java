@@ -0,0 +1,232 @@
+package com.localexchange.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Génération des déclinaisons (thumb, card, full) d'une image téléversée.
+ * Le traitement tourne sur un pool borné, après la réponse de téléversement : tant qu'une déclinaison
+ * n'existe pas (traitement en cours, file pleine, format non décodable), l'original est servi à la place.
+ * Les déclinaisons sont réencodées en JPEG sans métadonnées (EXIF, GPS...).
+ */
+@Service
+public class ImageDerivativeService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageDerivativeService.class);
+
+    static final String VARIANTS_DIR = "variants";
+
+    private static final long MAX_PIXELS = 100_000_000L;
+
+    private final float jpegQuality;
+
+    private final ThreadPoolExecutor executor;
+
+    public ImageDerivativeService(@Value("${app.images.workers:2}") int workers,
+                                  @Value("${app.images.queue-capacity:200}") int queueCapacity,
+                                  @Value("${app.images.jpeg-quality:0.82}") float jpegQuality) {
+        this.jpegQuality = jpegQuality;
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("image-derivatives-", 0).daemon().factory());
+    }
+
+    /**
+     * Planifier la génération des déclinaisons d'un original, sans attendre
+     */
+    public void submit(Path original) {
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(original);
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Déclinaisons impossibles pour {} : {}", original.getFileName(), e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("File de traitement des images pleine, {} sera servie en taille originale", original.getFileName());
+        }
+    }
+
+    /**
+     * Emplacement d'une déclinaison : variants/{variant}/{nom sans extension}.jpg à côté de l'original
+     */
+    public Path variantPath(Path original, ImageVariant variant) {
+        String name = original.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String baseName = dot > 0 ? name.substring(0, dot) : name;
+        return original.resolveSibling(VARIANTS_DIR).resolve(variant.paramName()).resolve(baseName + ".jpg");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Décoder l'original une fois, puis dériver chaque taille de la précédente ; renvoie false si le format n'est pas décodable
+     */
+    boolean generate(Path original) throws IOException {
+        BufferedImage decoded = decode(original, ImageVariant.FULL.getMaxSize());
+        if (decoded == null) {
+            log.debug("Format non décodable, pas de déclinaison pour {}", original.getFileName());
+            return false;
+        }
+
+        BufferedImage full = orient(scale(decoded, ImageVariant.FULL.getMaxSize()), ExifOrientation.read(original));
+        BufferedImage card = scale(full, ImageVariant.CARD.getMaxSize());
+        BufferedImage thumb = scale(card, ImageVariant.THUMB.getMaxSize());
+
+        write(full, variantPath(original, ImageVariant.FULL));
+        write(card, variantPath(original, ImageVariant.CARD));
+        write(thumb, variantPath(original, ImageVariant.THUMB));
+        return true;
+    }
+
+    /**
+     * Décoder en sous-échantillonnant à la lecture les très grandes images :
+     * une photo de 50 Mpx n'est jamais entièrement chargée en mémoire
+     */
+    private BufferedImage decode(Path original, int targetSize) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(original.toFile())) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > MAX_PIXELS) {
+                    throw new IOException("Image trop grande (" + width + "x" + height + ")");
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                // On garde au moins le double de la taille cible pour une réduction de qualité
+                int subsampling = Math.max(1, Math.max(width, height) / (targetSize * 2));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Réduire pour tenir dans un carré de maxSize (jamais d'agrandissement), sur fond blanc pour la transparence.
+     * Réduction par moitiés successives : une seule interpolation bilinéaire sur un grand écart crénèle l'image.
+     */
+    static BufferedImage scale(BufferedImage source, int maxSize) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        double ratio = Math.min(1.0, (double) maxSize / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(height * ratio));
+
+        BufferedImage current = source;
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            if (current.getType() == BufferedImage.TYPE_INT_RGB
+                    && width == current.getWidth() && height == current.getHeight()) {
+                return current;
+            }
+            BufferedImage step = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = step.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.setColor(Color.WHITE);
+                graphics.fillRect(0, 0, width, height);
+                graphics.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = step;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    /**
+     * Appliquer aux pixels l'orientation EXIF (1 à 8)
+     */
+    static BufferedImage orient(BufferedImage image, int orientation) {
+        int w = image.getWidth();
+        int h = image.getHeight();
+        AffineTransform transform = switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, w, 0);
+            case 3 -> new AffineTransform(-1, 0, 0, -1, w, h);
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, h);
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);
+            case 6 -> new AffineTransform(0, 1, -1, 0, h, 0);
+            case 7 -> new AffineTransform(0, -1, -1, 0, h, w);
+            case 8 -> new AffineTransform(0, -1, 1, 0, 0, w);
+            default -> null;
+        };
+        if (transform == null) {
+            return image;
+        }
+        boolean swap = orientation >= 5;
+        BufferedImage oriented = new BufferedImage(swap ? h : w, swap ? w : h, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = oriented.createGraphics();
+        try {
+            graphics.drawImage(image, transform, null);
+        } finally {
+            graphics.dispose();
+        }
+        return oriented;
+    }
+
+    /**
+     * Encoder en JPEG sans métadonnées, via un fichier temporaire pour ne jamais servir une image partielle
+     */
+    private void write(BufferedImage image, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), ".tmp-", ".jpg");
+        try {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+            try (ImageOutputStream output = ImageIO.createImageOutputStream(temp.toFile())) {
+                writer.setOutput(output);
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(jpegQuality);
+                param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.localexchange.service;
+
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Retrait sans perte des métadonnées d'une image téléversée avant stockage de l'original :
+ * position GPS, appareil, date de prise de vue, commentaires. Les pixels compressés sont recopiés tels quels.
+ * JPEG : segments APP1 (Exif, XMP), APP3 à APP13, APP15 et commentaires supprimés ; l'orientation Exif est conservée
+ * dans un segment minimal. APP0 (JFIF), APP2 (profil ICC) et APP14 (Adobe) sont gardés : ils décident du rendu des couleurs.
+ * PNG : blocs textuels, eXIf et tIME supprimés.
+ * Tout autre contenu, ou une image dont la structure surprend, est recopié sans modification à partir de ce point.
+ */
+final class ImageMetadata {
+
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    private static final Set<String> PNG_METADATA_CHUNKS = Set.of("tEXt", "zTXt", "iTXt", "eXIf", "tIME");
+
+    private static final int SOI = 0xFFD8;
+    private static final int SOS = 0xFFDA;
+    private static final int EOI = 0xFFD9;
+    private static final int APP0 = 0xFFE0;
+    private static final int APP1 = 0xFFE1;
+    private static final int APP2 = 0xFFE2;
+    private static final int APP14 = 0xFFEE;
+    private static final int APP15 = 0xFFEF;
+    private static final int COM = 0xFFFE;
+
+    private ImageMetadata() {
+    }
+
+    /**
+     * Recopier le flux en retirant les métadonnées s'il s'agit d'un JPEG ou d'un PNG
+     */
+    static void copyWithoutMetadata(InputStream in, OutputStream out) throws IOException {
+        byte[] head = in.readNBytes(PNG_SIGNATURE.length);
+        if (head.length >= 2 && ((head[0] & 0xFF) << 8 | (head[1] & 0xFF)) == SOI) {
+            out.write(head, 0, 2);
+            copyJpeg(new Source(head, 2, in), new DataOutputStream(out));
+        } else if (Arrays.equals(head, PNG_SIGNATURE)) {
+            out.write(head);
+            copyPng(new Source(head, head.length, in), new DataOutputStream(out));
+        } else {
+            out.write(head);
+        }
+        in.transferTo(out);
+    }
+
+    /**
+     * Segments jusqu'au début des données d'image (SOS), après quoi le reste est recopié par l'appelant
+     */
+    private static void copyJpeg(Source in, DataOutputStream out) throws IOException {
+        int orientation = ExifOrientation.NORMAL;
+        boolean orientationWritten = false;
+        for (;;) {
+            int marker = in.readUnsignedShort();
+            if (marker < 0 || (marker & 0xFF00) != 0xFF00 || marker == SOS || marker == EOI) {
+                if (orientation != ExifOrientation.NORMAL && !orientationWritten) {
+                    writeSegment(out, APP1, ExifOrientation.segment(orientation));
+                }
+                in.copyPending(out, marker);
+                return;
+            }
+            int length = in.readUnsignedShort();
+            byte[] data = length < 2 ? null : in.readNBytes(length - 2);
+            if (data == null || data.length != length - 2) {
+                // Segment tronqué ou invalide : recopié tel quel
+                out.writeShort(marker);
+                in.copyPending(out, length);
+                if (data != null) {
+                    out.write(data);
+                }
+                return;
+            }
+            if (marker == APP1 && ExifOrientation.isExif(data)) {
+                orientation = ExifOrientation.fromSegment(data);
+            } else if (keepJpegSegment(marker)) {
+                // Orientation placée juste après JFIF, avant les tables, là où les lecteurs l'attendent
+                if (marker != APP0 && orientation != ExifOrientation.NORMAL && !orientationWritten) {
+                    writeSegment(out, APP1, ExifOrientation.segment(orientation));
+                    orientationWritten = true;
+                }
+                writeSegment(out, marker, data);
+            }
+        }
+    }
+
+    private static boolean keepJpegSegment(int marker) {
+        if (marker == COM || marker == APP1) {
+            return false;
+        }
+        if (marker >= APP0 && marker <= APP15) {
+            return marker == APP0 || marker == APP2 || marker == APP14;
+        }
+        return true;
+    }
+
+    private static void writeSegment(DataOutputStream out, int marker, byte[] data) throws IOException {
+        out.writeShort(marker);
+        out.writeShort(data.length + 2);
+        out.write(data);
+    }
+
+    /**
+     * Blocs jusqu'à IEND ; les blocs de pixels (IDAT) sont recopiés par morceaux
+     */
+    private static void copyPng(Source in, DataOutputStream out) throws IOException {
+        for (;;) {
+            byte[] header = in.readNBytes(8);
+            if (header.length < 8) {
+                out.write(header);
+                return;
+            }
+            long length = ((header[0] & 0xFFL) << 24) | ((header[1] & 0xFF) << 16) | ((header[2] & 0xFF) << 8) | (header[3] & 0xFF);
+            String type = new String(header, 4, 4, StandardCharsets.ISO_8859_1);
+            // Données puis CRC
+            long remaining = length + 4;
+            if (PNG_METADATA_CHUNKS.contains(type)) {
+                try {
+                    in.skipNBytes(remaining);
+                } catch (EOFException e) {
+                    return;
+                }
+                continue;
+            }
+            out.write(header);
+            in.copyNBytes(out, remaining);
+            if (type.equals("IEND")) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Flux d'entrée précédé des octets déjà lus pour reconnaître le format
+     */
+    private static final class Source {
+
+        private final byte[] head;
+        private int position;
+        private final InputStream in;
+        // Premier octet d'un entier 16 bits interrompu par la fin du flux
+        private int dangling = -1;
+
+        Source(byte[] head, int position, InputStream in) {
+            this.head = head;
+            this.position = position;
+            this.in = in;
+        }
+
+        int read() throws IOException {
+            if (position < head.length) {
+                return head[position++] & 0xFF;
+            }
+            return in.read();
+        }
+
+        /**
+         * Entier 16 bits big-endian, -1 en fin de flux
+         */
+        int readUnsignedShort() throws IOException {
+            int high = read();
+            int low = high < 0 ? -1 : read();
+            if (low < 0) {
+                dangling = high;
+                return -1;
+            }
+            return (high << 8) | low;
+        }
+
+        byte[] readNBytes(int n) throws IOException {
+            byte[] bytes = new byte[n];
+            int count = 0;
+            while (count < n && position < head.length) {
+                bytes[count++] = head[position++];
+            }
+            count += in.readNBytes(bytes, count, n - count);
+            return count == n ? bytes : Arrays.copyOf(bytes, count);
+        }
+
+        void skipNBytes(long n) throws IOException {
+            while (n > 0 && position < head.length) {
+                position++;
+                n--;
+            }
+            in.skipNBytes(n);
+        }
+
+        void copyNBytes(OutputStream out, long n) throws IOException {
+            while (n > 0) {
+                int chunk = (int) Math.min(8192, n);
+                byte[] bytes = readNBytes(chunk);
+                out.write(bytes);
+                if (bytes.length < chunk) {
+                    return;
+                }
+                n -= chunk;
+            }
+        }
+
+        /**
+         * Recopier l'entier 16 bits lu (ou son octet isolé en fin de flux) et les octets d'en-tête restants
+         */
+        void copyPending(OutputStream out, int value) throws IOException {
+            if (value >= 0) {
+                out.write(value >> 8);
+                out.write(value & 0xFF);
+            } else if (dangling >= 0) {
+                out.write(dangling);
+            }
+            while (position < head.length) {
+                out.write(head[position++]);
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.localexchange.service;
+
+import java.util.Locale;
+
+/**
+ * Déclinaisons d'une image téléversée, redimensionnées pour tenir dans un carré de maxSize pixels
+ */
+public enum ImageVariant {
+    THUMB(200),
+    CARD(480),
+    FULL(1600);
+
+    private final int maxSize;
+
+    ImageVariant(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Nom utilisé dans le paramètre ?variant= et le répertoire de stockage
+     */
+    public String paramName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Déclinaison demandée, ou null pour l'original (valeur absente ou inconnue)
+     */
+    public static ImageVariant fromParam(String value) {
+        if (value == null) {
+            return null;
+        }
+        for (ImageVariant variant : values()) {
+            if (variant.paramName().equalsIgnoreCase(value.trim())) {
+                return variant;
+            }
+        }
+        return null;
+    }
+}
@@ -1,22 +1,32 @@
 package com.localexchange.service;
 
+import com.localexchange.dto.CursorPageDTO;
+import com.localexchange.dto.ItemCardDTO;
 import com.localexchange.dto.ItemDetailDTO;
 import com.localexchange.dto.ItemListingDTO;
+import com.localexchange.dto.ListingCursor;
 import com.localexchange.dto.UserDTO;
 import com.localexchange.exception.ResourceNotFoundException;
 import com.localexchange.exception.UnauthorizedException;
+import com.localexchange.geo.Gazetteer;
 import com.localexchange.model.ItemListing;
 import com.localexchange.model.User;
 import com.localexchange.repository.ItemListingRepository;
-import com.localexchange.repository.ReviewRepository;
 import com.localexchange.repository.UserRepository;
+import com.localexchange.search.GeoGridIndex;
+import com.localexchange.search.ListingSearchService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,7 +40,16 @@ public class ItemListingService {
     private UserRepository userRepository;
     
     @Autowired
-    private ReviewRepository reviewRepository;
+    private ReputationService reputationService;
+    
+    @Autowired
+    private ListingSearchService listingSearchService;
+    
+    @Autowired
+    private Gazetteer gazetteer;
+    
+    @Autowired
+    private CategoryFacetService categoryFacetService;
     
     /**
      * Créer une nouvelle annonce d'objet
@@ -47,29 +66,141 @@ public class ItemListingService {
         item.setDisponibilite(true);
         item.setCommentaireEchange(dto.getCommentaireEchange());
         item.setOwner(owner);
+        item.setLatitude(owner.getLatitude());
+        item.setLongitude(owner.getLongitude());
         
         ItemListing savedItem = itemListingRepository.save(item);
+        listingSearchService.indexItem(savedItem);
+        categoryFacetService.itemChanged(null, false, savedItem.getCategorie(), savedItem.getDisponibilite());
         
-        return convertToDTO(savedItem);
+        return convertToDTO(savedItem, reputationService.getAverageRating(owner.getId()));
     }
     
     /**
-     * Récupérer tous les objets avec filtres
+     * Récupérer tous les objets avec filtres (cartes légères, propriétaire joint en une requête)
      */
-    public Page<ItemListingDTO> getAllItems(String categorie, String search, Pageable pageable) {
-        Page<ItemListing> items;
+    @Transactional(readOnly = true)
+    public Page<ItemCardDTO> getAllItems(String categorie, String search, Pageable pageable) {
+        // Recherche plein texte servie par l'index en mémoire (SQL LIKE en repli tant qu'il n'est pas prêt)
+        if (search != null && !search.isEmpty() && listingSearchService.isReady()) {
+            return toSearchResultPage(listingSearchService.searchItems(search, categorie), pageable);
+        }
         
         if (categorie != null && !categorie.isEmpty() && search != null && !search.isEmpty()) {
-            items = itemListingRepository.findByCategorieAndTitreContainingIgnoreCase(categorie, search, pageable);
+            return itemListingRepository.findCardsByCategorieAndTitre(categorie, search, pageable);
         } else if (categorie != null && !categorie.isEmpty()) {
-            items = itemListingRepository.findByCategorie(categorie, pageable);
+            return itemListingRepository.findCardsByCategorie(categorie, pageable);
         } else if (search != null && !search.isEmpty()) {
-            items = itemListingRepository.findByTitreContainingIgnoreCase(search, pageable);
+            return itemListingRepository.findCardsByTitre(search, pageable);
         } else {
-            items = itemListingRepository.findAll(pageable);
+            return itemListingRepository.findCards(pageable);
+        }
+    }
+    
+    /**
+     * Récupérer les objets en mode curseur : défilement par (createdAt, id) sans OFFSET ni comptage
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ItemCardDTO> getItemsByCursor(String categorie, String search, String cursor, int requestedSize) {
+        int size = ListingCursor.pageSize(requestedSize);
+        // Résultats de recherche déjà classés en mémoire : le curseur est un simple décalage
+        if (search != null && !search.isEmpty() && listingSearchService.isReady()) {
+            List<Long> rankedIds = listingSearchService.searchItems(search, categorie);
+            int from = Math.min(ListingCursor.decodeOffset(cursor).getOffset(), rankedIds.size());
+            int to = Math.min(from + size, rankedIds.size());
+            boolean hasNext = to < rankedIds.size();
+            return new CursorPageDTO<>(loadRankedCards(rankedIds.subList(from, to)),
+                    hasNext ? ListingCursor.atOffset(to).encode() : null, hasNext);
+        }
+        
+        ListingCursor position = ListingCursor.decodeKeyset(cursor);
+        // Une ligne de plus que demandé pour savoir s'il existe une page suivante, sans COUNT
+        Pageable limit = PageRequest.of(0, size + 1);
+        boolean hasCategorie = categorie != null && !categorie.isEmpty();
+        boolean hasSearch = search != null && !search.isEmpty();
+        
+        List<ItemCardDTO> rows;
+        if (hasCategorie && hasSearch) {
+            rows = itemListingRepository.findCardsByCategorieAndTitreAfter(
+                    categorie, search, position.getCreatedAt(), position.getId(), limit);
+        } else if (hasCategorie) {
+            rows = itemListingRepository.findCardsByCategorieAfter(categorie, position.getCreatedAt(), position.getId(), limit);
+        } else if (hasSearch) {
+            rows = itemListingRepository.findCardsByTitreAfter(search, position.getCreatedAt(), position.getId(), limit);
+        } else {
+            rows = itemListingRepository.findCardsAfter(position.getCreatedAt(), position.getId(), limit);
         }
         
-        return items.map(this::convertToDTO);
+        boolean hasNext = rows.size() > size;
+        List<ItemCardDTO> content = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            ItemCardDTO last = content.get(content.size() - 1);
+            nextCursor = ListingCursor.after(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CursorPageDTO<>(content, nextCursor, hasNext);
+    }
+    
+    /**
+     * Récupérer les objets proches d'une localisation (commune, code postal ou « latitude,longitude »), les plus proches d'abord
+     */
+    @Transactional(readOnly = true)
+    public Page<ItemCardDTO> getItemsNear(String near, double radiusKm, String categorie, String search, Pageable pageable) {
+        List<GeoGridIndex.GeoHit> hits = listingSearchService.nearItems(gazetteer.require(near), radiusKm, categorie, search);
+        int from = (int) Math.min(pageable.getOffset(), hits.size());
+        int to = Math.min(from + pageable.getPageSize(), hits.size());
+        return new PageImpl<>(loadNearCards(hits.subList(from, to)), pageable, hits.size());
+    }
+    
+    /**
+     * Même recherche en mode curseur : résultats déjà classés en mémoire, le curseur est un simple décalage
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ItemCardDTO> getItemsNearByCursor(String near, double radiusKm, String categorie, String search,
+                                                           String cursor, int requestedSize) {
+        int size = ListingCursor.pageSize(requestedSize);
+        List<GeoGridIndex.GeoHit> hits = listingSearchService.nearItems(gazetteer.require(near), radiusKm, categorie, search);
+        int from = Math.min(ListingCursor.decodeOffset(cursor).getOffset(), hits.size());
+        int to = Math.min(from + size, hits.size());
+        boolean hasNext = to < hits.size();
+        return new CursorPageDTO<>(loadNearCards(hits.subList(from, to)),
+                hasNext ? ListingCursor.atOffset(to).encode() : null, hasNext);
+    }
+    
+    /**
+     * Charger les cartes d'une page de résultats classés par pertinence
+     */
+    private Page<ItemCardDTO> toSearchResultPage(List<Long> rankedIds, Pageable pageable) {
+        int from = (int) Math.min(pageable.getOffset(), rankedIds.size());
+        int to = Math.min(from + pageable.getPageSize(), rankedIds.size());
+        return new PageImpl<>(loadRankedCards(rankedIds.subList(from, to)), pageable, rankedIds.size());
+    }
+    
+    /**
+     * Charger les cartes des résultats géographiques, avec leur distance arrondie à 100 m
+     */
+    private List<ItemCardDTO> loadNearCards(List<GeoGridIndex.GeoHit> hits) {
+        Map<Long, Double> distances = hits.stream()
+                .collect(Collectors.toMap(GeoGridIndex.GeoHit::id, GeoGridIndex.GeoHit::distanceKm));
+        List<ItemCardDTO> cards = loadRankedCards(hits.stream().map(GeoGridIndex.GeoHit::id).toList());
+        cards.forEach(card -> card.setDistanceKm(Math.round(distances.get(card.getId()) * 10) / 10.0));
+        return cards;
+    }
+    
+    /**
+     * Charger les cartes d'identifiants donnés en conservant leur ordre
+     */
+    private List<ItemCardDTO> loadRankedCards(List<Long> pageIds) {
+        if (pageIds.isEmpty()) {
+            return List.of();
+        }
+        
+        Map<Long, ItemCardDTO> cards = itemListingRepository.findCardsByIdIn(pageIds).stream()
+                .collect(Collectors.toMap(ItemCardDTO::getId, Function.identity()));
+        return pageIds.stream()
+                .map(cards::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
     
     /**
@@ -94,6 +225,8 @@ public class ItemListingService {
             throw new UnauthorizedException("Vous n'êtes pas autorisé à modifier cet objet");
         }
         
+        String previousCategorie = item.getCategorie();
+        Boolean previouslyAvailable = item.getDisponibilite();
         item.setTitre(dto.getTitre());
         item.setDescription(dto.getDescription());
         item.setCategorie(dto.getCategorie());
@@ -102,8 +235,11 @@ public class ItemListingService {
         item.setCommentaireEchange(dto.getCommentaireEchange());
         
         ItemListing updatedItem = itemListingRepository.save(item);
+        listingSearchService.indexItem(updatedItem);
+        categoryFacetService.itemChanged(previousCategorie, previouslyAvailable,
+                updatedItem.getCategorie(), updatedItem.getDisponibilite());
         
-        return convertToDTO(updatedItem);
+        return convertToDTO(updatedItem, reputationService.getAverageRating(updatedItem.getOwner().getId()));
     }
     
     /**
@@ -119,6 +255,8 @@ public class ItemListingService {
         }
         
         itemListingRepository.delete(item);
+        listingSearchService.removeItem(id);
+        categoryFacetService.itemChanged(item.getCategorie(), item.getDisponibilite(), null, false);
     }
     
     /**
@@ -129,16 +267,17 @@ public class ItemListingService {
                 .orElseThrow(() -> new ResourceNotFoundException("Utilisateur", "email", ownerEmail));
         
         List<ItemListing> items = itemListingRepository.findByOwnerOrderByCreatedAtDesc(owner);
+        Double ownerRating = reputationService.getAverageRating(owner.getId());
         
         return items.stream()
-                .map(this::convertToDTO)
+                .map(item -> convertToDTO(item, ownerRating))
                 .collect(Collectors.toList());
     }
     
     /**
      * Convertir ItemListing en ItemListingDTO
      */
-    private ItemListingDTO convertToDTO(ItemListing item) {
+    ItemListingDTO convertToDTO(ItemListing item, Double ownerRating) {
         ItemListingDTO dto = new ItemListingDTO();
         dto.setId(item.getId());
         dto.setTitre(item.getTitre());
@@ -151,7 +290,7 @@ public class ItemListingService {
         dto.setOwnerNom(item.getOwner().getNom());
         dto.setOwnerPhoto(item.getOwner().getPhoto());
         dto.setOwnerLocalisation(item.getOwner().getLocalisation());
-        dto.setOwnerRating(reviewRepository.getAverageRatingByUserId(item.getOwner().getId()));
+        dto.setOwnerRating(ownerRating);
         dto.setCreatedAt(item.getCreatedAt());
         dto.setUpdatedAt(item.getUpdatedAt());
         
@@ -162,6 +301,8 @@ public class ItemListingService {
      * Convertir ItemListing en ItemDetailDTO
      */
     private ItemDetailDTO convertToDetailDTO(ItemListing item) {
+        Double ownerRating = reputationService.getAverageRating(item.getOwner().getId());
+        
         ItemDetailDTO dto = new ItemDetailDTO();
         dto.setId(item.getId());
         dto.setTitre(item.getTitre());
@@ -174,7 +315,7 @@ public class ItemListingService {
         dto.setOwnerNom(item.getOwner().getNom());
         dto.setOwnerPhoto(item.getOwner().getPhoto());
         dto.setOwnerLocalisation(item.getOwner().getLocalisation());
-        dto.setOwnerRating(reviewRepository.getAverageRatingByUserId(item.getOwner().getId()));
+        dto.setOwnerRating(ownerRating);
         dto.setCreatedAt(item.getCreatedAt());
         dto.setUpdatedAt(item.getUpdatedAt());
         
@@ -186,7 +327,7 @@ public class ItemListingService {
         ownerDTO.setLocalisation(item.getOwner().getLocalisation());
         ownerDTO.setPhoto(item.getOwner().getPhoto());
         ownerDTO.setBio(item.getOwner().getBio());
-        ownerDTO.setAverageRating(reviewRepository.getAverageRatingByUserId(item.getOwner().getId()));
+        ownerDTO.setAverageRating(ownerRating);
         
         dto.setOwner(ownerDTO);
         
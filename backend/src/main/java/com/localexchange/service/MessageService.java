@@ -1,26 +1,38 @@
 package com.localexchange.service;
 
 import com.localexchange.dto.MessageDTO;
+import com.localexchange.exception.InvalidCursorException;
 import com.localexchange.exception.ResourceNotFoundException;
 import com.localexchange.exception.UnauthorizedException;
+import com.localexchange.metrics.BusinessMetrics;
 import com.localexchange.model.ExchangeRequest;
 import com.localexchange.model.Message;
 import com.localexchange.model.NotificationType;
 import com.localexchange.model.User;
+import com.localexchange.realtime.ConversationStream;
+import com.localexchange.realtime.EventStream;
 import com.localexchange.repository.ExchangeRequestRepository;
 import com.localexchange.repository.MessageRepository;
 import com.localexchange.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class MessageService {
     
+    /** Taille maximale d'une page de conversation */
+    private static final int MAX_CONVERSATION_LIMIT = 200;
+    
     @Autowired
     private MessageRepository messageRepository;
     
@@ -33,14 +45,27 @@ public class MessageService {
     @Autowired
     private NotificationService notificationService;
     
+    @Autowired
+    private ConversationStream conversationStream;
+    
+    @Autowired
+    private BusinessMetrics businessMetrics;
+    
+    @Autowired
+    private UnreadCounterService unreadCounterService;
+    
     /**
-     * Envoyer un message
+     * Envoyer un message.
+     * Le rang du message est attribué sous le verrou de l'échange, conservé jusqu'au commit : l'envoi suivant
+     * dans la même conversation attend ce commit, puis lit (READ COMMITTED) le rang validé. Les rangs d'une
+     * conversation sont donc visibles dans l'ordre, et le rattrapage par after ne saute aucun message.
      */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public MessageDTO sendMessage(MessageDTO dto, String expediteurEmail) {
         User expediteur = userRepository.findByEmail(expediteurEmail)
                 .orElseThrow(() -> new ResourceNotFoundException("Utilisateur", "email", expediteurEmail));
         
-        ExchangeRequest exchangeRequest = exchangeRequestRepository.findById(dto.getExchangeRequestId())
+        ExchangeRequest exchangeRequest = exchangeRequestRepository.findByIdForUpdate(dto.getExchangeRequestId())
                 .orElseThrow(() -> new ResourceNotFoundException("Échange", "id", dto.getExchangeRequestId()));
         
         // Vérifier que l'utilisateur fait partie de l'échange
@@ -55,6 +80,7 @@ public class MessageService {
                 : exchangeRequest.getDonateur();
         
         Message message = new Message();
+        message.setNumero(messageRepository.findLastNumero(exchangeRequest.getId()) + 1);
         message.setContenu(dto.getContenu());
         message.setLu(false);
         message.setExpediteur(expediteur);
@@ -62,6 +88,8 @@ public class MessageService {
         message.setExchangeRequest(exchangeRequest);
         
         Message savedMessage = messageRepository.save(message);
+        unreadCounterService.messagesChanged(destinataire.getId(), 1);
+        businessMetrics.messageSent();
         
         // Créer notification pour le destinataire
         String notificationMessage = String.format("Nouveau message de %s", expediteur.getNom());
@@ -74,13 +102,39 @@ public class MessageService {
                 null
         );
         
-        return convertToDTO(savedMessage);
+        MessageDTO sentMessage = convertToDTO(savedMessage);
+        conversationStream.publishMessage(exchangeRequest.getId(), sentMessage);
+        
+        return sentMessage;
+    }
+    
+    /**
+     * Ouvrir le flux temps réel d'une conversation
+     */
+    @Transactional(readOnly = true)
+    public EventStream.Subscription openConversationStream(Long exchangeId, String userEmail, String lastEventId) {
+        User user = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("Utilisateur", "email", userEmail));
+        
+        ExchangeRequest exchangeRequest = exchangeRequestRepository.findById(exchangeId)
+                .orElseThrow(() -> new ResourceNotFoundException("Échange", "id", exchangeId));
+        
+        // Vérifier que l'utilisateur fait partie de l'échange
+        if (!exchangeRequest.getDonateur().getId().equals(user.getId()) &&
+            !exchangeRequest.getBeneficiaire().getId().equals(user.getId())) {
+            throw new UnauthorizedException("Vous n'êtes pas autorisé à consulter cette conversation");
+        }
+        
+        return conversationStream.subscribe(exchangeId, lastEventId);
     }
     
     /**
-     * Récupérer la conversation d'un échange
+     * Récupérer une page de la conversation d'un échange, toujours dans l'ordre de la conversation :
+     * les limit derniers messages, ou ceux de rang inférieur à before (« messages précédents »),
+     * ou ceux de rang supérieur à after (rattrapage des nouveaux messages)
      */
-    public List<MessageDTO> getConversation(Long exchangeId, String userEmail) {
+    @Transactional(readOnly = true)
+    public List<MessageDTO> getConversation(Long exchangeId, Long before, Long after, int limit, String userEmail) {
         User user = userRepository.findByEmail(userEmail)
                 .orElseThrow(() -> new ResourceNotFoundException("Utilisateur", "email", userEmail));
         
@@ -93,11 +147,19 @@ public class MessageService {
             throw new UnauthorizedException("Vous n'êtes pas autorisé à consulter cette conversation");
         }
         
-        List<Message> messages = messageRepository.findByExchangeRequestOrderByCreatedAtAsc(exchangeRequest);
+        if (before != null && after != null) {
+            throw new InvalidCursorException("Paramètres before et after incompatibles");
+        }
+        Pageable page = PageRequest.of(0, Math.min(Math.max(limit, 1), MAX_CONVERSATION_LIMIT));
+        if (after != null) {
+            return messageRepository.findInConversationAfter(exchangeId, after, page);
+        }
         
-        return messages.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        List<MessageDTO> messages = new ArrayList<>(before != null
+                ? messageRepository.findInConversationBefore(exchangeId, before, page)
+                : messageRepository.findLatestInConversation(exchangeId, page));
+        Collections.reverse(messages);
+        return messages;
     }
     
     /**
@@ -115,18 +177,55 @@ public class MessageService {
             throw new UnauthorizedException("Vous n'êtes pas le destinataire de ce message");
         }
         
+        boolean wasUnread = !Boolean.TRUE.equals(message.getLu());
         message.setLu(true);
         Message updatedMessage = messageRepository.save(message);
+        if (wasUnread) {
+            unreadCounterService.messagesChanged(user.getId(), -1);
+        }
         
         return convertToDTO(updatedMessage);
     }
     
+    /**
+     * Marquer lus les messages reçus dans une conversation jusqu'au rang upTo inclus
+     * (tous si upTo est null), en une seule requête ; renvoie le nombre modifié
+     */
+    public int markConversationAsRead(Long exchangeId, Long upTo, String userEmail) {
+        User user = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("Utilisateur", "email", userEmail));
+        
+        ExchangeRequest exchangeRequest = exchangeRequestRepository.findById(exchangeId)
+                .orElseThrow(() -> new ResourceNotFoundException("Échange", "id", exchangeId));
+        
+        // Vérifier que l'utilisateur fait partie de l'échange
+        if (!exchangeRequest.getDonateur().getId().equals(user.getId()) &&
+            !exchangeRequest.getBeneficiaire().getId().equals(user.getId())) {
+            throw new UnauthorizedException("Vous n'êtes pas autorisé à consulter cette conversation");
+        }
+        
+        int updated = messageRepository.markConversationReadUpTo(
+                exchangeId, user.getId(), upTo != null ? upTo : Long.MAX_VALUE);
+        unreadCounterService.messagesChanged(user.getId(), -updated);
+        
+        return updated;
+    }
+    
+    /**
+     * Compter les messages non lus (compteur en mémoire, sans accès à la base)
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Integer getUnreadMessageCount(Long userId) {
+        return unreadCounterService.getUnreadMessages(userId);
+    }
+    
     /**
      * Convertir Message en MessageDTO
      */
-    private MessageDTO convertToDTO(Message message) {
+    MessageDTO convertToDTO(Message message) {
         MessageDTO dto = new MessageDTO();
         dto.setId(message.getId());
+        dto.setNumero(message.getNumero());
         dto.setContenu(message.getContenu());
         dto.setLu(message.getLu());
         dto.setExpediteurId(message.getExpediteur().getId());
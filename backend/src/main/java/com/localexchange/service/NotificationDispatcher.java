@@ -0,0 +1,277 @@
+package com.localexchange.service;
+
+import com.localexchange.metrics.BusinessMetrics;
+import com.localexchange.model.Notification;
+import com.localexchange.model.NotificationType;
+import com.localexchange.model.OutboxEvent;
+import com.localexchange.model.OutboxStatus;
+import com.localexchange.model.User;
+import com.localexchange.realtime.NotificationStream;
+import com.localexchange.repository.NotificationRepository;
+import com.localexchange.repository.OutboxEventRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Distribution en arrière-plan des événements de l'outbox : insertion groupée dans notifications
+ * puis envoi temps réel après commit.
+ * L'ordre est garanti par utilisateur : un événement n'est traité que si aucun événement plus ancien
+ * du même utilisateur n'est encore en attente. Un échec reporte l'événement avec un délai croissant.
+ */
+@Component
+public class NotificationDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    @Value("${app.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${app.outbox.max-backoff:300000}")
+    private long maxBackoffMs;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private NotificationStream notificationStream;
+
+    @Autowired
+    private UnreadCounterService unreadCounterService;
+
+    @Autowired
+    private BusinessMetrics businessMetrics;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ReentrantLock running = new ReentrantLock();
+    private final AtomicBoolean rerun = new AtomicBoolean();
+    private final AtomicBoolean wakeUpQueued = new AtomicBoolean();
+
+    private final ExecutorService wakeUpExecutor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("outbox-dispatcher").daemon().factory());
+
+    public NotificationDispatcher(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Un événement vient d'être validé : distribuer sans attendre le prochain passage planifié
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAppended(OutboxEvent event) {
+        if (wakeUpQueued.compareAndSet(false, true)) {
+            wakeUpExecutor.execute(() -> {
+                wakeUpQueued.set(false);
+                dispatchPending();
+            });
+        }
+    }
+
+    /**
+     * Passage planifié : reprend les nouvelles tentatives et tout ce qu'un réveil aurait manqué
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval:2000}")
+    public void poll() {
+        dispatchPending();
+    }
+
+    /**
+     * Distribuer les événements dus, lot par lot, jusqu'à épuisement
+     */
+    public void dispatchPending() {
+        if (!running.tryLock()) {
+            // Un passage est déjà en cours : il refera un tour
+            rerun.set(true);
+            return;
+        }
+        try {
+            do {
+                rerun.set(false);
+                while (dispatchBatch() == batchSize) {
+                    // lot plein : il en reste probablement
+                }
+            } while (rerun.get());
+        } catch (RuntimeException e) {
+            log.error("Erreur du distributeur de notifications", e);
+        } finally {
+            running.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        wakeUpExecutor.shutdownNow();
+    }
+
+    /**
+     * Réserver et distribuer un lot ; renvoie le nombre d'événements traités (distribués ou repris en échec)
+     */
+    int dispatchBatch() {
+        List<Long> failedIds = new ArrayList<>();
+        Integer claimed = transactionTemplate.execute(status -> {
+            List<OutboxEvent> due = outboxEventRepository.lockDue(LocalDateTime.now(), PageRequest.of(0, batchSize));
+            if (due.isEmpty()) {
+                return 0;
+            }
+            List<OutboxEvent> ready = inUserOrder(due);
+            if (ready.isEmpty()) {
+                return 0;
+            }
+
+            try {
+                deliver(ready);
+            } catch (RuntimeException e) {
+                // Un événement fautif fait échouer le lot : on les reprendra un par un
+                status.setRollbackOnly();
+                ready.forEach(event -> failedIds.add(event.getId()));
+                log.warn("Échec de distribution d'un lot de {} notifications, reprise unitaire : {}",
+                        ready.size(), e.getMessage());
+            }
+            return ready.size();
+        });
+
+        if (!failedIds.isEmpty()) {
+            dispatchOneByOne(failedIds);
+        }
+        return claimed == null ? 0 : claimed;
+    }
+
+    /**
+     * Garder, pour chaque utilisateur, la suite d'événements qui commence par son plus ancien événement en attente
+     */
+    private List<OutboxEvent> inUserOrder(List<OutboxEvent> due) {
+        Map<Long, List<OutboxEvent>> byUser = new LinkedHashMap<>();
+        for (OutboxEvent event : due) {
+            byUser.computeIfAbsent(event.getUserId(), id -> new ArrayList<>()).add(event);
+        }
+
+        Map<Long, Long> oldestPending = new HashMap<>();
+        for (Object[] row : outboxEventRepository.findOldestPendingIdByUser(byUser.keySet())) {
+            oldestPending.put((Long) row[0], (Long) row[1]);
+        }
+
+        List<OutboxEvent> ready = new ArrayList<>();
+        for (Map.Entry<Long, List<OutboxEvent>> entry : byUser.entrySet()) {
+            List<OutboxEvent> events = entry.getValue();
+            // Un événement plus ancien est réservé ailleurs ou attend une nouvelle tentative : patienter
+            if (events.get(0).getId().equals(oldestPending.get(entry.getKey()))) {
+                ready.addAll(events);
+            }
+        }
+        ready.sort((a, b) -> Long.compare(a.getId(), b.getId()));
+        return ready;
+    }
+
+    /**
+     * Insérer les notifications, retirer les événements de l'outbox et préparer l'envoi temps réel après commit
+     */
+    private void deliver(List<OutboxEvent> events) {
+        List<Notification> notifications = new ArrayList<>();
+        for (OutboxEvent event : events) {
+            Notification notification = new Notification();
+            notification.setType(event.getType());
+            notification.setMessage(event.getMessage());
+            notification.setLu(false);
+            // Référence sans chargement de l'utilisateur
+            notification.setUser(entityManager.getReference(User.class, event.getUserId()));
+            notification.setExchangeId(event.getExchangeId());
+            notification.setItemListingId(event.getItemListingId());
+            notification.setSkillListingId(event.getSkillListingId());
+            notifications.add(notification);
+        }
+        List<Notification> saved = notificationRepository.saveAll(notifications);
+        // Les insertions groupées attendent sinon le flush du commit, hors de la reprise sur erreur de l'appelant
+        entityManager.flush();
+        outboxEventRepository.deleteAllInBatch(events);
+
+        // Compteurs incrémentés après commit, avant l'envoi qui les relit
+        Map<Long, Integer> added = new HashMap<>();
+        events.forEach(event -> added.merge(event.getUserId(), 1, Integer::sum));
+        added.forEach(unreadCounterService::notificationsChanged);
+        Map<NotificationType, Integer> byType = new EnumMap<>(NotificationType.class);
+        events.forEach(event -> byType.merge(event.getType(), 1, Integer::sum));
+        byType.forEach(businessMetrics::notificationsCreated);
+
+        for (Notification notification : saved) {
+            Long userId = notification.getUser().getId();
+            notificationStream.publishNotification(userId, notificationService.convertToDTO(notification),
+                    () -> unreadCounterService.getUnreadNotifications(userId));
+        }
+    }
+
+    /**
+     * Reprise unitaire après l'échec d'un lot ; à la première erreur d'un utilisateur,
+     * ses événements suivants attendent pour conserver l'ordre
+     */
+    private void dispatchOneByOne(List<Long> eventIds) {
+        Set<Long> blockedUsers = new HashSet<>();
+        for (Long eventId : eventIds) {
+            Long userId = outboxEventRepository.findById(eventId).map(OutboxEvent::getUserId).orElse(null);
+            if (userId == null || blockedUsers.contains(userId)) {
+                continue;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        outboxEventRepository.findById(eventId).ifPresent(event -> deliver(List.of(event))));
+            } catch (RuntimeException e) {
+                blockedUsers.add(userId);
+                transactionTemplate.executeWithoutResult(status -> recordFailure(eventId, e));
+            }
+        }
+    }
+
+    private void recordFailure(Long eventId, RuntimeException error) {
+        outboxEventRepository.findById(eventId).ifPresent(event -> {
+            int attempts = event.getAttempts() + 1;
+            event.setAttempts(attempts);
+            String message = String.valueOf(error.getMessage());
+            event.setLastError(message.length() > 500 ? message.substring(0, 500) : message);
+            if (attempts >= maxAttempts) {
+                event.setStatus(OutboxStatus.FAILED);
+                log.error("Notification {} abandonnée après {} tentatives : {}", eventId, attempts, message);
+            } else {
+                long backoffMs = Math.min(maxBackoffMs, 1000L << Math.min(attempts, 20));
+                event.setNextAttemptAt(LocalDateTime.now().plusNanos(backoffMs * 1_000_000));
+                log.warn("Notification {} en échec (tentative {}), nouvelle tentative dans {} ms", eventId, attempts, backoffMs);
+            }
+        });
+    }
+}
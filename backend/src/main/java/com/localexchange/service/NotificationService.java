@@ -5,13 +5,20 @@ import com.localexchange.exception.ResourceNotFoundException;
 import com.localexchange.exception.UnauthorizedException;
 import com.localexchange.model.Notification;
 import com.localexchange.model.NotificationType;
+import com.localexchange.model.OutboxEvent;
 import com.localexchange.model.User;
+import com.localexchange.realtime.EventStream;
+import com.localexchange.realtime.NotificationStream;
 import com.localexchange.repository.NotificationRepository;
+import com.localexchange.repository.OutboxEventRepository;
 import com.localexchange.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 @Service
@@ -23,29 +30,44 @@ private NotificationRepository notificationRepository;
 @Autowired
 private UserRepository userRepository;
 
+@Autowired
+private OutboxEventRepository outboxEventRepository;
+
+@Autowired
+private NotificationStream notificationStream;
+
+@Autowired
+private ApplicationEventPublisher eventPublisher;
+
+@Autowired
+private UnreadCounterService unreadCounterService;
+
 /**
- * Créer une notification
+ * Créer une notification : simple ajout à l'outbox dans la transaction métier,
+ * l'insertion dans notifications et l'envoi temps réel sont faits en arrière-plan par NotificationDispatcher
  */
-public Notification createNotification(Long userId, NotificationType type, String message, Long exchangeId, Long itemListingId, Long skillListingId) {
-    User user = userRepository.findById(userId)
-            .orElseThrow(() -> new ResourceNotFoundException("Utilisateur", "id", userId));
+public OutboxEvent createNotification(Long userId, NotificationType type, String message, Long exchangeId, Long itemListingId, Long skillListingId) {
+    OutboxEvent event = new OutboxEvent();
+    event.setUserId(userId);
+    event.setType(type);
+    event.setMessage(message);
+    event.setExchangeId(exchangeId);
+    event.setItemListingId(itemListingId);
+    event.setSkillListingId(skillListingId);
+    event.setNextAttemptAt(LocalDateTime.now());
     
-    Notification notification = new Notification();
-    notification.setType(type);
-    notification.setMessage(message);
-    notification.setLu(false);
-    notification.setUser(user);
-    notification.setExchangeId(exchangeId);
-    notification.setItemListingId(itemListingId);
-    notification.setSkillListingId(skillListingId);
+    OutboxEvent savedEvent = outboxEventRepository.save(event);
     
-    return notificationRepository.save(notification);
+    // Réveille le distributeur une fois la transaction validée
+    eventPublisher.publishEvent(savedEvent);
+    
+    return savedEvent;
 }
 
 /**
  * Version surchargée (backward compatibility)
  */
-public Notification createNotification(Long userId, NotificationType type, String message) {
+public OutboxEvent createNotification(Long userId, NotificationType type, String message) {
     return createNotification(userId, type, message, null, null, null);
 }
 
@@ -64,13 +86,25 @@ public List<NotificationDTO> getUserNotifications(String userEmail) {
 }
 
 /**
- * Compter les notifications non lues
+ * Ouvrir le flux temps réel des notifications de l'utilisateur
  */
-public Integer getUnreadCount(String userEmail) {
+public EventStream.Subscription openStream(String userEmail, String lastEventId) {
     User user = userRepository.findByEmail(userEmail)
             .orElseThrow(() -> new ResourceNotFoundException("Utilisateur", "email", userEmail));
     
-    return notificationRepository.countByUserAndLuFalse(user);
+    EventStream.Subscription subscription = notificationStream.subscribe(user.getId(), lastEventId);
+    if (!subscription.isReplayed()) {
+        notificationStream.sendUnreadCount(subscription, unreadCounterService.getUnreadNotifications(user.getId()));
+    }
+    return subscription;
+}
+
+/**
+ * Compter les notifications non lues (compteur en mémoire, sans accès à la base)
+ */
+@Transactional(propagation = Propagation.SUPPORTS)
+public Integer getUnreadCount(Long userId) {
+    return unreadCounterService.getUnreadNotifications(userId);
 }
 
 /**
@@ -88,30 +122,35 @@ public NotificationDTO markAsRead(Long notificationId, String userEmail) {
         throw new UnauthorizedException("Cette notification ne vous appartient pas");
     }
     
+    boolean wasUnread = !Boolean.TRUE.equals(notification.getLu());
     notification.setLu(true);
     Notification updatedNotification = notificationRepository.save(notification);
+    if (wasUnread) {
+        unreadCounterService.notificationsChanged(user.getId(), -1);
+    }
+    notificationStream.publishUnreadCount(user.getId(), () -> unreadCounterService.getUnreadNotifications(user.getId()));
     
     return convertToDTO(updatedNotification);
 }
 
 /**
- * Marquer toutes les notifications comme lues
+ * Marquer toutes les notifications comme lues (une seule requête UPDATE) ; renvoie le nombre modifié
  */
-public void markAllAsRead(String userEmail) {
+public int markAllAsRead(String userEmail) {
     User user = userRepository.findByEmail(userEmail)
             .orElseThrow(() -> new ResourceNotFoundException("Utilisateur", "email", userEmail));
     
-    List<Notification> unreadNotifications = notificationRepository.findByUserAndLuFalse(user);
-    
-    unreadNotifications.forEach(notification -> notification.setLu(true));
+    int updated = notificationRepository.markAllAsReadByUserId(user.getId());
+    unreadCounterService.notificationsChanged(user.getId(), -updated);
+    notificationStream.publishUnreadCount(user.getId(), () -> unreadCounterService.getUnreadNotifications(user.getId()));
     
-    notificationRepository.saveAll(unreadNotifications);
+    return updated;
 }
 
 /**
  * Convertir Notification en NotificationDTO
  */
-private NotificationDTO convertToDTO(Notification notification) {
+NotificationDTO convertToDTO(Notification notification) {
     NotificationDTO dto = new NotificationDTO();
     dto.setId(notification.getId());
     dto.setType(notification.getType().name());
@@ -0,0 +1,111 @@
+package com.localexchange.service;
+
+import com.localexchange.dto.ReputationDTO;
+import com.localexchange.model.UserReputation;
+import com.localexchange.repository.ReviewRepository;
+import com.localexchange.repository.UserReputationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@Transactional
+public class ReputationService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReputationService.class);
+
+    @Autowired
+    private UserReputationRepository userReputationRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    /**
+     * Ajouter une note à l'agrégat du reviewee (dans la transaction de l'avis)
+     */
+    public void recordRating(Long userId, int notation) {
+        if (notation < 1 || notation > 5) {
+            throw new IllegalArgumentException("La notation doit être entre 1 et 5");
+        }
+        userReputationRepository.addRating(userId, notation);
+    }
+
+    /**
+     * Note moyenne d'un utilisateur, ou null s'il n'a reçu aucun avis
+     */
+    @Transactional(readOnly = true)
+    public Double getAverageRating(Long userId) {
+        return userReputationRepository.findById(userId)
+                .map(UserReputation::getAverageRating)
+                .orElse(null);
+    }
+
+    /**
+     * Notes moyennes de plusieurs utilisateurs en une seule requête
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, Double> getAverageRatings(Collection<Long> userIds) {
+        Map<Long, Double> ratings = new HashMap<>();
+        if (userIds.isEmpty()) {
+            return ratings;
+        }
+        for (UserReputation reputation : userReputationRepository.findByUserIdIn(userIds)) {
+            ratings.put(reputation.getUserId(), reputation.getAverageRating());
+        }
+        return ratings;
+    }
+
+    /**
+     * Réputation complète d'un utilisateur (moyenne, nombre d'avis, histogramme)
+     */
+    @Transactional(readOnly = true)
+    public ReputationDTO getReputation(Long userId) {
+        UserReputation reputation = userReputationRepository.findById(userId)
+                .orElseGet(() -> new UserReputation(userId));
+
+        Map<Integer, Integer> histogram = new LinkedHashMap<>();
+        histogram.put(1, reputation.getOneStarCount());
+        histogram.put(2, reputation.getTwoStarCount());
+        histogram.put(3, reputation.getThreeStarCount());
+        histogram.put(4, reputation.getFourStarCount());
+        histogram.put(5, reputation.getFiveStarCount());
+
+        Double average = reputation.getAverageRating();
+        return new ReputationDTO(userId, average != null ? average : 0.0, reputation.getReviewCount(), histogram);
+    }
+
+    /**
+     * Construire les agrégats à partir des avis existants (bases antérieures à la table user_reputations)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (userReputationRepository.count() > 0 || reviewRepository.count() == 0) {
+            return;
+        }
+
+        Map<Long, UserReputation> reputations = new HashMap<>();
+        List<Object[]> rows = reviewRepository.countNotationsByReviewee();
+        for (Object[] row : rows) {
+            Long userId = (Long) row[0];
+            int notation = (Integer) row[1];
+            long count = (Long) row[2];
+            UserReputation reputation = reputations.computeIfAbsent(userId, UserReputation::new);
+            for (long i = 0; i < count; i++) {
+                reputation.addRating(notation);
+            }
+        }
+
+        userReputationRepository.saveAll(reputations.values());
+        log.info("Agrégats de réputation initialisés pour {} utilisateurs", reputations.size());
+    }
+}
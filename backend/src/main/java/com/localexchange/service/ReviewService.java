@@ -1,5 +1,6 @@
 package com.localexchange.service;
 
+import com.localexchange.dto.ReputationDTO;
 import com.localexchange.dto.ReviewDTO;
 import com.localexchange.exception.ResourceNotFoundException;
 import com.localexchange.exception.UnauthorizedException;
@@ -31,6 +32,9 @@ public class ReviewService {
     @Autowired
     private NotificationService notificationService;
     
+    @Autowired
+    private ReputationService reputationService;
+    
     /**
      * Créer un avis
      */
@@ -77,6 +81,9 @@ public class ReviewService {
         
         try {
             Review savedReview = reviewRepository.save(review);
+            
+            // Mettre à jour l'agrégat de réputation dans la même transaction
+            reputationService.recordRating(reviewee.getId(), savedReview.getNotation());
 
             // Créer notification pour le reviewee
             String message = String.format("%s a laissé un avis sur votre profil", reviewer.getNom());
@@ -114,10 +121,17 @@ public class ReviewService {
      * Calculer la note moyenne d'un utilisateur
      */
     public Double getAverageRating(Long userId) {
-        Double average = reviewRepository.getAverageRatingByUserId(userId);
+        Double average = reputationService.getAverageRating(userId);
         return average != null ? average : 0.0;
     }
     
+    /**
+     * Récupérer la réputation complète d'un utilisateur
+     */
+    public ReputationDTO getReputation(Long userId) {
+        return reputationService.getReputation(userId);
+    }
+    
     /**
      * Convertir Review en ReviewDTO
      */
@@ -1,22 +1,32 @@
 package com.localexchange.service;
 
+import com.localexchange.dto.CursorPageDTO;
+import com.localexchange.dto.SkillCardDTO;
 import com.localexchange.dto.SkillDetailDTO;
 import com.localexchange.dto.SkillListingDTO;
+import com.localexchange.dto.ListingCursor;
 import com.localexchange.dto.UserDTO;
 import com.localexchange.exception.ResourceNotFoundException;
 import com.localexchange.exception.UnauthorizedException;
+import com.localexchange.geo.Gazetteer;
 import com.localexchange.model.SkillListing;
 import com.localexchange.model.User;
-import com.localexchange.repository.ReviewRepository;
 import com.localexchange.repository.SkillListingRepository;
 import com.localexchange.repository.UserRepository;
+import com.localexchange.search.GeoGridIndex;
+import com.localexchange.search.ListingSearchService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,7 +40,13 @@ public class SkillListingService {
     private UserRepository userRepository;
     
     @Autowired
-    private ReviewRepository reviewRepository;
+    private ReputationService reputationService;
+    
+    @Autowired
+    private ListingSearchService listingSearchService;
+    
+    @Autowired
+    private Gazetteer gazetteer;
     
     /**
      * Créer une nouvelle annonce de compétence
@@ -46,28 +62,132 @@ public class SkillListingService {
         skill.setCommentaireEchange(dto.getCommentaireEchange());
         skill.setActif(true);
         skill.setOwner(owner);
+        skill.setLatitude(owner.getLatitude());
+        skill.setLongitude(owner.getLongitude());
                 if (dto.getImages() != null && !dto.getImages().isEmpty()) {
                     skill.setImages(dto.getImages());
                 }
         
         SkillListing savedSkill = skillListingRepository.save(skill);
+        listingSearchService.indexSkill(savedSkill);
+        
+        return convertToDTO(savedSkill, reputationService.getAverageRating(owner.getId()));
+    }
+    
+    /**
+     * Récupérer toutes les compétences avec recherche (cartes légères, propriétaire joint en une requête)
+     */
+    @Transactional(readOnly = true)
+    public Page<SkillCardDTO> getAllSkills(String search, Pageable pageable) {
+        // Recherche plein texte servie par l'index en mémoire (SQL LIKE en repli tant qu'il n'est pas prêt)
+        if (search != null && !search.isEmpty() && listingSearchService.isReady()) {
+            return toSearchResultPage(listingSearchService.searchSkills(search), pageable);
+        }
         
-        return convertToDTO(savedSkill);
+        if (search != null && !search.isEmpty()) {
+            return skillListingRepository.findCardsByTitre(search, pageable);
+        } else {
+            return skillListingRepository.findCards(pageable);
+        }
     }
     
     /**
-     * Récupérer toutes les compétences avec recherche
+     * Récupérer les compétences en mode curseur : défilement par (createdAt, id) sans OFFSET ni comptage
      */
-    public Page<SkillListingDTO> getAllSkills(String search, Pageable pageable) {
-        Page<SkillListing> skills;
+    @Transactional(readOnly = true)
+    public CursorPageDTO<SkillCardDTO> getSkillsByCursor(String search, String cursor, int requestedSize) {
+        int size = ListingCursor.pageSize(requestedSize);
+        // Résultats de recherche déjà classés en mémoire : le curseur est un simple décalage
+        if (search != null && !search.isEmpty() && listingSearchService.isReady()) {
+            List<Long> rankedIds = listingSearchService.searchSkills(search);
+            int from = Math.min(ListingCursor.decodeOffset(cursor).getOffset(), rankedIds.size());
+            int to = Math.min(from + size, rankedIds.size());
+            boolean hasNext = to < rankedIds.size();
+            return new CursorPageDTO<>(loadRankedCards(rankedIds.subList(from, to)),
+                    hasNext ? ListingCursor.atOffset(to).encode() : null, hasNext);
+        }
+        
+        ListingCursor position = ListingCursor.decodeKeyset(cursor);
+        // Une ligne de plus que demandé pour savoir s'il existe une page suivante, sans COUNT
+        Pageable limit = PageRequest.of(0, size + 1);
         
+        List<SkillCardDTO> rows;
         if (search != null && !search.isEmpty()) {
-            skills = skillListingRepository.findByTitreContainingIgnoreCase(search, pageable);
+            rows = skillListingRepository.findCardsByTitreAfter(search, position.getCreatedAt(), position.getId(), limit);
         } else {
-            skills = skillListingRepository.findAll(pageable);
+            rows = skillListingRepository.findCardsAfter(position.getCreatedAt(), position.getId(), limit);
+        }
+        
+        boolean hasNext = rows.size() > size;
+        List<SkillCardDTO> content = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            SkillCardDTO last = content.get(content.size() - 1);
+            nextCursor = ListingCursor.after(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CursorPageDTO<>(content, nextCursor, hasNext);
+    }
+    
+    /**
+     * Récupérer les compétences proches d'une localisation (commune, code postal ou « latitude,longitude »), les plus proches d'abord
+     */
+    @Transactional(readOnly = true)
+    public Page<SkillCardDTO> getSkillsNear(String near, double radiusKm, String search, Pageable pageable) {
+        List<GeoGridIndex.GeoHit> hits = listingSearchService.nearSkills(gazetteer.require(near), radiusKm, search);
+        int from = (int) Math.min(pageable.getOffset(), hits.size());
+        int to = Math.min(from + pageable.getPageSize(), hits.size());
+        return new PageImpl<>(loadNearCards(hits.subList(from, to)), pageable, hits.size());
+    }
+    
+    /**
+     * Même recherche en mode curseur : résultats déjà classés en mémoire, le curseur est un simple décalage
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<SkillCardDTO> getSkillsNearByCursor(String near, double radiusKm, String search, String cursor,
+                                                             int requestedSize) {
+        int size = ListingCursor.pageSize(requestedSize);
+        List<GeoGridIndex.GeoHit> hits = listingSearchService.nearSkills(gazetteer.require(near), radiusKm, search);
+        int from = Math.min(ListingCursor.decodeOffset(cursor).getOffset(), hits.size());
+        int to = Math.min(from + size, hits.size());
+        boolean hasNext = to < hits.size();
+        return new CursorPageDTO<>(loadNearCards(hits.subList(from, to)),
+                hasNext ? ListingCursor.atOffset(to).encode() : null, hasNext);
+    }
+    
+    /**
+     * Charger les cartes d'une page de résultats classés par pertinence
+     */
+    private Page<SkillCardDTO> toSearchResultPage(List<Long> rankedIds, Pageable pageable) {
+        int from = (int) Math.min(pageable.getOffset(), rankedIds.size());
+        int to = Math.min(from + pageable.getPageSize(), rankedIds.size());
+        return new PageImpl<>(loadRankedCards(rankedIds.subList(from, to)), pageable, rankedIds.size());
+    }
+    
+    /**
+     * Charger les cartes des résultats géographiques, avec leur distance arrondie à 100 m
+     */
+    private List<SkillCardDTO> loadNearCards(List<GeoGridIndex.GeoHit> hits) {
+        Map<Long, Double> distances = hits.stream()
+                .collect(Collectors.toMap(GeoGridIndex.GeoHit::id, GeoGridIndex.GeoHit::distanceKm));
+        List<SkillCardDTO> cards = loadRankedCards(hits.stream().map(GeoGridIndex.GeoHit::id).toList());
+        cards.forEach(card -> card.setDistanceKm(Math.round(distances.get(card.getId()) * 10) / 10.0));
+        return cards;
+    }
+    
+    /**
+     * Charger les cartes d'identifiants donnés en conservant leur ordre
+     */
+    private List<SkillCardDTO> loadRankedCards(List<Long> pageIds) {
+        if (pageIds.isEmpty()) {
+            return List.of();
         }
         
-        return skills.map(this::convertToDTO);
+        Map<Long, SkillCardDTO> cards = skillListingRepository.findCardsByIdIn(pageIds).stream()
+                .collect(Collectors.toMap(SkillCardDTO::getId, Function.identity()));
+        return pageIds.stream()
+                .map(cards::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
     
     /**
@@ -102,8 +222,9 @@ public class SkillListingService {
                 }
         
         SkillListing updatedSkill = skillListingRepository.save(skill);
+        listingSearchService.indexSkill(updatedSkill);
         
-        return convertToDTO(updatedSkill);
+        return convertToDTO(updatedSkill, reputationService.getAverageRating(updatedSkill.getOwner().getId()));
     }
     
     /**
@@ -119,6 +240,7 @@ public class SkillListingService {
         }
         
         skillListingRepository.delete(skill);
+        listingSearchService.removeSkill(id);
     }
     
     /**
@@ -129,16 +251,17 @@ public class SkillListingService {
                 .orElseThrow(() -> new ResourceNotFoundException("Utilisateur", "email", ownerEmail));
         
         List<SkillListing> skills = skillListingRepository.findByOwnerOrderByCreatedAtDesc(owner);
+        Double ownerRating = reputationService.getAverageRating(owner.getId());
         
         return skills.stream()
-                .map(this::convertToDTO)
+                .map(skill -> convertToDTO(skill, ownerRating))
                 .collect(Collectors.toList());
     }
     
     /**
      * Convertir SkillListing en SkillListingDTO
      */
-    private SkillListingDTO convertToDTO(SkillListing skill) {
+    SkillListingDTO convertToDTO(SkillListing skill, Double ownerRating) {
         SkillListingDTO dto = new SkillListingDTO();
         dto.setId(skill.getId());
         dto.setTitre(skill.getTitre());
@@ -151,7 +274,7 @@ public class SkillListingService {
         dto.setOwnerNom(skill.getOwner().getNom());
         dto.setOwnerPhoto(skill.getOwner().getPhoto());
         dto.setOwnerLocalisation(skill.getOwner().getLocalisation());
-        dto.setOwnerRating(reviewRepository.getAverageRatingByUserId(skill.getOwner().getId()));
+        dto.setOwnerRating(ownerRating);
         dto.setCreatedAt(skill.getCreatedAt());
         dto.setUpdatedAt(skill.getUpdatedAt());
         
@@ -162,6 +285,8 @@ public class SkillListingService {
      * Convertir SkillListing en SkillDetailDTO
      */
     private SkillDetailDTO convertToDetailDTO(SkillListing skill) {
+        Double ownerRating = reputationService.getAverageRating(skill.getOwner().getId());
+        
         SkillDetailDTO dto = new SkillDetailDTO();
             dto.setImages(skill.getImages());
         dto.setId(skill.getId());
@@ -174,7 +299,7 @@ public class SkillListingService {
         dto.setOwnerNom(skill.getOwner().getNom());
         dto.setOwnerPhoto(skill.getOwner().getPhoto());
         dto.setOwnerLocalisation(skill.getOwner().getLocalisation());
-        dto.setOwnerRating(reviewRepository.getAverageRatingByUserId(skill.getOwner().getId()));
+        dto.setOwnerRating(ownerRating);
         dto.setCreatedAt(skill.getCreatedAt());
         dto.setUpdatedAt(skill.getUpdatedAt());
         
@@ -186,7 +311,7 @@ public class SkillListingService {
         ownerDTO.setLocalisation(skill.getOwner().getLocalisation());
         ownerDTO.setPhoto(skill.getOwner().getPhoto());
         ownerDTO.setBio(skill.getOwner().getBio());
-        ownerDTO.setAverageRating(reviewRepository.getAverageRatingByUserId(skill.getOwner().getId()));
+        ownerDTO.setAverageRating(ownerRating);
         
         dto.setOwner(ownerDTO);
         
@@ -0,0 +1,17 @@
+package com.localexchange.service;
+
+import java.nio.file.Path;
+
+/**
+ * Fichier téléversé prêt à être servi : type, taille et validateurs calculés une fois, pas à chaque requête.
+ * immutable indique que le contenu servi sous cette URL ne changera plus (nom unique), donc cachable indéfiniment.
+ */
+public record StoredFile(Path path, String contentType, long length, long lastModified, String etag, boolean immutable) {
+
+    /**
+     * Même fichier servi à la place d'un autre contenu attendu (déclinaison pas encore prête) : à ne pas figer en cache
+     */
+    public StoredFile asFallback() {
+        return new StoredFile(path, contentType, length, lastModified, etag, false);
+    }
+}
@@ -0,0 +1,180 @@
+package com.localexchange.service;
+
+import com.localexchange.repository.MessageRepository;
+import com.localexchange.repository.NotificationRepository;
+import com.localexchange.util.AfterCommit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Compteurs en mémoire des notifications et messages non lus, par utilisateur.
+ * Chaque compteur est initialisé depuis la base au premier accès, puis tenu à jour après commit
+ * par les chemins d'écriture ; une réconciliation périodique corrige les écarts éventuels.
+ * Lire un badge ne coûte alors qu'un accès mémoire.
+ */
+@Service
+public class UnreadCounterService {
+
+    private static final Logger log = LoggerFactory.getLogger(UnreadCounterService.class);
+
+    private static final int RECONCILE_BATCH_SIZE = 500;
+
+    private final CounterStore notifications;
+    private final CounterStore messages;
+
+    private final long idleEvictionMs;
+
+    public UnreadCounterService(NotificationRepository notificationRepository,
+                                MessageRepository messageRepository,
+                                @Value("${app.unread-counters.idle-eviction:3600000}") long idleEvictionMs) {
+        this.notifications = new CounterStore("notifications",
+                notificationRepository::countUnreadByUserId, notificationRepository::countUnreadByUserIds);
+        this.messages = new CounterStore("messages",
+                messageRepository::countUnreadByUserId, messageRepository::countUnreadByUserIds);
+        this.idleEvictionMs = idleEvictionMs;
+    }
+
+    /**
+     * Nombre de notifications non lues
+     */
+    public int getUnreadNotifications(Long userId) {
+        return notifications.get(userId);
+    }
+
+    /**
+     * Nombre de messages non lus
+     */
+    public int getUnreadMessages(Long userId) {
+        return messages.get(userId);
+    }
+
+    /**
+     * Appliquer une variation du nombre de notifications non lues, après commit
+     */
+    public void notificationsChanged(Long userId, long delta) {
+        if (delta != 0) {
+            AfterCommit.run(() -> notifications.add(userId, delta));
+        }
+    }
+
+    /**
+     * Appliquer une variation du nombre de messages non lus, après commit
+     */
+    public void messagesChanged(Long userId, long delta) {
+        if (delta != 0) {
+            AfterCommit.run(() -> messages.add(userId, delta));
+        }
+    }
+
+    /**
+     * Recaler les compteurs en mémoire sur la base et oublier les utilisateurs inactifs
+     */
+    @Scheduled(fixedDelayString = "${app.unread-counters.reconcile-interval:300000}",
+               initialDelayString = "${app.unread-counters.reconcile-interval:300000}")
+    public void reconcile() {
+        int corrected = notifications.reconcile(idleEvictionMs) + messages.reconcile(idleEvictionMs);
+        if (corrected > 0) {
+            log.info("Compteurs de non-lus : {} écarts corrigés", corrected);
+        }
+    }
+
+    /**
+     * Compteurs d'un type de contenu
+     */
+    private static class CounterStore {
+
+        private final String name;
+        private final Function<Long, Long> loader;
+        private final Function<Collection<Long>, List<Object[]>> batchLoader;
+        private final Map<Long, Counter> counters = new ConcurrentHashMap<>();
+
+        CounterStore(String name, Function<Long, Long> loader, Function<Collection<Long>, List<Object[]>> batchLoader) {
+            this.name = name;
+            this.loader = loader;
+            this.batchLoader = batchLoader;
+        }
+
+        int get(Long userId) {
+            Counter counter = counters.get(userId);
+            if (counter == null) {
+                // Initialisation hors verrou : en cas de course, la première valeur installée l'emporte
+                Counter seeded = new Counter(loader.apply(userId));
+                counter = counters.putIfAbsent(userId, seeded);
+                if (counter == null) {
+                    counter = seeded;
+                }
+            }
+            counter.lastReadAt = System.currentTimeMillis();
+            return (int) Math.max(0, counter.value.sum());
+        }
+
+        /**
+         * Variation ignorée tant que le compteur n'est pas initialisé : la base fait foi au premier accès
+         */
+        void add(Long userId, long delta) {
+            Counter counter = counters.get(userId);
+            if (counter != null) {
+                counter.value.add(delta);
+            }
+        }
+
+        int reconcile(long idleEvictionMs) {
+            long now = System.currentTimeMillis();
+            counters.entrySet().removeIf(entry -> now - entry.getValue().lastReadAt > idleEvictionMs);
+
+            int corrected = 0;
+            List<Long> userIds = new ArrayList<>(counters.keySet());
+            for (int from = 0; from < userIds.size(); from += RECONCILE_BATCH_SIZE) {
+                List<Long> batch = userIds.subList(from, Math.min(from + RECONCILE_BATCH_SIZE, userIds.size()));
+
+                Map<Long, Long> before = new HashMap<>();
+                batch.forEach(id -> {
+                    Counter counter = counters.get(id);
+                    if (counter != null) {
+                        before.put(id, counter.value.sum());
+                    }
+                });
+
+                Map<Long, Long> actual = new HashMap<>();
+                for (Object[] row : batchLoader.apply(batch)) {
+                    actual.put((Long) row[0], ((Number) row[1]).longValue());
+                }
+
+                for (Map.Entry<Long, Long> entry : before.entrySet()) {
+                    Counter counter = counters.get(entry.getKey());
+                    long expected = actual.getOrDefault(entry.getKey(), 0L);
+                    // Compteur modifié pendant la requête : on le recalera au prochain passage
+                    if (counter == null || counter.value.sum() != entry.getValue() || expected == entry.getValue()) {
+                        continue;
+                    }
+                    counter.value.add(expected - entry.getValue());
+                    corrected++;
+                    log.debug("Compteur {} de l'utilisateur {} recalé de {} à {}", name, entry.getKey(), entry.getValue(), expected);
+                }
+            }
+            return corrected;
+        }
+    }
+
+    private static class Counter {
+
+        private final LongAdder value = new LongAdder();
+        private volatile long lastReadAt = System.currentTimeMillis();
+
+        Counter(long initial) {
+            value.add(initial);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.localexchange.web;
+
+import com.localexchange.service.StoredFile;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Envoi d'un fichier téléversé : validateurs (ETag, Last-Modified), réponses 304, requêtes Range
+ * et cache long pour les noms immuables.
+ * Le corps part par sendfile quand le connecteur Tomcat le permet (le noyau copie le fichier vers la socket),
+ * sinon par FileChannel.transferTo, sans passer par un tampon applicatif.
+ */
+@Component
+public class StaticFileResponder {
+
+    static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    private static final String REVALIDATE = "public, max-age=60, must-revalidate";
+
+    private final long sendfileMinSize;
+
+    public StaticFileResponder(@Value("${app.uploads.sendfile-min-size:49152}") long sendfileMinSize) {
+        this.sendfileMinSize = sendfileMinSize;
+    }
+
+    public void serve(StoredFile file, String downloadName, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        response.setHeader(HttpHeaders.ETAG, file.etag());
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, file.lastModified());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, file.immutable() ? IMMUTABLE : REVALIDATE);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (notModified(file, request)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long start = 0;
+        long end = file.length() - 1;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && ifRangeMatches(file, request)) {
+            ByteRange range = ByteRange.parse(rangeHeader, file.length());
+            if (range == ByteRange.UNSATISFIABLE) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + file.length());
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (range != null) {
+                start = range.start();
+                end = range.end();
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + file.length());
+            }
+        }
+
+        long length = end - start + 1;
+        response.setContentType(file.contentType());
+        response.setContentLengthLong(length);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "inline; filename=\"" + URLEncoder.encode(downloadName, StandardCharsets.UTF_8) + "\"");
+
+        if ("HEAD".equals(request.getMethod()) || length == 0) {
+            return;
+        }
+        if (length >= sendfileMinSize && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat envoie le fichier lui-même après le retour du contrôleur
+            request.setAttribute(SENDFILE_FILENAME, file.path().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file.path(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    /**
+     * If-None-Match prime sur If-Modified-Since (RFC 9110)
+     */
+    private static boolean notModified(StoredFile file, HttpServletRequest request) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            return etagListMatches(ifNoneMatch, file.etag());
+        }
+        long ifModifiedSince = dateHeader(request, HttpHeaders.IF_MODIFIED_SINCE);
+        return ifModifiedSince >= 0 && file.lastModified() / 1000 <= ifModifiedSince / 1000;
+    }
+
+    /**
+     * If-Range : la plage n'est honorée que si le client possède encore la même version du fichier
+     */
+    private static boolean ifRangeMatches(StoredFile file, HttpServletRequest request) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.trim().equals(file.etag());
+        }
+        long date = dateHeader(request, HttpHeaders.IF_RANGE);
+        return date >= 0 && file.lastModified() / 1000 == date / 1000;
+    }
+
+    private static boolean etagListMatches(String header, String etag) {
+        for (String candidate : header.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || value.equals(etag) || value.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long dateHeader(HttpServletRequest request, String name) {
+        try {
+            return request.getDateHeader(name);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Plage d'octets inclusive d'un en-tête Range à une seule plage
+     */
+    record ByteRange(long start, long end) {
+
+        static final ByteRange UNSATISFIABLE = new ByteRange(-1, -1);
+
+        /**
+         * Plage demandée, UNSATISFIABLE si hors du fichier, null pour servir le fichier entier
+         * (en-tête invalide ou plages multiples, que le serveur a le droit d'ignorer)
+         */
+        static ByteRange parse(String header, long length) {
+            if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+                return null;
+            }
+            String spec = header.substring("bytes=".length()).trim();
+            int dash = spec.indexOf('-');
+            if (dash < 0) {
+                return null;
+            }
+            try {
+                String first = spec.substring(0, dash).trim();
+                String last = spec.substring(dash + 1).trim();
+                if (first.isEmpty()) {
+                    // bytes=-n : les n derniers octets
+                    long suffix = Long.parseLong(last);
+                    if (suffix <= 0 || length == 0) {
+                        return UNSATISFIABLE;
+                    }
+                    return new ByteRange(Math.max(0, length - suffix), length - 1);
+                }
+                long start = Long.parseLong(first);
+                long end = last.isEmpty() ? length - 1 : Math.min(Long.parseLong(last), length - 1);
+                if (start < 0 || start >= length) {
+                    return UNSATISFIABLE;
+                }
+                return start <= end ? new ByteRange(start, end) : null;
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
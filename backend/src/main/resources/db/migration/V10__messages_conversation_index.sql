@@ -0,0 +1,4 @@
+-- Conversation paginée par identifiant (derniers messages, avant / après un message) : lecture d'une plage d'index bornée.
+-- Remplace l'index par date, qui ne servait qu'à l'ancienne lecture intégrale de la conversation.
+create index idx_messages_exchange_id on messages (exchange_request_id, id);
+drop index idx_messages_exchange_created on messages;
@@ -0,0 +1,15 @@
+-- Rang de chaque message dans sa conversation, attribué dans l'ordre de validation (MessageService.sendMessage) :
+-- curseur de pagination et de rattrapage. Les identifiants, tirés par blocs propres à chaque instance, ne suivent pas cet ordre.
+alter table messages add column numero bigint;
+
+-- Messages existants : ordre de création
+update messages m
+    join (select id, row_number() over (partition by exchange_request_id order by created_at, id) as rang
+          from messages) r on r.id = m.id
+set m.numero = r.rang;
+
+alter table messages modify numero bigint not null;
+create unique index uk_messages_exchange_numero on messages (exchange_request_id, numero);
+
+-- Remplacé par l'index unique pour la pagination de la conversation
+drop index idx_messages_exchange_id on messages;
@@ -0,0 +1,112 @@
+-- Schéma de référence : tables telles que les créait ddl-auto: update avant Flyway (MySQL 8, InnoDB),
+-- identifiants AUTO_INCREMENT et aucun index hormis clés primaires, contraintes d'unicité et clés étrangères.
+-- Une base existante est marquée à cette version sans rejouer le script (spring.flyway.baseline-on-migrate) :
+-- toute évolution du schéma va dans une version suivante.
+
+create table users (
+    id bigint not null auto_increment,
+    email varchar(255) not null,
+    password varchar(255) not null,
+    nom varchar(255) not null,
+    localisation varchar(255) not null,
+    photo varchar(500),
+    bio varchar(500),
+    phone_number varchar(255),
+    phone_verified bit not null,
+    created_at datetime(6),
+    updated_at datetime(6),
+    primary key (id),
+    constraint uk_users_email unique (email)
+) engine=InnoDB;
+
+create table item_listings (
+    id bigint not null auto_increment,
+    titre varchar(255) not null,
+    description varchar(1000) not null,
+    categorie varchar(255) not null,
+    images varchar(2000),
+    disponibilite bit not null,
+    commentaire_echange varchar(500),
+    created_at datetime(6),
+    updated_at datetime(6),
+    owner_id bigint not null,
+    primary key (id),
+    constraint fk_item_listings_owner foreign key (owner_id) references users (id)
+) engine=InnoDB;
+
+create table skill_listings (
+    id bigint not null auto_increment,
+    titre varchar(255) not null,
+    description varchar(1000) not null,
+    disponibilites varchar(255) not null,
+    commentaire_echange varchar(500),
+    images varchar(2000),
+    actif bit not null,
+    created_at datetime(6),
+    updated_at datetime(6),
+    owner_id bigint not null,
+    primary key (id),
+    constraint fk_skill_listings_owner foreign key (owner_id) references users (id)
+) engine=InnoDB;
+
+create table exchange_requests (
+    id bigint not null auto_increment,
+    offre_en_retour varchar(500) not null,
+    date_echange date not null,
+    statut enum ('PENDING','ACCEPTED','REFUSED','COMPLETED','CANCELLED') not null,
+    message_initial varchar(1000),
+    created_at datetime(6),
+    updated_at datetime(6),
+    beneficiaire_id bigint not null,
+    donateur_id bigint not null,
+    item_listing_id bigint,
+    skill_listing_id bigint,
+    primary key (id),
+    constraint fk_exchange_requests_beneficiaire foreign key (beneficiaire_id) references users (id),
+    constraint fk_exchange_requests_donateur foreign key (donateur_id) references users (id),
+    constraint fk_exchange_requests_item foreign key (item_listing_id) references item_listings (id),
+    constraint fk_exchange_requests_skill foreign key (skill_listing_id) references skill_listings (id)
+) engine=InnoDB;
+
+create table messages (
+    id bigint not null auto_increment,
+    contenu varchar(2000) not null,
+    lu bit not null,
+    created_at datetime(6),
+    expediteur_id bigint not null,
+    destinataire_id bigint not null,
+    exchange_request_id bigint not null,
+    primary key (id),
+    constraint fk_messages_expediteur foreign key (expediteur_id) references users (id),
+    constraint fk_messages_destinataire foreign key (destinataire_id) references users (id),
+    constraint fk_messages_exchange foreign key (exchange_request_id) references exchange_requests (id)
+) engine=InnoDB;
+
+create table notifications (
+    id bigint not null auto_increment,
+    type enum ('NEW_REQUEST','REQUEST_ACCEPTED','REQUEST_REFUSED','NEW_MESSAGE','REVIEW_RECEIVED') not null,
+    message varchar(500) not null,
+    lu bit not null,
+    created_at datetime(6),
+    user_id bigint not null,
+    exchange_id bigint,
+    item_listing_id bigint,
+    skill_listing_id bigint,
+    primary key (id),
+    constraint fk_notifications_user foreign key (user_id) references users (id)
+) engine=InnoDB;
+
+create table reviews (
+    id bigint not null auto_increment,
+    notation integer not null,
+    commentaire varchar(1000),
+    created_at datetime(6),
+    reviewer_id bigint not null,
+    reviewee_id bigint not null,
+    exchange_request_id bigint not null,
+    primary key (id),
+    constraint uk_reviews_exchange_reviewer unique (exchange_request_id, reviewer_id),
+    constraint fk_reviews_reviewer foreign key (reviewer_id) references users (id),
+    constraint fk_reviews_reviewee foreign key (reviewee_id) references users (id),
+    constraint fk_reviews_exchange foreign key (exchange_request_id) references exchange_requests (id)
+) engine=InnoDB;
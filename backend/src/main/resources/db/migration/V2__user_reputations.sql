@@ -0,0 +1,13 @@
+-- Réputation agrégée par utilisateur (nombre d'avis, somme et répartition des notes), lue par les convertisseurs d'annonces.
+-- Remplie au démarrage depuis reviews (ReputationService) puis tenue à jour à chaque avis.
+create table user_reputations (
+    user_id bigint not null,
+    review_count integer not null,
+    rating_sum bigint not null,
+    one_star_count integer not null,
+    two_star_count integer not null,
+    three_star_count integer not null,
+    four_star_count integer not null,
+    five_star_count integer not null,
+    primary key (user_id)
+) engine=InnoDB;
@@ -0,0 +1,4 @@
+-- Pagination par curseur des flux d'annonces : (created_at, id) décroissant, avec ou sans filtre de catégorie
+create index idx_item_listings_created on item_listings (created_at, id);
+create index idx_item_listings_categorie_created on item_listings (categorie, created_at, id);
+create index idx_skill_listings_created on skill_listings (created_at, id);
@@ -0,0 +1,20 @@
+-- Outbox des notifications : écrite dans la transaction métier, distribuée en arrière-plan (NotificationDispatcher)
+create table outbox_events (
+    id bigint not null auto_increment,
+    user_id bigint not null,
+    type enum ('NEW_REQUEST','REQUEST_ACCEPTED','REQUEST_REFUSED','NEW_MESSAGE','REVIEW_RECEIVED') not null,
+    message varchar(500) not null,
+    exchange_id bigint,
+    item_listing_id bigint,
+    skill_listing_id bigint,
+    status enum ('PENDING','FAILED') not null,
+    attempts integer not null,
+    next_attempt_at datetime(6) not null,
+    last_error varchar(500),
+    created_at datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+-- Événements dus, dans l'ordre ; plus ancien événement en attente par utilisateur
+create index idx_outbox_status_next_attempt on outbox_events (status, next_attempt_at, id);
+create index idx_outbox_user_status on outbox_events (user_id, status, id);
@@ -0,0 +1,4 @@
+-- Marquage « lu » ensembliste et compteurs de non-lus
+create index idx_messages_exchange_destinataire_lu on messages (exchange_request_id, destinataire_id, lu);
+create index idx_messages_destinataire_lu on messages (destinataire_id, lu);
+create index idx_notifications_user_lu on notifications (user_id, lu);
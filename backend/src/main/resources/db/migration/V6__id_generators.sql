@@ -0,0 +1,8 @@
+-- Identifiants tirés par blocs (TableGenerator, pooled-lo) pour regrouper les INSERT.
+-- Les colonnes AUTO_INCREMENT restent : les identifiants sont désormais fournis explicitement.
+-- Les compteurs sont créés et portés au-delà du plus grand identifiant existant au démarrage (IdGeneratorAlignment).
+create table id_generators (
+    sequence_name varchar(255) not null,
+    next_val bigint,
+    primary key (sequence_name)
+) engine=InnoDB;
@@ -0,0 +1,7 @@
+-- Coordonnées de la commune (Gazetteer) pour la recherche à proximité, nulles tant que la localisation n'est pas reconnue
+alter table users add column latitude float(53);
+alter table users add column longitude float(53);
+alter table item_listings add column latitude float(53);
+alter table item_listings add column longitude float(53);
+alter table skill_listings add column latitude float(53);
+alter table skill_listings add column longitude float(53);
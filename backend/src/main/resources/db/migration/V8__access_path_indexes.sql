@@ -0,0 +1,23 @@
+-- Un index composite par chemin d'accès des repositories : colonnes filtrées d'abord, puis colonne de tri,
+-- pour que MySQL lise les lignes dans l'ordre demandé (ni parcours complet ni filesort).
+
+-- ExchangeRequestRepository : listes envoyées / reçues (les filtres par statut réutilisent le même préfixe)
+create index idx_exchange_requests_donateur_created on exchange_requests (donateur_id, created_at);
+create index idx_exchange_requests_beneficiaire_created on exchange_requests (beneficiaire_id, created_at);
+
+-- ItemListingRepository : annonces d'un propriétaire, objets disponibles par catégorie (facettes)
+create index idx_item_listings_owner_created on item_listings (owner_id, created_at);
+create index idx_item_listings_disponibilite_categorie on item_listings (disponibilite, categorie);
+
+-- SkillListingRepository : annonces d'un propriétaire
+create index idx_skill_listings_owner_created on skill_listings (owner_id, created_at);
+
+-- MessageRepository : conversation dans l'ordre chronologique
+create index idx_messages_exchange_created on messages (exchange_request_id, created_at);
+
+-- NotificationRepository : liste d'un utilisateur, plus récentes d'abord
+create index idx_notifications_user_created on notifications (user_id, created_at);
+
+-- ReviewRepository : avis reçus, moyenne et répartition des notes
+create index idx_reviews_reviewee_created on reviews (reviewee_id, created_at);
+create index idx_reviews_reviewee_notation on reviews (reviewee_id, notation);
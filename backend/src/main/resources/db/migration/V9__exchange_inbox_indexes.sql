@@ -0,0 +1,3 @@
+-- Boîtes de réception paginées par statut : page triée et compteurs groupés par statut lus dans le même index
+create index idx_exchange_requests_donateur_statut_created on exchange_requests (donateur_id, statut, created_at);
+create index idx_exchange_requests_beneficiaire_statut_created on exchange_requests (beneficiaire_id, statut, created_at);
@@ -0,0 +1,120 @@
+package com.localexchange.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class BulkheadDataSourceTest {
+
+	private BulkheadDataSource bulkhead;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		DataSource target = mock(DataSource.class);
+		when(target.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+		bulkhead = new BulkheadDataSource(target, 2, 50);
+	}
+
+	@Test
+	public void permitIsReleasedOnceOnClose() throws Exception {
+		Connection connection = bulkhead.getConnection();
+		assertEquals(1, bulkhead.availablePermits());
+
+		connection.close();
+		connection.close();
+		assertEquals(2, bulkhead.availablePermits(), "Une double fermeture ne doit rendre qu'un permis");
+	}
+
+	@Test
+	public void saturatedBulkheadFailsFast() throws Exception {
+
+		//Au-delà du nombre de threads autorisés, l'attente est bornée
+
+		Connection first = bulkhead.getConnection();
+		openOnAnotherThread();
+
+		ExecutionException e = assertThrows(ExecutionException.class, () -> openOnAnotherThread());
+		assertInstanceOf(SQLTransientConnectionException.class, e.getCause());
+
+		first.close();
+		assertNotNull(bulkhead.getConnection());
+	}
+
+	@Test
+	public void nestedConnectionOnSameThreadTakesNoPermit() throws Exception {
+
+		//Allocation d'identifiants dans une transaction séparée : le thread tient déjà un permis
+
+		Connection outer = bulkhead.getConnection();
+		Connection nested = bulkhead.getConnection();
+		assertEquals(1, bulkhead.availablePermits());
+
+		nested.close();
+		assertEquals(1, bulkhead.availablePermits());
+		outer.close();
+		assertEquals(2, bulkhead.availablePermits());
+	}
+
+	@Test
+	public void reservedConnectionServesNestedAllocations() throws Exception {
+
+		//Pool de 3 connexions, cloison à 2 : des transactions concurrentes ouvrant chacune une seconde connexion
+		//n'épuisent jamais le pool, il en reste une pour l'allocation d'identifiants
+
+		Semaphore pool = new Semaphore(3);
+		DataSource target = mock(DataSource.class);
+		when(target.getConnection()).thenAnswer(invocation -> {
+			if (!pool.tryAcquire(200, TimeUnit.MILLISECONDS)) {
+				throw new SQLTransientConnectionException("Pool épuisé");
+			}
+			Connection connection = mock(Connection.class);
+			doAnswer(close -> {
+				pool.release();
+				return null;
+			}).when(connection).close();
+			return connection;
+		});
+		BulkheadDataSource reserved = new BulkheadDataSource(target, 2, 5000);
+
+		CountDownLatch allHoldingOuter = new CountDownLatch(2);
+		List<FutureTask<Void>> transactions = new ArrayList<>();
+		for (int i = 0; i < 6; i++) {
+			FutureTask<Void> transaction = new FutureTask<>(() -> {
+				try (Connection outer = reserved.getConnection()) {
+					allHoldingOuter.countDown();
+					allHoldingOuter.await();
+					try (Connection nested = reserved.getConnection()) {
+						assertNotNull(nested);
+					}
+				}
+				return null;
+			});
+			transactions.add(transaction);
+			Thread.ofPlatform().start(transaction);
+		}
+		for (FutureTask<Void> transaction : transactions) {
+			transaction.get(10, TimeUnit.SECONDS);
+		}
+		assertEquals(3, pool.availablePermits());
+	}
+
+	private Connection openOnAnotherThread() throws Exception {
+		FutureTask<Connection> task = new FutureTask<>(bulkhead::getConnection);
+		Thread.ofVirtual().start(task);
+		return task.get();
+	}
+}
@@ -0,0 +1,57 @@
+package com.localexchange.geo;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.localexchange.exception.UnknownLocationException;
+
+public class GazetteerTest {
+
+	private static final Gazetteer gazetteer = new Gazetteer();
+
+	@BeforeAll
+	public static void load() {
+		gazetteer.load();
+	}
+
+	@Test
+	public void freeTextLocalisationsAreRecognised() {
+		GeoPoint pau = gazetteer.locate("Pau").orElseThrow();
+
+		assertEquals(pau, gazetteer.locate("  PAU ").orElseThrow());
+		assertEquals(pau, gazetteer.locate("Pau, France").orElseThrow());
+		assertEquals(pau, gazetteer.locate("64000").orElseThrow());
+		assertEquals(gazetteer.locate("Saint-Jean-de-Luz").orElseThrow(), gazetteer.locate("st jean de luz").orElseThrow());
+		assertEquals(gazetteer.locate("Mérignac").orElseThrow(), gazetteer.locate("merignac (33)").orElseThrow());
+	}
+
+	@Test
+	public void sharedPostalCodeIsResolvedByName() {
+
+		//Billère et Lons partagent le 64140 : le nom départage, le code seul donne la première commune listée
+
+		GeoPoint lons = gazetteer.locate("Lons").orElseThrow();
+		GeoPoint billere = gazetteer.locate("Billère").orElseThrow();
+		assertNotEquals(lons, billere);
+
+		assertEquals(lons, gazetteer.locate("64140 Lons").orElseThrow());
+		assertEquals(lons, gazetteer.locate("Lons (64140)").orElseThrow());
+		assertEquals(billere, gazetteer.locate("64140 Billère").orElseThrow());
+		assertEquals(billere, gazetteer.locate("64140").orElseThrow());
+	}
+
+	@Test
+	public void coordinatesAreAcceptedAsIs() {
+		assertEquals(new GeoPoint(43.3, -0.37), gazetteer.locate("43.3,-0.37").orElseThrow());
+		assertTrue(gazetteer.locate("95.0,-0.37").isEmpty());
+	}
+
+	@Test
+	public void unknownLocalisationIsRejected() {
+		assertTrue(gazetteer.locate("Atlantide").isEmpty());
+		assertTrue(gazetteer.locate(null).isEmpty());
+		assertThrows(UnknownLocationException.class, () -> gazetteer.require("Atlantide"));
+	}
+}
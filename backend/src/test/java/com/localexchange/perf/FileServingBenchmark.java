@@ -0,0 +1,122 @@
+package com.localexchange.perf;
+
+import com.localexchange.service.StoredFile;
+import com.localexchange.web.StaticFileResponder;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import org.springframework.core.io.UrlResource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Banc de l'envoi des fichiers téléversés : débit (octets/s) et allocation par requête,
+ * ancienne voie (UrlResource copiée par flux) contre StaticFileResponder (FileChannel.transferTo).
+ *
+ *   mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.localexchange.perf.FileServingBenchmark \
+ *       -Dexec.args="2000"
+ * Argument : nombre de requêtes mesurées par taille de fichier.
+ * La voie sendfile n'existe que derrière un vrai connecteur Tomcat : la mesurer sur une instance démarrée
+ * (par exemple curl -o /dev/null -w '%{speed_download}' sur un gros fichier).
+ */
+public class FileServingBenchmark {
+
+	private static final com.sun.management.ThreadMXBean THREADS =
+			(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+	public static void main(String[] args) throws Exception {
+		int requests = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+		StaticFileResponder responder = new StaticFileResponder(Long.MAX_VALUE);
+
+		Path dir = Files.createTempDirectory("file-serving-bench");
+		try {
+			for (int size : new int[] {20 * 1024, 500 * 1024, 5 * 1024 * 1024}) {
+				Path path = dir.resolve("fichier-" + size + ".jpg");
+				byte[] content = new byte[size];
+				new Random(size).nextBytes(content);
+				Files.write(path, content);
+				StoredFile file = new StoredFile(path, "image/jpeg", size, Files.getLastModifiedTime(path).toMillis(),
+						"\"bench\"", true);
+
+				System.out.printf("Fichier de %d Ko%n", size / 1024);
+				run("  UrlResource + copie", requests, size, () -> {
+					MockHttpServletResponse response = new SinkResponse();
+					response.setContentType(file.contentType());
+					response.setContentLengthLong(file.length());
+					try (InputStream in = new UrlResource(path.toUri()).getInputStream()) {
+						StreamUtils.copy(in, response.getOutputStream());
+					}
+				});
+				run("  StaticFileResponder", requests, size, () ->
+						responder.serve(file, "fichier.jpg", new MockHttpServletRequest("GET", "/"), new SinkResponse()));
+			}
+		} finally {
+			try (var files = Files.list(dir)) {
+				for (Path path : files.toList()) {
+					Files.delete(path);
+				}
+			}
+			Files.delete(dir);
+		}
+	}
+
+	private static void run(String label, int requests, int size, Call call) throws Exception {
+		// Échauffement (JIT, caches du système de fichiers)
+		for (int i = 0; i < Math.max(100, requests / 5); i++) {
+			call.run();
+		}
+		long allocatedBefore = THREADS.getCurrentThreadAllocatedBytes();
+		long start = System.nanoTime();
+		for (int i = 0; i < requests; i++) {
+			call.run();
+		}
+		long elapsed = System.nanoTime() - start;
+		long allocated = THREADS.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+		System.out.printf("%-24s %10.1f Mo/s   %8.1f µs/req   %9d octets alloués/req%n",
+				label,
+				(double) size * requests / (elapsed / 1e9) / (1024 * 1024),
+				elapsed / 1e3 / requests,
+				allocated / requests);
+	}
+
+	private interface Call {
+		void run() throws Exception;
+	}
+
+	/**
+	 * Réponse dont le corps est jeté, pour ne mesurer que la lecture et l'écriture
+	 */
+	private static class SinkResponse extends MockHttpServletResponse {
+
+		private final ServletOutputStream sink = new ServletOutputStream() {
+			@Override
+			public void write(int b) {
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) {
+			}
+
+			@Override
+			public boolean isReady() {
+				return true;
+			}
+
+			@Override
+			public void setWriteListener(WriteListener listener) {
+			}
+		};
+
+		@Override
+		public ServletOutputStream getOutputStream() {
+			return sink;
+		}
+	}
+}
@@ -0,0 +1,220 @@
+package com.localexchange.perf;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Pilote de charge mixte sur une instance démarrée avec le profil perf (comptes user{n}@perf.local générés par PerfDataSeeder).
+ * Chaque client virtuel se connecte avec un compte différent puis enchaîne au hasard :
+ * navigation (40 %), recherche (20 %), conversation (20 %) et notifications (20 %).
+ * Rapport par endpoint : requêtes, débit, p50 / p90 / p99 / max et erreurs.
+ *
+ *   mvn -Pperf spring-boot:run -Dspring-boot.run.profiles=perf
+ *   mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.localexchange.perf.LoadDriver \
+ *       -Dexec.args="http://localhost:8080 2000 200 60"
+ * Arguments : URL de base, nombre de comptes générés, clients concurrents, durée en secondes.
+ */
+public class LoadDriver {
+
+	private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+	private static final String[] SEARCHES = {"perceuse", "vélo", "guitare", "jardin", "livre", "cuisine", "électrique", "tente"};
+	private static final String PASSWORD = "perf";
+
+	public static void main(String[] args) throws Exception {
+		String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+		int accounts = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+		int clients = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+		int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 60;
+
+		HttpClient http = HttpClient.newBuilder()
+				.executor(Executors.newVirtualThreadPerTaskExecutor())
+				.connectTimeout(Duration.ofSeconds(5))
+				.build();
+
+		System.out.printf("%d clients concurrents pendant %d s (échauffement %d s)%n", clients, seconds, Math.max(5, seconds / 6));
+		run(http, baseUrl, accounts, clients, Math.max(5, seconds / 6));
+		Map<String, Stats> stats = run(http, baseUrl, accounts, clients, seconds);
+
+		System.out.printf("%-42s %8s %9s %9s %9s %9s %9s %8s%n", "endpoint", "requêtes", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms", "erreurs");
+		long total = 0;
+		for (Map.Entry<String, Stats> entry : new TreeMap<>(stats).entrySet()) {
+			long[] latencies = entry.getValue().sortedLatencies();
+			total += latencies.length;
+			System.out.printf("%-42s %8d %9.1f %9.1f %9.1f %9.1f %9.1f %8d%n",
+					entry.getKey(),
+					latencies.length,
+					latencies.length / (double) seconds,
+					ThroughputBenchmark.percentile(latencies, 0.50) / 1e6,
+					ThroughputBenchmark.percentile(latencies, 0.90) / 1e6,
+					ThroughputBenchmark.percentile(latencies, 0.99) / 1e6,
+					latencies.length == 0 ? 0 : latencies[latencies.length - 1] / 1e6,
+					entry.getValue().errors);
+		}
+		System.out.printf("Total : %.0f req/s%n", total / (double) seconds);
+	}
+
+	private static Map<String, Stats> run(HttpClient http, String baseUrl, int accounts, int clients, int seconds) throws Exception {
+		long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+		Map<String, Stats> stats = new ConcurrentHashMap<>();
+
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int c = 0; c < clients; c++) {
+				int account = 1 + c % accounts;
+				executor.submit(() -> {
+					Client client = new Client(http, baseUrl, stats);
+					client.token = ThroughputBenchmark.login(http, baseUrl, "user" + account + "@perf.local", PASSWORD);
+					while (System.nanoTime() < deadline) {
+						int dice = ThreadLocalRandom.current().nextInt(100);
+						if (dice < 40) {
+							client.browse();
+						} else if (dice < 60) {
+							client.search();
+						} else if (dice < 80) {
+							client.chat();
+						} else {
+							client.notifications();
+						}
+					}
+					return null;
+				});
+			}
+		}
+		return stats;
+	}
+
+	/**
+	 * Un utilisateur connecté ; chaque appel enregistre sa latence sous un libellé d'endpoint sans identifiant
+	 */
+	private static class Client {
+
+		private final HttpClient http;
+		private final String baseUrl;
+		private final Map<String, Stats> stats;
+		private String token;
+
+		Client(HttpClient http, String baseUrl, Map<String, Stats> stats) {
+			this.http = http;
+			this.baseUrl = baseUrl;
+			this.stats = stats;
+		}
+
+		void browse() {
+			String type = ThreadLocalRandom.current().nextBoolean() ? "items" : "skills";
+			String page = call("GET /api/" + type + "?page", "GET", "/api/" + type + "?page="
+					+ ThreadLocalRandom.current().nextInt(20) + "&size=12", null);
+			Long id = randomId(page);
+			if (id != null) {
+				call("GET /api/" + type + "/{id}", "GET", "/api/" + type + "/" + id, null);
+			}
+		}
+
+		void search() {
+			String term = URLEncoder.encode(SEARCHES[ThreadLocalRandom.current().nextInt(SEARCHES.length)], StandardCharsets.UTF_8);
+			if (ThreadLocalRandom.current().nextBoolean()) {
+				call("GET /api/items?search", "GET", "/api/items?search=" + term, null);
+			} else {
+				call("GET /api/skills?search", "GET", "/api/skills?search=" + term, null);
+			}
+		}
+
+		void chat() {
+			String direction = ThreadLocalRandom.current().nextBoolean() ? "received" : "sent";
+			Long exchangeId = randomId(call("GET /api/exchanges/" + direction, "GET", "/api/exchanges/" + direction, null));
+			if (exchangeId == null) {
+				return;
+			}
+			call("GET /api/messages/conversation/{id}", "GET", "/api/messages/conversation/" + exchangeId, null);
+			if (ThreadLocalRandom.current().nextInt(3) == 0) {
+				call("POST /api/messages", "POST", "/api/messages",
+						"{\"exchangeRequestId\":" + exchangeId + ",\"contenu\":\"Message de charge\"}");
+			}
+		}
+
+		void notifications() {
+			call("GET /api/notifications/unread-count", "GET", "/api/notifications/unread-count", null);
+			call("GET /api/messages/unread-count", "GET", "/api/messages/unread-count", null);
+			int dice = ThreadLocalRandom.current().nextInt(10);
+			if (dice < 3) {
+				call("GET /api/notifications", "GET", "/api/notifications", null);
+			} else if (dice == 3) {
+				call("PUT /api/notifications/read-all", "PUT", "/api/notifications/read-all", null);
+			}
+		}
+
+		private String call(String label, String method, String path, String json) {
+			HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+					.timeout(Duration.ofSeconds(30))
+					.header("Authorization", "Bearer " + token);
+			if (json != null) {
+				request.header("Content-Type", "application/json").method(method, HttpRequest.BodyPublishers.ofString(json));
+			} else {
+				request.method(method, HttpRequest.BodyPublishers.noBody());
+			}
+			Stats endpoint = stats.computeIfAbsent(label, key -> new Stats());
+			long start = System.nanoTime();
+			try {
+				HttpResponse<String> response = http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+				if (response.statusCode() / 100 == 2) {
+					endpoint.record(System.nanoTime() - start);
+					return response.body();
+				}
+			} catch (Exception e) {
+				// comptée comme erreur
+			}
+			endpoint.error();
+			return null;
+		}
+
+		private static Long randomId(String body) {
+			if (body == null) {
+				return null;
+			}
+			List<Long> ids = new ArrayList<>();
+			Matcher matcher = ID.matcher(body);
+			while (matcher.find()) {
+				ids.add(Long.parseLong(matcher.group(1)));
+			}
+			return ids.isEmpty() ? null : ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+		}
+	}
+
+	private static class Stats {
+
+		private long[] latencies = new long[1024];
+		private int count;
+		private long errors;
+
+		synchronized void record(long nanos) {
+			if (count == latencies.length) {
+				latencies = Arrays.copyOf(latencies, count * 2);
+			}
+			latencies[count++] = nanos;
+		}
+
+		synchronized void error() {
+			errors++;
+		}
+
+		synchronized long[] sortedLatencies() {
+			long[] sorted = Arrays.copyOf(latencies, count);
+			Arrays.sort(sorted);
+			return sorted;
+		}
+	}
+}
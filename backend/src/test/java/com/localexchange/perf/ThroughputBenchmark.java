@@ -0,0 +1,118 @@
+package com.localexchange.perf;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Banc de comparaison threads plateforme / threads virtuels sur une instance déjà démarrée.
+ *
+ * Lancer l'application deux fois (VIRTUAL_THREADS=false puis VIRTUAL_THREADS=true) et exécuter à chaque fois :
+ *   mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.localexchange.perf.ThroughputBenchmark \
+ *       -Dexec.args="http://localhost:8080 email@mail.fr motdepasse 500 30"
+ * Arguments : URL de base, identifiants d'un compte existant, clients concurrents, durée en secondes par endpoint.
+ */
+public class ThroughputBenchmark {
+
+	private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+
+	public static void main(String[] args) throws Exception {
+		String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+		String email = args.length > 1 ? args[1] : "bench@mail.fr";
+		String password = args.length > 2 ? args[2] : "bench";
+		int clients = args.length > 3 ? Integer.parseInt(args[3]) : 500;
+		int seconds = args.length > 4 ? Integer.parseInt(args[4]) : 30;
+
+		HttpClient http = HttpClient.newBuilder()
+				.executor(Executors.newVirtualThreadPerTaskExecutor())
+				.connectTimeout(Duration.ofSeconds(5))
+				.build();
+		String token = login(http, baseUrl, email, password);
+
+		System.out.printf("%d clients concurrents, %d s par endpoint%n", clients, seconds);
+		run(http, "GET /api/items", HttpRequest.newBuilder(URI.create(baseUrl + "/api/items?page=0&size=12")).GET().build(), clients, seconds);
+		run(http, "GET /api/exchanges/received", HttpRequest.newBuilder(URI.create(baseUrl + "/api/exchanges/received"))
+				.header("Authorization", "Bearer " + token).GET().build(), clients, seconds);
+	}
+
+	static String login(HttpClient http, String baseUrl, String email, String password) throws Exception {
+		String body = "{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}";
+		HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(body))
+				.build(), HttpResponse.BodyHandlers.ofString());
+		Matcher matcher = TOKEN.matcher(response.body());
+		if (response.statusCode() != 200 || !matcher.find()) {
+			throw new IllegalStateException("Connexion impossible (" + response.statusCode() + ") : " + response.body());
+		}
+		return matcher.group(1);
+	}
+
+	private static void run(HttpClient http, String label, HttpRequest request, int clients, int seconds) throws Exception {
+		// Échauffement (JIT, pools de connexions, caches)
+		measure(http, request, clients, Math.max(3, seconds / 5));
+		Result result = measure(http, request, clients, seconds);
+
+		long[] latencies = result.latencies();
+		Arrays.sort(latencies);
+		System.out.printf("%-30s %8.0f req/s   p50 %6.1f ms   p99 %7.1f ms   max %7.1f ms   erreurs %d%n",
+				label,
+				latencies.length / (double) seconds,
+				percentile(latencies, 0.50) / 1e6,
+				percentile(latencies, 0.99) / 1e6,
+				latencies.length == 0 ? 0 : latencies[latencies.length - 1] / 1e6,
+				result.errors());
+	}
+
+	private static Result measure(HttpClient http, HttpRequest request, int clients, int seconds) throws Exception {
+		long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+		AtomicLong errors = new AtomicLong();
+		List<List<Long>> perClient = new ArrayList<>();
+
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int c = 0; c < clients; c++) {
+				List<Long> latencies = new ArrayList<>();
+				perClient.add(latencies);
+				executor.submit(() -> {
+					while (System.nanoTime() < deadline) {
+						long start = System.nanoTime();
+						try {
+							HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+							if (response.statusCode() == 200) {
+								latencies.add(System.nanoTime() - start);
+							} else {
+								errors.incrementAndGet();
+							}
+						} catch (Exception e) {
+							errors.incrementAndGet();
+						}
+					}
+					return null;
+				});
+			}
+		}
+
+		long[] all = perClient.stream().flatMap(List::stream).mapToLong(Long::longValue).toArray();
+		return new Result(all, errors.get());
+	}
+
+	static long percentile(long[] sorted, double p) {
+		if (sorted.length == 0) {
+			return 0;
+		}
+		return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+	}
+
+	private record Result(long[] latencies, long errors) {
+	}
+}
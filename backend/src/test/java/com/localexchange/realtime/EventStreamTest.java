@@ -0,0 +1,130 @@
+package com.localexchange.realtime;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventStreamTest {
+
+	private final EventStream<Long> stream = new EventStream<>("test", 3, 60000);
+
+	@Test
+	public void firstConnectionIsNotReplayed() {
+		assertFalse(stream.subscribe(1L, null).isReplayed());
+		assertEquals(1, stream.connectionCount(1L));
+	}
+
+	@Test
+	public void reconnectWithinBufferIsReplayed() {
+		publish(1L, 4);
+
+		//Le client a reçu les 2 premiers événements, les 2 suivants sont encore dans le tampon
+		assertTrue(stream.subscribe(1L, stream.eventId(2)).isReplayed());
+		assertTrue(stream.subscribe(1L, stream.eventId(4)).isReplayed());
+	}
+
+	@Test
+	public void reconnectBeyondBufferNeedsFullState() {
+		publish(1L, 6);
+
+		assertFalse(stream.subscribe(1L, stream.eventId(1)).isReplayed());
+	}
+
+	@Test
+	public void unknownEventIdNeedsFullState() {
+		publish(1L, 1);
+
+		assertFalse(stream.subscribe(1L, "ancien-1").isReplayed());
+		assertFalse(stream.subscribe(1L, stream.eventId(7)).isReplayed());
+		assertFalse(stream.subscribe(1L, "n'importe quoi").isReplayed());
+	}
+
+	@Test
+	public void keysAreIndependent() {
+		publish(1L, 2);
+		publish(2L, 5);
+
+		assertTrue(stream.subscribe(1L, stream.eventId(1)).isReplayed());
+		assertFalse(stream.subscribe(2L, stream.eventId(1)).isReplayed());
+	}
+
+	@Test
+	public void publishDuringReplayIsSentAfterIt() throws Exception {
+		List<String> received = new CopyOnWriteArrayList<>();
+		Thread[] publisher = new Thread[1];
+		EventStream<Long> stream = new EventStream<>("test", 3, 60000) {
+			@Override
+			SseEmitter createEmitter() {
+				return new RecordingEmitter(received, () -> {
+
+					//Publication concurrente au premier événement rejoué : elle attend la fin du rejeu
+
+					if (publisher[0] == null) {
+						publisher[0] = new Thread(() -> publish(1L, "notification", "evenement 3"));
+						publisher[0].start();
+						awaitBlockedOrDone(publisher[0]);
+					}
+				});
+			}
+		};
+		for (int i = 0; i < 3; i++) {
+			stream.publish(1L, "notification", "evenement " + i);
+		}
+
+		assertTrue(stream.subscribe(1L, stream.eventId(1)).isReplayed());
+		publisher[0].join(5000);
+
+		assertEquals(List.of(stream.eventId(2), stream.eventId(3), stream.eventId(4)), received);
+	}
+
+	private static void awaitBlockedOrDone(Thread thread) {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (thread.getState() != Thread.State.BLOCKED && thread.getState() != Thread.State.TERMINATED
+				&& System.currentTimeMillis() < deadline) {
+			Thread.onSpinWait();
+		}
+	}
+
+	/**
+	 * Connexion qui note les identifiants reçus, dans l'ordre
+	 */
+	private static class RecordingEmitter extends SseEmitter {
+
+		private static final Pattern ID = Pattern.compile("^id:(.+)$", Pattern.MULTILINE);
+
+		private final List<String> received;
+		private final Runnable onSend;
+
+		RecordingEmitter(List<String> received, Runnable onSend) {
+			this.received = received;
+			this.onSend = onSend;
+		}
+
+		@Override
+		public void send(SseEventBuilder builder) throws IOException {
+			StringBuilder text = new StringBuilder();
+			for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+				text.append(part.getData());
+			}
+			Matcher id = ID.matcher(text);
+			if (id.find()) {
+				onSend.run();
+				received.add(id.group(1));
+			}
+		}
+	}
+
+	private void publish(Long key, int events) {
+		for (int i = 0; i < events; i++) {
+			stream.publish(key, "notification", "evenement " + i);
+		}
+	}
+}
@@ -0,0 +1,233 @@
+package com.localexchange.repository;
+
+import com.localexchange.model.ExchangeRequest;
+import com.localexchange.model.ExchangeStatus;
+import com.localexchange.model.User;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Plans d'exécution MySQL des chemins d'accès des repositories, sur le jeu de données du profil perf.
+ * Le schéma est celui des migrations Flyway (db/migration), validé par Hibernate.
+ * Chaque appel de repository est exécuté tel quel ; son SQL, capturé par un StatementInspector, est repassé
+ * dans EXPLAIN avec les mêmes paramètres. Échec si une table est parcourue entièrement (type ALL) ou triée (Using filesort).
+ * Exclu du build par défaut (tag mysql) ; exécuté par mvn -Pquery-plans test, en CI à chaque push.
+ * Nécessite Docker : sans lui le test échoue au lieu d'être ignoré.
+ */
+@SpringBootTest(properties = {
+		"spring.flyway.enabled=true",
+		"spring.jpa.hibernate.ddl-auto=validate",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.MySQLDialect",
+		"spring.datasource.driver-class-name=com.mysql.cj.jdbc.Driver"
+})
+@ActiveProfiles("perf")
+@Tag("mysql")
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class QueryPlanTest {
+
+	@Container
+	@ServiceConnection
+	static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.4")
+			.withUrlParam("rewriteBatchedStatements", "true");
+
+	/** Requêtes préparées par le thread du test pendant un appel, null hors capture */
+	private static final ThreadLocal<List<String>> CAPTURED = new ThreadLocal<>();
+
+	@TestConfiguration
+	static class CaptureConfig {
+
+		/**
+		 * Enveloppe l'inspecteur de MetricsConfig plutôt que de le remplacer : l'ordre des HibernatePropertiesCustomizer
+		 * ne décide donc pas lequel des deux est retenu
+		 */
+		@Bean
+		static BeanPostProcessor statementCapture() {
+			return new BeanPostProcessor() {
+				@Override
+				public Object postProcessAfterInitialization(Object bean, String beanName) {
+					if (!(bean instanceof HibernatePropertiesCustomizer customizer)
+							|| !beanName.equals("persistenceActivityCustomizer")) {
+						return bean;
+					}
+					return (HibernatePropertiesCustomizer) properties -> {
+						customizer.customize(properties);
+						StatementInspector delegate = (StatementInspector) properties.get(AvailableSettings.STATEMENT_INSPECTOR);
+						properties.put(AvailableSettings.STATEMENT_INSPECTOR, (StatementInspector) sql -> {
+							List<String> captured = CAPTURED.get();
+							if (captured != null) {
+								captured.add(sql);
+							}
+							return delegate.inspect(sql);
+						});
+					};
+				}
+			};
+		}
+	}
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private ExchangeRequestRepository exchangeRequestRepository;
+
+	@Autowired
+	private ItemListingRepository itemListingRepository;
+
+	@Autowired
+	private SkillListingRepository skillListingRepository;
+
+	@Autowired
+	private MessageRepository messageRepository;
+
+	@Autowired
+	private NotificationRepository notificationRepository;
+
+	@Autowired
+	private ReviewRepository reviewRepository;
+
+	private User user;
+	private ExchangeRequest exchange;
+
+	@BeforeAll
+	public void setUp() {
+		// Statistiques d'index à jour après la génération, comme sur une base en service
+		jdbcTemplate.queryForList("ANALYZE TABLE users, item_listings, skill_listings, exchange_requests, "
+				+ "messages, notifications, reviews, user_reputations");
+		user = userRepository.findByEmail("user1@perf.local").orElseThrow();
+		Long exchangeId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM exchange_requests", Long.class);
+		exchange = exchangeRequestRepository.findById(exchangeId).orElseThrow();
+	}
+
+	@Test
+	public void exchangeRequestAccessPathsUseIndexes() {
+		assertIndexed("findByDonateurOrderByCreatedAtDesc",
+				() -> exchangeRequestRepository.findByDonateurOrderByCreatedAtDesc(user), user.getId());
+		assertIndexed("findByBeneficiaireOrderByCreatedAtDesc",
+				() -> exchangeRequestRepository.findByBeneficiaireOrderByCreatedAtDesc(user), user.getId());
+		assertIndexed("findByDonateurAndStatut",
+				() -> exchangeRequestRepository.findByDonateurAndStatut(user, ExchangeStatus.ACCEPTED),
+				user.getId(), ExchangeStatus.ACCEPTED.name());
+		assertIndexed("countByBeneficiaireAndStatut",
+				() -> exchangeRequestRepository.countByBeneficiaireAndStatut(user, ExchangeStatus.PENDING),
+				user.getId(), ExchangeStatus.PENDING.name());
+
+		PageRequest inboxPage = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "createdAt", "id"));
+		assertIndexed("findByDonateur (page)",
+				() -> exchangeRequestRepository.findByDonateur(user, inboxPage), user.getId(), 10);
+		assertIndexed("findByBeneficiaireAndStatut (page)",
+				() -> exchangeRequestRepository.findByBeneficiaireAndStatut(user, ExchangeStatus.COMPLETED, inboxPage),
+				user.getId(), ExchangeStatus.COMPLETED.name(), 10);
+		assertIndexed("countByStatutForDonateur",
+				() -> exchangeRequestRepository.countByStatutForDonateur(user.getId()), user.getId());
+	}
+
+	@Test
+	public void listingAccessPathsUseIndexes() {
+		assertIndexed("ItemListingRepository.findByOwnerOrderByCreatedAtDesc",
+				() -> itemListingRepository.findByOwnerOrderByCreatedAtDesc(user), user.getId());
+		assertIndexed("SkillListingRepository.findByOwnerOrderByCreatedAtDesc",
+				() -> skillListingRepository.findByOwnerOrderByCreatedAtDesc(user), user.getId());
+		assertIndexed("findByCategorie",
+				() -> itemListingRepository.findByCategorie("Livres",
+						PageRequest.of(0, 12, Sort.by(Sort.Direction.DESC, "createdAt", "id"))),
+				"Livres", 12);
+		assertIndexed("countAvailableByCategorie", itemListingRepository::countAvailableByCategorie);
+
+		LocalDateTime now = LocalDateTime.now();
+		assertIndexed("findCardsAfter",
+				() -> itemListingRepository.findCardsAfter(now, Long.MAX_VALUE, PageRequest.of(0, 13)),
+				now, now, Long.MAX_VALUE, 13);
+		assertIndexed("findCardsByCategorieAfter",
+				() -> itemListingRepository.findCardsByCategorieAfter("Livres", now, Long.MAX_VALUE, PageRequest.of(0, 13)),
+				"Livres", now, now, Long.MAX_VALUE, 13);
+	}
+
+	@Test
+	public void conversationAndNotificationAccessPathsUseIndexes() {
+		assertIndexed("findLatestInConversation",
+				() -> messageRepository.findLatestInConversation(exchange.getId(), PageRequest.of(0, 50)), exchange.getId(), 50);
+		assertIndexed("findInConversationBefore",
+				() -> messageRepository.findInConversationBefore(exchange.getId(), Long.MAX_VALUE, PageRequest.of(0, 50)),
+				exchange.getId(), Long.MAX_VALUE, 50);
+		assertIndexed("findInConversationAfter",
+				() -> messageRepository.findInConversationAfter(exchange.getId(), 0L, PageRequest.of(0, 50)),
+				exchange.getId(), 0L, 50);
+		assertIndexed("countByDestinataireAndLuFalse",
+				() -> messageRepository.countByDestinataireAndLuFalse(user), user.getId());
+		assertIndexed("findByUserOrderByCreatedAtDesc",
+				() -> notificationRepository.findByUserOrderByCreatedAtDesc(user), user.getId());
+		assertIndexed("countByUserAndLuFalse",
+				() -> notificationRepository.countByUserAndLuFalse(user), user.getId());
+	}
+
+	@Test
+	public void reviewAccessPathsUseIndexes() {
+		assertIndexed("findByRevieweeOrderByCreatedAtDesc",
+				() -> reviewRepository.findByRevieweeOrderByCreatedAtDesc(user), user.getId());
+		assertIndexed("findByExchangeRequestAndReviewer",
+				() -> reviewRepository.findByExchangeRequestAndReviewer(exchange, user), exchange.getId(), user.getId());
+		assertIndexed("getAverageRatingByUserId",
+				() -> reviewRepository.getAverageRatingByUserId(user.getId()), user.getId());
+		assertIndexed("countNotationsByReviewee", reviewRepository::countNotationsByReviewee);
+	}
+
+	/**
+	 * Exécuter l'appel en capturant son SQL, puis vérifier le plan de chaque requête ;
+	 * chacune reçoit autant de paramètres, pris dans l'ordre, qu'elle a de marqueurs (la requête de comptage
+	 * d'une page n'a pas ceux de LIMIT)
+	 */
+	private void assertIndexed(String label, Runnable call, Object... parameters) {
+		List<String> statements = new ArrayList<>();
+		CAPTURED.set(statements);
+		try {
+			call.run();
+		} finally {
+			CAPTURED.remove();
+		}
+		assertFalse(statements.isEmpty(), () -> label + " : aucune requête SQL capturée");
+
+		for (String sql : statements) {
+			int markers = (int) sql.chars().filter(c -> c == '?').count();
+			Object[] bound = Arrays.copyOf(parameters, markers);
+			for (Map<String, Object> row : jdbcTemplate.queryForList("EXPLAIN " + sql, bound)) {
+				Object table = row.get("table");
+				Object extra = row.get("Extra");
+				assertNotEquals("ALL", row.get("type"),
+						() -> label + " : parcours complet de " + table + "\n" + sql);
+				assertFalse(extra != null && extra.toString().contains("Using filesort"),
+						() -> label + " : tri sans index sur " + table + "\n" + sql);
+			}
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package com.localexchange.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.localexchange.geo.GeoPoint;
+
+public class GeoGridIndexTest {
+
+	private static final GeoPoint PAU = new GeoPoint(43.2951, -0.3708);
+
+	private GeoGridIndex index;
+
+	@BeforeEach
+	public void setUp() {
+		index = new GeoGridIndex();
+		index.put(new SearchDocument(1L).attribute("categorie", "Outils"), new GeoPoint(43.2951, -0.3708));	// Pau
+		index.put(new SearchDocument(2L).attribute("categorie", "Livres"), new GeoPoint(43.3336, -0.4347));	// Lescar, ~6,7 km
+		index.put(new SearchDocument(3L).attribute("categorie", "Outils"), new GeoPoint(43.4883, -0.7725));	// Orthez, ~38 km
+		index.put(new SearchDocument(4L).attribute("categorie", "Outils"), new GeoPoint(43.4929, -1.4748));	// Bayonne, ~92 km
+	}
+
+	private List<Long> ids(double radiusKm) {
+		return index.near(PAU, radiusKm, null).stream().map(GeoGridIndex.GeoHit::id).toList();
+	}
+
+	@Test
+	public void hitsAreWithinRadiusAndSortedByDistance() {
+		assertEquals(List.of(1L, 2L), ids(10));
+		assertEquals(List.of(1L, 2L, 3L), ids(50));
+		assertEquals(List.of(1L, 2L, 3L, 4L), ids(100));
+
+		List<GeoGridIndex.GeoHit> hits = index.near(PAU, 50, null);
+		assertEquals(0.0, hits.get(0).distanceKm(), 0.01);
+		assertEquals(6.7, hits.get(1).distanceKm(), 0.3);
+	}
+
+	@Test
+	public void radiusSpanningSeveralCellsFindsNeighbours() {
+		//Lescar est dans une autre cellule que Pau : le rectangle englobant doit couvrir les deux
+		assertTrue(ids(7).contains(2L));
+		assertFalse(ids(6).contains(2L));
+	}
+
+	@Test
+	public void filterAppliesOnDocuments() {
+		List<GeoGridIndex.GeoHit> hits = index.near(PAU, 100, doc -> "Outils".equals(doc.getAttribute("categorie")));
+		assertEquals(List.of(1L, 3L, 4L), hits.stream().map(GeoGridIndex.GeoHit::id).toList());
+	}
+
+	@Test
+	public void movedAndRemovedDocumentsAreUpdated() {
+		//L'objet 3 suit son propriétaire à Pau, l'objet 2 perd ses coordonnées, l'objet 1 est supprimé
+		index.put(new SearchDocument(3L), PAU);
+		index.put(new SearchDocument(2L), null);
+		index.remove(1L);
+
+		assertEquals(List.of(3L), ids(10));
+		assertEquals(2, index.size());
+	}
+}
@@ -0,0 +1,92 @@
+package com.localexchange.search;
+
+import com.localexchange.model.ItemListing;
+import com.localexchange.repository.ItemListingRepository;
+import com.localexchange.repository.SkillListingRepository;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Pageable;
+
+public class ListingSearchServiceTest {
+
+	@Mock
+	private ItemListingRepository itemListingRepository;
+
+	@Mock
+	private SkillListingRepository skillListingRepository;
+
+	@InjectMocks
+	private ListingSearchService listingSearchService;
+
+	@BeforeEach
+	public void setUp() {
+		MockitoAnnotations.openMocks(this);
+	}
+
+	private static ItemListing item(Long id, String titre) {
+		ItemListing item = new ItemListing();
+		item.setId(id);
+		item.setTitre(titre);
+		item.setCategorie("Outils");
+		return item;
+	}
+
+	@Test
+	public void deleteCommittedDuringBuildIsNotIndexed() {
+
+		//Le lot est lu avant le commit de la suppression, puis indexé après son application
+
+		when(itemListingRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class))).thenAnswer(invocation -> {
+			List<ItemListing> batch = List.of(item(1L, "Perceuse"), item(2L, "Scie sauteuse"));
+			listingSearchService.removeItem(1L);
+			return batch;
+		});
+		when(itemListingRepository.findAllById(Set.of(1L))).thenReturn(List.of());
+
+		listingSearchService.buildIndexes();
+
+		assertTrue(listingSearchService.isReady());
+		assertTrue(listingSearchService.searchItems("perceuse", null).isEmpty());
+		assertEquals(List.of(2L), listingSearchService.searchItems("scie", null));
+	}
+
+	@Test
+	public void updateCommittedDuringBuildWins() {
+		when(itemListingRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class))).thenAnswer(invocation -> {
+			List<ItemListing> batch = List.of(item(1L, "Perceuse"));
+			listingSearchService.indexItem(item(1L, "Ponceuse"));
+			return batch;
+		});
+		when(itemListingRepository.findAllById(Set.of(1L))).thenReturn(List.of(item(1L, "Ponceuse")));
+
+		listingSearchService.buildIndexes();
+
+		assertEquals(List.of(1L), listingSearchService.searchItems("ponceuse", null));
+		assertTrue(listingSearchService.searchItems("perceuse", null).isEmpty());
+	}
+
+	@Test
+	public void changesAfterBuildApplyDirectly() {
+		when(itemListingRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Pageable.class))).thenReturn(List.of());
+		listingSearchService.buildIndexes();
+
+		listingSearchService.indexItem(item(3L, "Tondeuse"));
+		assertEquals(List.of(3L), listingSearchService.searchItems("tondeuse", null));
+
+		listingSearchService.removeItem(3L);
+		assertTrue(listingSearchService.searchItems("tondeuse", null).isEmpty());
+	}
+}
@@ -0,0 +1,62 @@
+package com.localexchange.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class SearchIndexTest {
+
+	private SearchIndex index;
+
+	@BeforeEach
+	public void setUp() {
+		index = new SearchIndex();
+		index.put(new SearchDocument(1L).field("Vélo électrique", 3.0).field("Sport", 2.0)
+				.field("Vélo en bon état, batterie neuve", 1.0).attribute("categorie", "Sport"));
+		index.put(new SearchDocument(2L).field("Perceuse sans fil", 3.0).field("Outils", 2.0)
+				.field("Idéale pour les petits travaux, fournie avec un vélo d'appartement", 1.0).attribute("categorie", "Outils"));
+		index.put(new SearchDocument(3L).field("Livres de cuisine", 3.0).field("Livres", 2.0)
+				.field("Lot de trois livres de recettes", 1.0).attribute("categorie", "Livres"));
+	}
+
+	private List<Long> ids(String query) {
+		return index.search(query, null).stream().map(SearchIndex.SearchHit::id).toList();
+	}
+
+	@Test
+	public void accentsAndCaseAreFolded() {
+		assertEquals(1L, ids("VELO").get(0));
+		assertEquals(List.of(1L), ids("electrique"));
+	}
+
+	@Test
+	public void titleMatchesRankAboveDescriptionMatches() {
+		//Le vélo est dans le titre de 1 et seulement dans la description de 2
+		assertEquals(List.of(1L, 2L), ids("vélo"));
+	}
+
+	@Test
+	public void pluralsAndPrefixesMatch() {
+		assertEquals(List.of(3L), ids("livre"));
+		assertEquals(List.of(2L), ids("perc"));
+	}
+
+	@Test
+	public void typosAreTolerated() {
+		assertEquals(List.of(2L), ids("perseuse"));
+		assertEquals(List.of(3L), ids("cuisinne"));
+	}
+
+	@Test
+	public void filterAndRemovalAreApplied() {
+		assertEquals(List.of(2L), index.search("vélo", doc -> "Outils".equals(doc.getAttribute("categorie")))
+				.stream().map(SearchIndex.SearchHit::id).toList());
+
+		index.remove(1L);
+		assertEquals(List.of(2L), ids("vélo"));
+		assertTrue(ids("electrique").isEmpty());
+	}
+}
@@ -0,0 +1,104 @@
+package com.localexchange.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class JwtAuthenticationFilterTest {
+
+	@Spy
+	private JwtTokenProvider tokenProvider = new JwtTokenProvider();
+
+	@Spy
+	private PrincipalCache principalCache = new PrincipalCache(100, 300000);
+
+	@Mock
+	private CustomUserDetailsService customUserDetailsService;
+
+	@InjectMocks
+	private JwtAuthenticationFilter filter;
+
+	private String token;
+
+	@BeforeEach
+	public void setUp() {
+		MockitoAnnotations.openMocks(this);
+		ReflectionTestUtils.setField(tokenProvider, "jwtSecret", "secret_de_test_suffisamment_long_pour_hs512_secret_de_test_suffisamment_long");
+		ReflectionTestUtils.setField(tokenProvider, "jwtExpirationMs", 60000L);
+		tokenProvider.init();
+
+		User user = (User) User.withUsername("email@mail.fr").password("mdp").authorities("ROLE_USER").build();
+		token = tokenProvider.generateToken(user);
+		when(customUserDetailsService.loadUserByUsername("email@mail.fr")).thenReturn(user);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	public void warmTokenSkipsParsingAndUserLookup() throws Exception {
+
+		//Le deuxième appel avec le même token ne doit ni revérifier la signature ni recharger l'utilisateur
+
+		authenticate("GET", "/api/notifications");
+		authenticate("GET", "/api/notifications");
+
+		verify(tokenProvider, times(1)).parseValidToken(token);
+		verify(customUserDetailsService, times(1)).loadUserByUsername(anyString());
+	}
+
+	@Test
+	public void invalidTokenIsNotAuthenticated() throws Exception {
+
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/notifications");
+		request.addHeader("Authorization", "Bearer " + token.substring(0, token.length() - 4) + "AAAA");
+		filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+		assertNull(SecurityContextHolder.getContext().getAuthentication());
+		verifyNoInteractions(customUserDetailsService);
+	}
+
+	@Test
+	public void publicReadsAreNotFiltered() throws Exception {
+
+		//Les lectures publiques ne doivent coûter aucune authentification, sauf les routes "mes annonces"
+
+		for (String uri : new String[] {"/api/items", "/api/items/42", "/api/skills/7", "/api/reviews/user/3", "/api/uploads/files/a.jpg"}) {
+			MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+			request.addHeader("Authorization", "Bearer " + token);
+			filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+			assertNull(SecurityContextHolder.getContext().getAuthentication(), uri);
+		}
+		verifyNoInteractions(customUserDetailsService);
+
+		authenticate("GET", "/api/items/my-items");
+		authenticate("POST", "/api/items");
+		verify(customUserDetailsService, times(1)).loadUserByUsername("email@mail.fr");
+	}
+
+	private void authenticate(String method, String uri) throws Exception {
+		SecurityContextHolder.clearContext();
+		MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+		request.addHeader("Authorization", "Bearer " + token);
+		filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+		assertNotNull(SecurityContextHolder.getContext().getAuthentication(), method + " " + uri);
+		assertEquals("email@mail.fr", SecurityContextHolder.getContext().getAuthentication().getName());
+	}
+}
@@ -22,7 +22,7 @@ public class AuthServiceTest{
     private UserRepository userRepository;
 
     @Mock
-    private ReviewRepository reviewRepository;
+    private ReputationService reputationService;
 
     @Mock
     private PasswordEncoder passwordEncoder;
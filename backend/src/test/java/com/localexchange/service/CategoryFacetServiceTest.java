@@ -0,0 +1,87 @@
+package com.localexchange.service;
+
+import com.localexchange.dto.CategoryFacetDTO;
+import com.localexchange.repository.ItemListingRepository;
+import com.localexchange.search.ListingSearchService;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+public class CategoryFacetServiceTest {
+
+	@Mock
+	private ItemListingRepository itemListingRepository;
+
+	@Mock
+	private ListingSearchService listingSearchService;
+
+	@InjectMocks
+	private CategoryFacetService categoryFacetService;
+
+	@BeforeEach
+	public void setUp() {
+		MockitoAnnotations.openMocks(this);
+		when(itemListingRepository.countAvailableByCategorie()).thenReturn(rows("Outils", 3L, "Livres", 1L));
+	}
+
+	private static List<Object[]> rows(Object... values) {
+		List<Object[]> rows = new ArrayList<>();
+		for (int i = 0; i < values.length; i += 2) {
+			rows.add(new Object[] {values[i], values[i + 1]});
+		}
+		return rows;
+	}
+
+	private List<CategoryFacetDTO> facets() {
+		return categoryFacetService.getFacets(null);
+	}
+
+	@Test
+	public void countersFollowItemChanges() {
+
+		//Hors transaction, les variations s'appliquent immédiatement
+
+		assertEquals(List.of(new CategoryFacetDTO("Outils", 3), new CategoryFacetDTO("Livres", 1)), facets());
+
+		categoryFacetService.itemChanged(null, false, "Sport", true);			// création
+		categoryFacetService.itemChanged("Outils", true, "Livres", true);		// changement de catégorie
+		categoryFacetService.itemChanged("Livres", true, "Livres", false);		// plus disponible
+		categoryFacetService.itemChanged("Outils", true, null, false);			// suppression
+		categoryFacetService.itemChanged("Livres", false, null, false);			// suppression d'un objet non compté
+
+		assertEquals(List.of(new CategoryFacetDTO("Livres", 1), new CategoryFacetDTO("Outils", 1),
+				new CategoryFacetDTO("Sport", 1)), facets());
+	}
+
+	@Test
+	public void reconcileCorrectsDrift() {
+		facets();
+		categoryFacetService.itemChanged(null, false, "Outils", true);
+		when(itemListingRepository.countAvailableByCategorie()).thenReturn(rows("Outils", 5L, "Jardin", 2L));
+
+		categoryFacetService.reconcile();
+
+		assertEquals(List.of(new CategoryFacetDTO("Outils", 5), new CategoryFacetDTO("Jardin", 2)), facets());
+	}
+
+	@Test
+	public void searchFacetsComeFromTheIndexOnceReady() {
+		when(listingSearchService.isReady()).thenReturn(true);
+		when(listingSearchService.itemFacets("perceuse")).thenReturn(Map.of("Outils", 2L, "Autre", 0L));
+
+		assertEquals(List.of(new CategoryFacetDTO("Outils", 2)), categoryFacetService.getFacets("perceuse"));
+		verify(itemListingRepository, never()).countAvailableByCategorieAndTitre("perceuse");
+	}
+}
@@ -0,0 +1,196 @@
+package com.localexchange.service;
+
+import com.localexchange.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileStorageServiceTest {
+
+	@TempDir
+	Path uploadDir;
+
+	private FileStorageService storage;
+	private ImageDerivativeService derivatives;
+
+	@BeforeEach
+	public void setUp() {
+		storage = new FileStorageService(uploadDir.toString());
+		derivatives = new ImageDerivativeService(1, 10, 0.8f);
+		ReflectionTestUtils.setField(storage, "imageDerivativeService", derivatives);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		derivatives.shutdown();
+	}
+
+	@Test
+	public void identicalUploadsShareOneStoredFile() throws Exception {
+		List<String> first = storage.storeFiles(files(file("photo.JPEG", "même contenu")));
+		List<String> second = storage.storeFiles(files(file("autre-nom.jpg", "même contenu")));
+
+		assertEquals(first, second);
+		assertEquals(1, storedFiles().size());
+	}
+
+	@Test
+	public void contentIsStoredUnderItsHashInShardedDirectories() throws Exception {
+		String url = storage.storeFiles(files(file("notice.pdf", "abc"))).get(0);
+
+		// SHA-256("abc")
+		String hash = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+		assertEquals("/api/uploads/files/" + hash + ".pdf", url);
+		assertTrue(Files.exists(uploadDir.resolve("ba").resolve("78").resolve(hash + ".pdf")));
+
+		StoredFile stored = storage.locate(hash + ".pdf", null);
+		assertEquals("\"" + hash + "\"", stored.etag());
+		assertEquals("application/pdf", stored.contentType());
+		assertEquals(3, stored.length());
+	}
+
+	@Test
+	public void differentContentsAreKeptApart() throws Exception {
+		storage.storeFiles(files(file("a.txt", "un"), file("b.txt", "deux")));
+
+		assertEquals(2, storedFiles().size());
+	}
+
+	@Test
+	public void namesOutsideTheStorageAreNotFound() {
+		assertThrows(ResourceNotFoundException.class, () -> storage.locate("../application.yml", null));
+		assertThrows(ResourceNotFoundException.class, () -> storage.locate(FileStorageService.INCOMING_DIR, null));
+	}
+
+	@Test
+	public void jpegIsStoredWithoutMetadataButKeepsItsOrientation() throws Exception {
+
+		//Photo de téléphone : Exif (orientation + position), XMP et commentaire ; seule l'orientation doit rester
+
+		byte[] exif = exifSegment(6, "GPS 43.2951N 0.3708W");
+		byte[] photo = withSegments(jpeg(8, 4),
+				segment(0xFFE1, exif),
+				segment(0xFFE1, "http://ns.adobe.com/xap/1.0/\0<x:xmpmeta>Pau</x:xmpmeta>".getBytes(StandardCharsets.ISO_8859_1)),
+				segment(0xFFFE, "Rue des Cordeliers".getBytes(StandardCharsets.ISO_8859_1)));
+
+		String url = storage.storeFiles(files(new MockMultipartFile("files", "photo.jpg", null, photo))).get(0);
+		Path stored = storedFiles().get(0);
+		String bytes = new String(Files.readAllBytes(stored), StandardCharsets.ISO_8859_1);
+
+		assertFalse(bytes.contains("GPS"));
+		assertFalse(bytes.contains("xmpmeta"));
+		assertFalse(bytes.contains("Cordeliers"));
+		assertEquals(6, ExifOrientation.read(stored));
+		BufferedImage decoded = ImageIO.read(stored.toFile());
+		assertEquals(8, decoded.getWidth());
+		assertEquals(4, decoded.getHeight());
+		// Le nom est le hash du contenu nettoyé
+		assertTrue(url.endsWith(stored.getFileName().toString()));
+	}
+
+	@Test
+	public void pngTextChunksAreDropped() throws Exception {
+		byte[] png = pngWithText(pngImage(), "Comment", "Chez Alice, 12 rue du Lac");
+
+		storage.storeFiles(files(new MockMultipartFile("files", "plan.png", null, png)));
+		Path stored = storedFiles().get(0);
+
+		assertFalse(new String(Files.readAllBytes(stored), StandardCharsets.ISO_8859_1).contains("rue du Lac"));
+		assertEquals(3, ImageIO.read(stored.toFile()).getWidth());
+	}
+
+	private static byte[] jpeg(int width, int height) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "jpg", out);
+		return out.toByteArray();
+	}
+
+	private static byte[] pngImage() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(new BufferedImage(3, 2, BufferedImage.TYPE_INT_RGB), "png", out);
+		return out.toByteArray();
+	}
+
+	/**
+	 * Insérer des segments juste après SOI
+	 */
+	private static byte[] withSegments(byte[] jpeg, byte[]... segments) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write(jpeg, 0, 2);
+		for (byte[] segment : segments) {
+			out.writeBytes(segment);
+		}
+		out.write(jpeg, 2, jpeg.length - 2);
+		return out.toByteArray();
+	}
+
+	private static byte[] segment(int marker, byte[] data) {
+		return ByteBuffer.allocate(data.length + 4).putShort((short) marker).putShort((short) (data.length + 2)).put(data).array();
+	}
+
+	/**
+	 * Exif : IFD0 avec la seule orientation, suivi de données libres (position)
+	 */
+	private static byte[] exifSegment(int orientation, String trailing) {
+		byte[] extra = trailing.getBytes(StandardCharsets.ISO_8859_1);
+		return ByteBuffer.allocate(32 + extra.length)
+				.put(new byte[] {'E', 'x', 'i', 'f', 0, 0, 'I', 'I', 42, 0, 8, 0, 0, 0, 1, 0})
+				.order(ByteOrder.LITTLE_ENDIAN)
+				.putShort((short) 0x0112).putShort((short) 3).putInt(1).putShort((short) orientation).putShort((short) 0)
+				.putInt(0)
+				.put(extra)
+				.array();
+	}
+
+	/**
+	 * Insérer un bloc tEXt après IHDR (signature 8 octets + IHDR 25 octets)
+	 */
+	private static byte[] pngWithText(byte[] png, String keyword, String text) {
+		byte[] data = (keyword + "\0" + text).getBytes(StandardCharsets.ISO_8859_1);
+		CRC32 crc = new CRC32();
+		crc.update("tEXt".getBytes(StandardCharsets.ISO_8859_1));
+		crc.update(data);
+		byte[] chunk = ByteBuffer.allocate(data.length + 12).putInt(data.length)
+				.put("tEXt".getBytes(StandardCharsets.ISO_8859_1)).put(data).putInt((int) crc.getValue()).array();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write(png, 0, 33);
+		out.writeBytes(chunk);
+		out.write(png, 33, png.length - 33);
+		return out.toByteArray();
+	}
+
+	private List<Path> storedFiles() throws Exception {
+		try (Stream<Path> files = Files.walk(uploadDir)) {
+			return files.filter(Files::isRegularFile)
+					.filter(path -> !path.startsWith(uploadDir.resolve(FileStorageService.INCOMING_DIR)))
+					.filter(path -> !path.toString().contains(ImageDerivativeService.VARIANTS_DIR))
+					.toList();
+		}
+	}
+
+	private static MultipartFile[] files(MultipartFile... files) {
+		return files;
+	}
+
+	private static MockMultipartFile file(String name, String content) {
+		return new MockMultipartFile("files", name, null, content.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,79 @@
+package com.localexchange.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ImageDerivativeServiceTest {
+
+	@TempDir
+	Path uploadDir;
+
+	private final ImageDerivativeService service = new ImageDerivativeService(1, 10, 0.8f);
+
+	@AfterEach
+	public void tearDown() {
+		service.shutdown();
+	}
+
+	@Test
+	public void variantsFitTheirBoxAndKeepTheRatio() throws Exception {
+		Path original = png("photo.png", 3000, 1500);
+
+		assertTrue(service.generate(original));
+
+		assertSize(service.variantPath(original, ImageVariant.FULL), 1600, 800);
+		assertSize(service.variantPath(original, ImageVariant.CARD), 480, 240);
+		assertSize(service.variantPath(original, ImageVariant.THUMB), 200, 100);
+	}
+
+	@Test
+	public void smallImagesAreNeverEnlarged() throws Exception {
+		Path original = png("petite.png", 300, 150);
+
+		assertTrue(service.generate(original));
+
+		assertSize(service.variantPath(original, ImageVariant.FULL), 300, 150);
+		assertSize(service.variantPath(original, ImageVariant.THUMB), 200, 100);
+	}
+
+	@Test
+	public void nonImageFilesAreIgnored() throws Exception {
+		Path original = Files.writeString(uploadDir.resolve("notice.pdf"), "%PDF-1.4");
+
+		assertFalse(service.generate(original));
+		assertFalse(Files.exists(service.variantPath(original, ImageVariant.THUMB)));
+	}
+
+	@Test
+	public void exifOrientationIsAppliedToPixels() {
+
+		//Orientation 6 : photo prise en portrait, pixels stockés couchés
+
+		BufferedImage landscape = new BufferedImage(40, 20, BufferedImage.TYPE_INT_RGB);
+		BufferedImage oriented = ImageDerivativeService.orient(landscape, 6);
+
+		assertEquals(20, oriented.getWidth());
+		assertEquals(40, oriented.getHeight());
+		assertSame(landscape, ImageDerivativeService.orient(landscape, ExifOrientation.NORMAL));
+	}
+
+	private Path png(String name, int width, int height) throws Exception {
+		Path file = uploadDir.resolve(name);
+		ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB), "png", file.toFile());
+		return file;
+	}
+
+	private static void assertSize(Path file, int width, int height) throws Exception {
+		BufferedImage image = ImageIO.read(file.toFile());
+		assertEquals(width, image.getWidth());
+		assertEquals(height, image.getHeight());
+	}
+}
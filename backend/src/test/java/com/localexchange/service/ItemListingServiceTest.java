@@ -0,0 +1,167 @@
+package com.localexchange.service;
+
+import com.localexchange.dto.CursorPageDTO;
+import com.localexchange.dto.ItemCardDTO;
+import com.localexchange.exception.InvalidCursorException;
+import com.localexchange.geo.Gazetteer;
+import com.localexchange.model.ItemListing;
+import com.localexchange.model.User;
+import com.localexchange.model.UserReputation;
+import com.localexchange.search.ListingSearchService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static com.localexchange.support.TestUsers.user;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ItemListingService.class, ReputationService.class, ListingSearchService.class, Gazetteer.class,
+		CategoryFacetService.class})
+public class ItemListingServiceTest {
+
+	@Autowired
+	private ItemListingService itemListingService;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	public void setUp() {
+		// 3 propriétaires différents, 3 objets chacun
+		for (int u = 0; u < 3; u++) {
+			User owner = user("owner" + u + "@mail.fr", "Owner " + u);
+			entityManager.persist(owner);
+
+			UserReputation reputation = new UserReputation(owner.getId());
+			reputation.addRating(4);
+			reputation.addRating(5);
+			entityManager.persist(reputation);
+
+			for (int i = 0; i < 3; i++) {
+				ItemListing item = new ItemListing();
+				item.setTitre("Objet " + u + "-" + i);
+				item.setDescription("Description " + "x".repeat(400));
+				item.setCategorie(i == 0 ? "Livres" : "Outils");
+				item.setImages("[\"/api/uploads/files/a.jpg\",\"/api/uploads/files/b.jpg\"]");
+				item.setOwner(owner);
+				entityManager.persist(item);
+			}
+		}
+		entityManager.flush();
+		entityManager.clear();
+
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	public void getAllItemsCostsOneDataQueryPlusCount() {
+
+		//Une page = une requête de données + la requête de comptage, sans chargement du propriétaire
+
+		Page<ItemCardDTO> page = itemListingService.getAllItems(null, null, PageRequest.of(0, 4));
+
+		assertEquals(4, page.getContent().size());
+		assertEquals(9, page.getTotalElements());
+		assertEquals(2, statistics.getPrepareStatementCount(), "Une page doit coûter exactement deux requêtes");
+		assertEquals(0, statistics.getEntityLoadCount(), "Aucune entité ne doit être chargée pour une page de cartes");
+
+		for (ItemCardDTO card : page.getContent()) {
+			assertNotNull(card.getOwnerNom());
+			assertEquals(4.5, card.getOwnerRating());
+			assertEquals("/api/uploads/files/a.jpg", card.getImages());
+			assertTrue(card.getDescription().length() <= 200);
+		}
+	}
+
+	@Test
+	public void getAllItemsByCategorieCostsOneDataQueryPlusCount() {
+
+		Page<ItemCardDTO> page = itemListingService.getAllItems("Outils", null, PageRequest.of(0, 4));
+
+		assertEquals(4, page.getContent().size());
+		assertEquals(6, page.getTotalElements());
+		assertEquals(2, statistics.getPrepareStatementCount(), "Une page filtrée doit coûter exactement deux requêtes");
+		assertEquals(0, statistics.getEntityLoadCount());
+	}
+
+	@Test
+	public void cursorPagesCostOneQueryEachWithoutCount() {
+
+		//Parcours complet par curseur : une requête par page, aucun doublon, pas de comptage
+
+		List<ItemCardDTO> seen = new ArrayList<>();
+		String cursor = "";
+		int pages = 0;
+		CursorPageDTO<ItemCardDTO> page;
+		do {
+			page = itemListingService.getItemsByCursor(null, null, cursor, 4);
+			seen.addAll(page.getContent());
+			cursor = page.getNextCursor();
+			pages++;
+		} while (page.isHasNext());
+
+		assertEquals(3, pages);
+		assertEquals(9, seen.size());
+		assertEquals(9, new HashSet<>(seen.stream().map(ItemCardDTO::getId).toList()).size());
+		assertNull(page.getNextCursor());
+		assertEquals(3, statistics.getPrepareStatementCount(), "Chaque page doit coûter une seule requête");
+
+		for (int i = 1; i < seen.size(); i++) {
+			assertTrue(seen.get(i - 1).getId() > seen.get(i).getId() || seen.get(i - 1).getCreatedAt().isAfter(seen.get(i).getCreatedAt()));
+		}
+	}
+
+	@Test
+	public void cursorWithCategorieOnlyReturnsMatchingItems() {
+
+		CursorPageDTO<ItemCardDTO> page = itemListingService.getItemsByCursor("Livres", null, "", 10);
+
+		assertEquals(3, page.getContent().size());
+		assertFalse(page.isHasNext());
+		page.getContent().forEach(card -> assertEquals("Livres", card.getCategorie()));
+	}
+
+	@Test
+	public void cursorPageSizeIsClamped() {
+
+		//Taille nulle ou négative : une carte par page, le curseur avance quand même
+
+		CursorPageDTO<ItemCardDTO> first = itemListingService.getItemsByCursor(null, null, "", 0);
+		assertEquals(1, first.getContent().size());
+		assertTrue(first.isHasNext());
+
+		CursorPageDTO<ItemCardDTO> second = itemListingService.getItemsByCursor(null, null, first.getNextCursor(), -5);
+		assertEquals(1, second.getContent().size());
+		assertNotEquals(first.getContent().get(0).getId(), second.getContent().get(0).getId());
+
+		assertEquals(9, itemListingService.getItemsByCursor(null, null, "", Integer.MAX_VALUE).getContent().size());
+	}
+
+	@Test
+	public void tamperedCursorIsRejected() {
+		assertThrows(InvalidCursorException.class, () -> itemListingService.getItemsByCursor(null, null, "pas-un-curseur", 4));
+	}
+}
@@ -0,0 +1,129 @@
+package com.localexchange.service;
+
+import com.localexchange.dto.MessageDTO;
+import com.localexchange.geo.Gazetteer;
+import com.localexchange.metrics.BusinessMetrics;
+import com.localexchange.model.ExchangeRequest;
+import com.localexchange.model.User;
+import com.localexchange.realtime.ConversationStream;
+import com.localexchange.realtime.NotificationStream;
+import com.localexchange.repository.ExchangeRequestRepository;
+import com.localexchange.repository.MessageRepository;
+import com.localexchange.repository.NotificationRepository;
+import com.localexchange.repository.OutboxEventRepository;
+import com.localexchange.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.LongStream;
+
+import static com.localexchange.support.TestUsers.user;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Envois concurrents dans une même conversation, chacun dans sa propre transaction validée
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({MessageService.class, NotificationService.class, UnreadCounterService.class, NotificationStream.class,
+		ConversationStream.class, BusinessMetrics.class, SimpleMeterRegistry.class, Gazetteer.class})
+public class MessageServiceTest {
+
+	@Autowired
+	private MessageService messageService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private ExchangeRequestRepository exchangeRequestRepository;
+
+	@Autowired
+	private MessageRepository messageRepository;
+
+	@Autowired
+	private NotificationRepository notificationRepository;
+
+	@Autowired
+	private OutboxEventRepository outboxEventRepository;
+
+	private ExchangeRequest exchange;
+
+	@BeforeEach
+	public void setUp() {
+		User alice = userRepository.save(user("alice@mail.fr"));
+		User bob = userRepository.save(user("bob@mail.fr"));
+
+		ExchangeRequest request = new ExchangeRequest();
+		request.setOffreEnRetour("Un coup de main");
+		request.setDateEchange(LocalDate.now().plusDays(2));
+		request.setDonateur(alice);
+		request.setBeneficiaire(bob);
+		exchange = exchangeRequestRepository.save(request);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		messageRepository.deleteAll();
+		exchangeRequestRepository.deleteAll();
+		notificationRepository.deleteAll();
+		outboxEventRepository.deleteAll();
+		userRepository.deleteAll();
+	}
+
+	@Test
+	public void concurrentMessagesGetConsecutiveNumbers() throws Exception {
+
+		//Les rangs sont attribués un à un sous le verrou de l'échange : ni doublon ni trou, quel que soit l'entrelacement
+
+		int senders = 8;
+		int perSender = 10;
+		List<Future<?>> sends = new ArrayList<>();
+		try (ExecutorService pool = Executors.newFixedThreadPool(senders)) {
+			for (int s = 0; s < senders; s++) {
+				String email = s % 2 == 0 ? "alice@mail.fr" : "bob@mail.fr";
+				sends.add(pool.submit(() -> {
+					for (int i = 0; i < perSender; i++) {
+						MessageDTO dto = new MessageDTO();
+						dto.setContenu("Message " + i);
+						dto.setExchangeRequestId(exchange.getId());
+						messageService.sendMessage(dto, email);
+					}
+				}));
+			}
+			for (Future<?> send : sends) {
+				send.get();
+			}
+		}
+
+		List<MessageDTO> conversation = messageService.getConversation(exchange.getId(), null, null, 200, "alice@mail.fr");
+		assertEquals(LongStream.rangeClosed(1, senders * perSender).boxed().toList(),
+				conversation.stream().map(MessageDTO::getNumero).toList());
+
+		// La projection résume aussi le destinataire
+		for (MessageDTO message : conversation) {
+			assertEquals(message.getExpediteurNom().equals("alice@mail.fr") ? "bob@mail.fr" : "alice@mail.fr",
+					message.getDestinataireNom());
+		}
+
+		List<MessageDTO> after = messageService.getConversation(exchange.getId(), null, 75L, 200, "bob@mail.fr");
+		assertEquals(List.of(76L, 77L, 78L, 79L, 80L), after.stream().map(MessageDTO::getNumero).toList());
+	}
+}
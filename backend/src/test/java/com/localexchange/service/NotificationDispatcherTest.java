@@ -0,0 +1,157 @@
+package com.localexchange.service;
+
+import com.localexchange.metrics.BusinessMetrics;
+import com.localexchange.model.Notification;
+import com.localexchange.model.NotificationType;
+import com.localexchange.model.OutboxEvent;
+import com.localexchange.model.OutboxStatus;
+import com.localexchange.model.User;
+import com.localexchange.realtime.NotificationStream;
+import com.localexchange.repository.NotificationRepository;
+import com.localexchange.repository.OutboxEventRepository;
+import com.localexchange.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.localexchange.support.TestUsers.user;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({NotificationDispatcher.class, NotificationService.class, NotificationStream.class, UnreadCounterService.class,
+		BusinessMetrics.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class NotificationDispatcherTest {
+
+	@Autowired
+	private NotificationDispatcher dispatcher;
+
+	@Autowired
+	private OutboxEventRepository outboxEventRepository;
+
+	@Autowired
+	private NotificationRepository notificationRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private UnreadCounterService unreadCounterService;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private User alice;
+	private User bob;
+
+	@BeforeEach
+	public void setUp() {
+		alice = userRepository.save(user("alice@mail.fr"));
+		bob = userRepository.save(user("bob@mail.fr"));
+	}
+
+	@AfterEach
+	public void tearDown() {
+		notificationRepository.deleteAll();
+		outboxEventRepository.deleteAll();
+		userRepository.deleteAll();
+	}
+
+	@Test
+	public void dueEventsBecomeNotifications() {
+		append(alice.getId(), LocalDateTime.now());
+		append(bob.getId(), LocalDateTime.now());
+		append(alice.getId(), LocalDateTime.now());
+		double created = notificationsCreated();
+
+		dispatcher.dispatchPending();
+
+		assertEquals(2, notificationRepository.countByUserAndLuFalse(alice));
+		assertEquals(1, notificationRepository.countByUserAndLuFalse(bob));
+		assertEquals(0, outboxEventRepository.count(), "Les événements distribués doivent quitter l'outbox");
+		assertEquals(3, notificationsCreated() - created, "Le compteur métier suit les insertions validées");
+	}
+
+	@Test
+	public void failingEventIsRetriedLaterWithoutBlockingOthers() {
+
+		//Un destinataire inexistant fait échouer le lot : les autres événements passent quand même
+
+		OutboxEvent broken = append(999999L, LocalDateTime.now());
+		append(alice.getId(), LocalDateTime.now());
+
+		dispatcher.dispatchPending();
+
+		assertEquals(1, notificationRepository.countByUserAndLuFalse(alice));
+		OutboxEvent retried = outboxEventRepository.findById(broken.getId()).orElseThrow();
+		assertEquals(OutboxStatus.PENDING, retried.getStatus());
+		assertEquals(1, retried.getAttempts());
+		assertTrue(retried.getNextAttemptAt().isAfter(LocalDateTime.now()));
+	}
+
+	@Test
+	public void eventsOfAUserWaitForItsOlderRetry() {
+
+		//Un événement plus ancien en attente de nouvelle tentative bloque les suivants du même utilisateur
+
+		append(alice.getId(), LocalDateTime.now().plusMinutes(5));
+		append(alice.getId(), LocalDateTime.now());
+		append(bob.getId(), LocalDateTime.now());
+
+		dispatcher.dispatchPending();
+
+		assertEquals(0, notificationRepository.countByUserAndLuFalse(alice));
+		assertEquals(1, notificationRepository.countByUserAndLuFalse(bob));
+		List<OutboxEvent> remaining = outboxEventRepository.findAll();
+		assertEquals(2, remaining.size());
+		remaining.forEach(event -> assertEquals(alice.getId(), event.getUserId()));
+	}
+
+	@Test
+	public void unreadCounterFollowsDeliveryAndReconciles() {
+		assertEquals(0, unreadCounterService.getUnreadNotifications(alice.getId()));
+
+		append(alice.getId(), LocalDateTime.now());
+		append(alice.getId(), LocalDateTime.now());
+		dispatcher.dispatchPending();
+
+		assertEquals(2, unreadCounterService.getUnreadNotifications(alice.getId()));
+
+		//Écriture qui contourne les compteurs : la réconciliation rattrape l'écart
+
+		List<Notification> notifications = notificationRepository.findAll();
+		notifications.forEach(notification -> notification.setLu(true));
+		notificationRepository.saveAll(notifications);
+		assertEquals(2, unreadCounterService.getUnreadNotifications(alice.getId()));
+		unreadCounterService.reconcile();
+		assertEquals(0, unreadCounterService.getUnreadNotifications(alice.getId()));
+	}
+
+	private OutboxEvent append(Long userId, LocalDateTime nextAttemptAt) {
+		OutboxEvent event = new OutboxEvent();
+		event.setUserId(userId);
+		event.setType(NotificationType.NEW_MESSAGE);
+		event.setMessage("Nouveau message");
+		event.setNextAttemptAt(nextAttemptAt);
+		return outboxEventRepository.save(event);
+	}
+
+	private double notificationsCreated() {
+		return meterRegistry.find("notifications.created").counters().stream().mapToDouble(Counter::count).sum();
+	}
+}
@@ -0,0 +1,309 @@
+package com.localexchange.service;
+
+import com.localexchange.dto.ExchangeInboxDTO;
+import com.localexchange.dto.ExchangeRequestDTO;
+import com.localexchange.dto.ItemListingDTO;
+import com.localexchange.dto.MessageDTO;
+import com.localexchange.dto.ReviewDTO;
+import com.localexchange.dto.SkillListingDTO;
+import com.localexchange.geo.Gazetteer;
+import com.localexchange.metrics.BusinessMetrics;
+import com.localexchange.model.*;
+import com.localexchange.realtime.ConversationStream;
+import com.localexchange.realtime.NotificationStream;
+import com.localexchange.search.ListingSearchService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.localexchange.support.QueryCounter.assertAtMost;
+import static com.localexchange.support.TestUsers.user;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Budget de requêtes SQL de chaque méthode publique des services.
+ * Les listes portent sur plusieurs lignes, de plusieurs utilisateurs : un chargement paresseux par ligne
+ * (propriétaire, participant, annonce...) dépasse aussitôt le budget.
+ * Les avis d'une demande d'échange (OneToMany paresseux) ne sont jamais chargés : aucune marge n'est gardée pour eux.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ItemListingService.class, SkillListingService.class, ExchangeRequestService.class, MessageService.class,
+		NotificationService.class, ReviewService.class, ReputationService.class, ListingSearchService.class,
+		UnreadCounterService.class, NotificationStream.class, ConversationStream.class,
+		BusinessMetrics.class, SimpleMeterRegistry.class, Gazetteer.class, CategoryFacetService.class})
+public class QueryBudgetTest {
+
+	@Autowired
+	private ItemListingService itemListingService;
+
+	@Autowired
+	private SkillListingService skillListingService;
+
+	@Autowired
+	private ExchangeRequestService exchangeRequestService;
+
+	@Autowired
+	private MessageService messageService;
+
+	@Autowired
+	private NotificationService notificationService;
+
+	@Autowired
+	private ReviewService reviewService;
+
+	@Autowired
+	private ListingSearchService listingSearchService;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	private User alice;
+	private User bob;
+	private User carol;
+	private ItemListing[] items = new ItemListing[4];
+	private SkillListing[] skills = new SkillListing[3];
+	private ExchangeRequest pendingFromBob;
+	private ExchangeRequest pendingFromCarol;
+	private ExchangeRequest acceptedFromBob;
+	private ExchangeRequest completedFromBob;
+	private Message messageToAlice;
+	private Notification notification;
+
+	@BeforeEach
+	public void setUp() {
+
+		//Alice donne, Bob et Carol demandent : chaque liste mélange plusieurs utilisateurs et annonces
+
+		alice = persist(user("alice@mail.fr"));
+		bob = persist(user("bob@mail.fr"));
+		carol = persist(user("carol@mail.fr"));
+
+		UserReputation reputation = new UserReputation(alice.getId());
+		reputation.addRating(4);
+		reputation.addRating(5);
+		persist(reputation);
+
+		for (int i = 0; i < items.length; i++) {
+			ItemListing item = new ItemListing();
+			item.setTitre("Objet " + i);
+			item.setDescription("Description de l'objet " + i);
+			item.setCategorie(i % 2 == 0 ? "Outils" : "Livres");
+			item.setOwner(alice);
+			// Autour de Pau, sauf le dernier à Paris
+			item.setLatitude(i < 3 ? 43.30 + i * 0.01 : 48.85);
+			item.setLongitude(i < 3 ? -0.37 : 2.35);
+			items[i] = persist(item);
+		}
+		for (int i = 0; i < skills.length; i++) {
+			SkillListing skill = new SkillListing();
+			skill.setTitre("Compétence " + i);
+			skill.setDescription("Description de la compétence " + i);
+			skill.setDisponibilites("Le week-end");
+			skill.setOwner(alice);
+			skill.setLatitude(43.30 + i * 0.01);
+			skill.setLongitude(-0.37);
+			skills[i] = persist(skill);
+		}
+
+		pendingFromBob = persist(exchange(bob, items[0], null, ExchangeStatus.PENDING));
+		pendingFromCarol = persist(exchange(carol, items[1], null, ExchangeStatus.PENDING));
+		acceptedFromBob = persist(exchange(bob, null, skills[0], ExchangeStatus.ACCEPTED));
+		completedFromBob = persist(exchange(bob, items[2], null, ExchangeStatus.COMPLETED));
+		ExchangeRequest reviewedByCarol = persist(exchange(carol, null, skills[1], ExchangeStatus.COMPLETED));
+		ExchangeRequest reviewedByBob = persist(exchange(bob, items[1], null, ExchangeStatus.COMPLETED));
+		persist(review(carol, reviewedByCarol, 4));
+		persist(review(bob, reviewedByBob, 5));
+
+		for (int i = 0; i < 4; i++) {
+			Message message = new Message();
+			message.setNumero((long) i + 1);
+			message.setContenu("Message " + i);
+			message.setExpediteur(i % 2 == 0 ? bob : alice);
+			message.setDestinataire(i % 2 == 0 ? alice : bob);
+			message.setExchangeRequest(pendingFromBob);
+			persist(message);
+			if (i == 0) {
+				messageToAlice = message;
+			}
+		}
+
+		for (int i = 0; i < 3; i++) {
+			Notification created = new Notification();
+			created.setType(NotificationType.NEW_REQUEST);
+			created.setMessage("Notification " + i);
+			created.setUser(alice);
+			notification = persist(created);
+		}
+	}
+
+	@Test
+	public void itemListingServiceStaysWithinBudget() {
+		ItemListingDTO dto = new ItemListingDTO();
+		dto.setTitre("Scie");
+		dto.setDescription("Scie circulaire");
+		dto.setCategorie("Outils");
+		dto.setDisponibilite(true);
+
+		assertEquals(4, assertAtMost(3, entityManager, () -> itemListingService.getItemsByOwner("alice@mail.fr")).size());
+		assertAtMost(2, entityManager, () -> itemListingService.getAllItems(null, null, PageRequest.of(0, 10)));
+		assertAtMost(2, entityManager, () -> itemListingService.getAllItems("Outils", "Objet", PageRequest.of(0, 10)));
+		assertAtMost(1, entityManager, () -> itemListingService.getItemsByCursor(null, null, "", 10));
+
+		// Index construit au démarrage du contexte, sans les annonces de ce test : on revient à l'état d'avant (repli SQL)
+		ReflectionTestUtils.setField(listingSearchService, "ready", false);
+		assertEquals(2, assertAtMost(2, entityManager,
+				() -> itemListingService.getItemsNear("43.30,-0.37", 10, "Outils", null, PageRequest.of(0, 10))).getTotalElements());
+		assertEquals(3, assertAtMost(2, entityManager,
+				() -> itemListingService.getItemsNearByCursor("43.30,-0.37", 10, null, "Objet", "", 10)).getContent().size());
+		ReflectionTestUtils.setField(listingSearchService, "ready", true);
+
+		assertAtMost(3, entityManager, () -> itemListingService.getItemById(items[0].getId()));
+		assertAtMost(3, entityManager, () -> itemListingService.createItem(dto, "alice@mail.fr"));
+		assertAtMost(4, entityManager, () -> itemListingService.updateItem(items[0].getId(), dto, "alice@mail.fr"));
+		assertAtMost(4, entityManager, () -> itemListingService.deleteItem(items[3].getId(), "alice@mail.fr"));
+	}
+
+	@Test
+	public void skillListingServiceStaysWithinBudget() {
+		SkillListingDTO dto = new SkillListingDTO();
+		dto.setTitre("Cours de guitare");
+		dto.setDescription("Initiation");
+		dto.setDisponibilites("Le soir");
+		dto.setActif(true);
+
+		assertEquals(3, assertAtMost(3, entityManager, () -> skillListingService.getSkillsByOwner("alice@mail.fr")).size());
+		assertAtMost(2, entityManager, () -> skillListingService.getAllSkills(null, PageRequest.of(0, 10)));
+		assertAtMost(1, entityManager, () -> skillListingService.getSkillsByCursor(null, "", 10));
+
+		ReflectionTestUtils.setField(listingSearchService, "ready", false);
+		assertEquals(3, assertAtMost(2, entityManager,
+				() -> skillListingService.getSkillsNear("43.30,-0.37", 10, null, PageRequest.of(0, 10))).getTotalElements());
+		assertEquals(1, assertAtMost(2, entityManager,
+				() -> skillListingService.getSkillsNearByCursor("43.30,-0.37", 10, "Compétence 2", "", 10)).getContent().size());
+		ReflectionTestUtils.setField(listingSearchService, "ready", true);
+
+		assertAtMost(3, entityManager, () -> skillListingService.getSkillById(skills[0].getId()));
+		assertAtMost(3, entityManager, () -> skillListingService.createSkill(dto, "alice@mail.fr"));
+		assertAtMost(4, entityManager, () -> skillListingService.updateSkill(skills[0].getId(), dto, "alice@mail.fr"));
+		assertAtMost(4, entityManager, () -> skillListingService.deleteSkill(skills[2].getId(), "alice@mail.fr"));
+	}
+
+	@Test
+	public void exchangeRequestServiceStaysWithinBudget() {
+		ExchangeRequestDTO dto = new ExchangeRequestDTO();
+		dto.setOffreEnRetour("Un coup de main");
+		dto.setDateEchange(LocalDate.now().plusDays(3));
+		dto.setItemListingId(items[3].getId());
+
+		assertEquals(6, assertAtMost(2, entityManager, () -> exchangeRequestService.getReceivedRequests("alice@mail.fr")).size());
+		assertEquals(4, assertAtMost(2, entityManager, () -> exchangeRequestService.getSentRequests("bob@mail.fr")).size());
+
+		ExchangeInboxDTO received = assertAtMost(3, entityManager,
+				() -> exchangeRequestService.getReceivedInbox("alice@mail.fr", null, 0, 4));
+		assertEquals(4, received.getContent().size());
+		assertEquals(6, received.getTotalElements());
+		assertEquals(2, received.getStatusCounts().get("PENDING"));
+		assertEquals(3, received.getStatusCounts().get("COMPLETED"));
+		assertEquals(0, received.getStatusCounts().get("REFUSED"));
+		ExchangeInboxDTO completed = assertAtMost(3, entityManager,
+				() -> exchangeRequestService.getSentInbox("bob@mail.fr", "COMPLETED", 0, 10));
+		assertEquals(2, completed.getContent().size());
+		assertEquals(1, completed.getTotalPages());
+		ExchangeInboxDTO clamped = exchangeRequestService.getReceivedInbox("alice@mail.fr", null, -1, 0);
+		assertEquals(0, clamped.getPage());
+		assertEquals(1, clamped.getContent().size());
+		assertEquals(50, exchangeRequestService.getReceivedInbox("alice@mail.fr", null, 0, 10_000).getSize());
+
+		assertAtMost(4, entityManager, () -> exchangeRequestService.getExchangeById(pendingFromBob.getId(), "alice@mail.fr"));
+		assertAtMost(5, entityManager, () -> exchangeRequestService.createRequest(dto, "carol@mail.fr"));
+		assertAtMost(6, entityManager, () -> exchangeRequestService.acceptRequest(pendingFromBob.getId(), "alice@mail.fr"));
+		assertAtMost(6, entityManager, () -> exchangeRequestService.refuseRequest(pendingFromCarol.getId(), "alice@mail.fr"));
+		assertAtMost(5, entityManager, () -> exchangeRequestService.completeExchange(acceptedFromBob.getId(), "alice@mail.fr"));
+		assertAtMost(5, entityManager, () -> exchangeRequestService.cancelRequest(pendingFromCarol.getId(), "carol@mail.fr"));
+	}
+
+	@Test
+	public void messageServiceStaysWithinBudget() {
+		MessageDTO dto = new MessageDTO();
+		dto.setContenu("Toujours disponible ?");
+		dto.setExchangeRequestId(pendingFromBob.getId());
+
+		List<MessageDTO> latest = assertAtMost(4, entityManager,
+				() -> messageService.getConversation(pendingFromBob.getId(), null, null, 2, "alice@mail.fr"));
+		assertEquals(2, latest.size());
+		assertTrue(latest.get(0).getNumero() < latest.get(1).getNumero());
+		List<MessageDTO> older = assertAtMost(4, entityManager,
+				() -> messageService.getConversation(pendingFromBob.getId(), latest.get(0).getNumero(), null, 10, "alice@mail.fr"));
+		assertEquals(messageToAlice.getId(), older.get(0).getId());
+		assertEquals(2, older.size());
+		assertEquals(latest, assertAtMost(4, entityManager,
+				() -> messageService.getConversation(pendingFromBob.getId(), null, older.get(1).getNumero(), 10, "alice@mail.fr")));
+		assertAtMost(3, entityManager, () -> messageService.openConversationStream(pendingFromBob.getId(), "alice@mail.fr", null));
+		assertAtMost(1, entityManager, () -> messageService.getUnreadMessageCount(alice.getId()));
+		assertEquals(5, assertAtMost(6, entityManager, () -> messageService.sendMessage(dto, "bob@mail.fr")).getNumero());
+		assertAtMost(4, entityManager, () -> messageService.markAsRead(messageToAlice.getId(), "alice@mail.fr"));
+		assertAtMost(4, entityManager, () -> messageService.markConversationAsRead(pendingFromBob.getId(), null, "alice@mail.fr"));
+	}
+
+	@Test
+	public void notificationServiceStaysWithinBudget() {
+		assertEquals(3, assertAtMost(2, entityManager, () -> notificationService.getUserNotifications("alice@mail.fr")).size());
+		assertAtMost(2, entityManager, () -> notificationService.openStream("alice@mail.fr", null));
+		assertAtMost(1, entityManager, () -> notificationService.getUnreadCount(alice.getId()));
+		assertAtMost(1, entityManager, () -> notificationService.createNotification(alice.getId(), NotificationType.NEW_MESSAGE, "Bonjour"));
+		assertAtMost(3, entityManager, () -> notificationService.markAsRead(notification.getId(), "alice@mail.fr"));
+		assertAtMost(2, entityManager, () -> notificationService.markAllAsRead("alice@mail.fr"));
+	}
+
+	@Test
+	public void reviewServiceStaysWithinBudget() {
+		ReviewDTO dto = new ReviewDTO();
+		dto.setNotation(5);
+		dto.setCommentaire("Parfait");
+		dto.setExchangeRequestId(completedFromBob.getId());
+
+		assertEquals(2, assertAtMost(2, entityManager, () -> reviewService.getUserReviews(alice.getId())).size());
+		assertAtMost(1, entityManager, () -> reviewService.getAverageRating(alice.getId()));
+		assertAtMost(1, entityManager, () -> reviewService.getReputation(alice.getId()));
+		assertAtMost(9, entityManager, () -> reviewService.createReview(dto, "bob@mail.fr"));
+	}
+
+	private <T> T persist(T entity) {
+		entityManager.persist(entity);
+		return entity;
+	}
+
+	private ExchangeRequest exchange(User beneficiaire, ItemListing item, SkillListing skill, ExchangeStatus statut) {
+		ExchangeRequest request = new ExchangeRequest();
+		request.setOffreEnRetour("Un gâteau");
+		request.setDateEchange(LocalDate.now().plusDays(7));
+		request.setStatut(statut);
+		request.setBeneficiaire(beneficiaire);
+		request.setDonateur(alice);
+		request.setItemListing(item);
+		request.setSkillListing(skill);
+		return request;
+	}
+
+	private Review review(User reviewer, ExchangeRequest exchange, int notation) {
+		Review review = new Review();
+		review.setNotation(notation);
+		review.setReviewer(reviewer);
+		review.setReviewee(alice);
+		review.setExchangeRequest(exchange);
+		return review;
+	}
+}
@@ -0,0 +1,153 @@
+package com.localexchange.service;
+
+import com.localexchange.dto.ReputationDTO;
+import com.localexchange.model.ExchangeRequest;
+import com.localexchange.model.ExchangeStatus;
+import com.localexchange.model.Review;
+import com.localexchange.model.User;
+import com.localexchange.model.UserReputation;
+import com.localexchange.repository.UserReputationRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import static com.localexchange.support.TestUsers.user;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Agrégats de réputation : upsert natif (INSERT ... ON DUPLICATE KEY UPDATE) et initialisation au démarrage
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ReputationService.class)
+public class ReputationServiceTest {
+
+	@Autowired
+	private ReputationService reputationService;
+
+	@Autowired
+	private UserReputationRepository userReputationRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	private User alice;
+	private User bob;
+	private User carol;
+
+	@BeforeEach
+	public void setUp() {
+		alice = persist(user("alice@mail.fr"));
+		bob = persist(user("bob@mail.fr"));
+		carol = persist(user("carol@mail.fr"));
+	}
+
+	@Test
+	public void firstRatingCreatesTheAggregate() {
+		assertTrue(userReputationRepository.findById(alice.getId()).isEmpty());
+
+		reputationService.recordRating(alice.getId(), 4);
+
+		UserReputation reputation = reload(alice);
+		assertEquals(1, reputation.getReviewCount());
+		assertEquals(4L, reputation.getRatingSum());
+		assertEquals(1, reputation.getFourStarCount());
+		assertEquals(0, reputation.getOneStarCount() + reputation.getTwoStarCount()
+				+ reputation.getThreeStarCount() + reputation.getFiveStarCount());
+	}
+
+	@Test
+	public void laterRatingsIncrementTheirStarBucket() {
+		for (int notation : new int[] {5, 1, 5, 3, 2, 5}) {
+			reputationService.recordRating(alice.getId(), notation);
+		}
+		reputationService.recordRating(bob.getId(), 2);
+
+		ReputationDTO reputation = reputationService.getReputation(alice.getId());
+		assertEquals(6, reputation.getReviewCount());
+		assertEquals(21 / 6.0, reputation.getAverageRating(), 1e-9);
+		assertEquals(Map.of(1, 1, 2, 1, 3, 1, 4, 0, 5, 3), reputation.getHistogram());
+
+		// L'agrégat d'un autre utilisateur reste à part
+		assertEquals(1, reload(bob).getReviewCount());
+		assertEquals(1, reload(bob).getTwoStarCount());
+	}
+
+	@Test
+	public void invalidRatingIsRejected() {
+		assertThrows(IllegalArgumentException.class, () -> reputationService.recordRating(alice.getId(), 6));
+		assertTrue(userReputationRepository.findById(alice.getId()).isEmpty());
+	}
+
+	@Test
+	public void backfillBuildsAggregatesFromExistingReviews() {
+
+		//Base antérieure à user_reputations : des avis, aucun agrégat
+
+		persist(review(bob, alice, 5));
+		persist(review(carol, alice, 5));
+		persist(review(carol, alice, 2));
+		persist(review(alice, bob, 4));
+		entityManager.flush();
+
+		reputationService.backfillIfEmpty();
+
+		UserReputation aliceReputation = reload(alice);
+		assertEquals(3, aliceReputation.getReviewCount());
+		assertEquals(12L, aliceReputation.getRatingSum());
+		assertEquals(2, aliceReputation.getFiveStarCount());
+		assertEquals(1, aliceReputation.getTwoStarCount());
+		assertEquals(1, reload(bob).getFourStarCount());
+		assertTrue(userReputationRepository.findById(carol.getId()).isEmpty());
+	}
+
+	@Test
+	public void backfillLeavesExistingAggregatesAlone() {
+		reputationService.recordRating(alice.getId(), 3);
+		persist(review(bob, alice, 5));
+		entityManager.flush();
+
+		reputationService.backfillIfEmpty();
+
+		assertEquals(1, reload(alice).getReviewCount());
+		assertEquals(1, userReputationRepository.count());
+	}
+
+	private UserReputation reload(User user) {
+		// L'upsert natif contourne le contexte de persistance : relire depuis la base
+		entityManager.flush();
+		entityManager.clear();
+		return userReputationRepository.findById(user.getId()).orElseThrow();
+	}
+
+	private <T> T persist(T entity) {
+		entityManager.persist(entity);
+		return entity;
+	}
+
+	private Review review(User reviewer, User reviewee, int notation) {
+		ExchangeRequest exchange = new ExchangeRequest();
+		exchange.setOffreEnRetour("Un gâteau");
+		exchange.setDateEchange(LocalDate.now().minusDays(1));
+		exchange.setStatut(ExchangeStatus.COMPLETED);
+		exchange.setBeneficiaire(reviewer);
+		exchange.setDonateur(reviewee);
+		persist(exchange);
+
+		Review review = new Review();
+		review.setNotation(notation);
+		review.setReviewer(reviewer);
+		review.setReviewee(reviewee);
+		review.setExchangeRequest(exchange);
+		return review;
+	}
+}
@@ -0,0 +1,138 @@
+package com.localexchange.service;
+
+import com.localexchange.config.HibernateCacheConfig;
+import com.localexchange.dto.ItemListingDTO;
+import com.localexchange.dto.ProfileUpdateDTO;
+import com.localexchange.geo.Gazetteer;
+import com.localexchange.model.ItemListing;
+import com.localexchange.model.User;
+import com.localexchange.repository.ItemListingRepository;
+import com.localexchange.repository.UserRepository;
+import com.localexchange.search.ListingSearchService;
+import com.localexchange.security.JwtTokenProvider;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static com.localexchange.support.TestUsers.user;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cache de second niveau activé, hors transaction de test : chaque appel de service est validé
+ * comme en production, et les données sont supprimées à la fin.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.cache.use_second_level_cache=true")
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({HibernateCacheConfig.class, AuthService.class, ItemListingService.class, ReputationService.class,
+		ListingSearchService.class, Gazetteer.class, CategoryFacetService.class})
+public class SecondLevelCacheTest {
+
+	@MockitoBean
+	private PasswordEncoder passwordEncoder;
+
+	@MockitoBean
+	private AuthenticationManager authenticationManager;
+
+	@MockitoBean
+	private JwtTokenProvider tokenProvider;
+
+	@Autowired
+	private AuthService authService;
+
+	@Autowired
+	private ItemListingService itemListingService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private ItemListingRepository itemListingRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+	private User alice;
+
+	@BeforeEach
+	public void setUp() {
+		alice = userRepository.save(user("alice@cache.fr", "Alice"));
+
+		// Cache.evictAll (JPA) ne vide pas users-by-email, rempli par l'insertion
+		SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+		sessionFactory.getCache().evictAllRegions();
+		statistics = sessionFactory.getStatistics();
+		statistics.clear();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		itemListingRepository.deleteAll();
+		userRepository.deleteAll();
+	}
+
+	@Test
+	public void findByEmailUsesNaturalIdCache() {
+
+		//Le premier appel remplit users-by-email et users, le second n'interroge plus la base
+
+		assertEquals(alice.getId(), userRepository.findByEmail("alice@cache.fr").orElseThrow().getId());
+		assertTrue(statistics.getNaturalIdCachePutCount() > 0);
+		assertTrue(entityManagerFactory.getCache().contains(User.class, alice.getId()));
+
+		long statements = statistics.getPrepareStatementCount();
+		assertEquals("Alice", userRepository.findByEmail("alice@cache.fr").orElseThrow().getNom());
+		assertEquals(statements, statistics.getPrepareStatementCount());
+		assertTrue(userRepository.findByEmail("inconnu@cache.fr").isEmpty());
+	}
+
+	@Test
+	public void updateProfileReplacesCachedUser() {
+		userRepository.findByEmail("alice@cache.fr");
+
+		ProfileUpdateDTO update = new ProfileUpdateDTO();
+		update.setNom("Alice Martin");
+		authService.updateProfile("alice@cache.fr", update);
+
+		assertEquals("Alice Martin", userRepository.findByEmail("alice@cache.fr").orElseThrow().getNom());
+		assertEquals("Alice Martin", userRepository.findById(alice.getId()).orElseThrow().getNom());
+	}
+
+	@Test
+	public void updateItemReplacesCachedListing() {
+		ItemListing item = new ItemListing();
+		item.setTitre("Perceuse");
+		item.setDescription("Perceuse sans fil");
+		item.setCategorie("Outils");
+		item.setOwner(alice);
+		Long id = itemListingRepository.save(item).getId();
+
+		assertEquals("Perceuse", itemListingService.getItemById(id).getTitre());
+		assertTrue(entityManagerFactory.getCache().contains(ItemListing.class, id));
+
+		ItemListingDTO dto = new ItemListingDTO();
+		dto.setTitre("Perceuse à percussion");
+		dto.setDescription("Perceuse sans fil, deux batteries");
+		dto.setCategorie("Outils");
+		dto.setDisponibilite(true);
+		itemListingService.updateItem(id, dto, "alice@cache.fr");
+
+		assertEquals("Perceuse à percussion", itemListingService.getItemById(id).getTitre());
+		assertEquals("Alice", itemListingService.getItemById(id).getOwner().getNom());
+	}
+}
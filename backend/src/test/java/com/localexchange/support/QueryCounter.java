@@ -0,0 +1,50 @@
+package com.localexchange.support;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.function.Supplier;
+
+import com.localexchange.metrics.PersistenceActivity;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Garde-fou sur le nombre de requêtes SQL d'un bloc, compté par HibernateActivityInspector (branché par application-test.yml).
+ * Avant le bloc, le contexte de persistance est synchronisé puis vidé : rien n'est servi par le cache de premier niveau,
+ * un chargement paresseux oublié coûte donc bien une requête. Après le bloc, les écritures en attente sont synchronisées et comptées.
+ */
+public final class QueryCounter {
+
+	private QueryCounter() {
+	}
+
+	public static int count(EntityManager entityManager, Runnable block) {
+		entityManager.flush();
+		entityManager.clear();
+		PersistenceActivity activity;
+		PersistenceActivity.begin();
+		try {
+			block.run();
+			entityManager.flush();
+		} finally {
+			activity = PersistenceActivity.end();
+		}
+		return activity.getStatements();
+	}
+
+	public static <T> T assertAtMost(int maxStatements, EntityManager entityManager, Supplier<T> block) {
+		Object[] result = new Object[1];
+		assertAtMost(maxStatements, entityManager, () -> {
+			result[0] = block.get();
+		});
+		@SuppressWarnings("unchecked")
+		T value = (T) result[0];
+		return value;
+	}
+
+	public static void assertAtMost(int maxStatements, EntityManager entityManager, Runnable block) {
+		int statements = count(entityManager, block);
+		assertTrue(statements <= maxStatements,
+				() -> statements + " requêtes SQL exécutées, " + maxStatements + " au plus attendues");
+	}
+}
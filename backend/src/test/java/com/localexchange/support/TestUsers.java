@@ -0,0 +1,25 @@
+package com.localexchange.support;
+
+import com.localexchange.model.User;
+
+/**
+ * Utilisateurs de test non persistés, avec les seuls champs obligatoires
+ */
+public final class TestUsers {
+
+	private TestUsers() {
+	}
+
+	public static User user(String email) {
+		return user(email, email);
+	}
+
+	public static User user(String email, String nom) {
+		User user = new User();
+		user.setEmail(email);
+		user.setPassword("mdp");
+		user.setNom(nom);
+		user.setLocalisation("Pau");
+		return user;
+	}
+}
@@ -0,0 +1,122 @@
+package com.localexchange.web;
+
+import com.localexchange.service.StoredFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StaticFileResponderTest {
+
+	@TempDir
+	Path dir;
+
+	private final StaticFileResponder responder = new StaticFileResponder(16);
+
+	private StoredFile file;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		Path path = Files.writeString(dir.resolve("photo.txt"), "0123456789abcdefghij");
+		file = new StoredFile(path, "text/plain", 20, 1_700_000_000_000L, "\"14-abc\"", true);
+	}
+
+	@Test
+	public void fullResponseCarriesValidatorsAndImmutableCaching() throws Exception {
+		MockHttpServletResponse response = serve(request(), file);
+
+		assertEquals(200, response.getStatus());
+		assertEquals("0123456789abcdefghij", response.getContentAsString());
+		assertEquals(20, response.getContentLengthLong());
+		assertEquals("\"14-abc\"", response.getHeader("ETag"));
+		assertEquals("bytes", response.getHeader("Accept-Ranges"));
+		assertTrue(response.getHeader("Cache-Control").contains("immutable"));
+	}
+
+	@Test
+	public void fallbackIsNotCachedForever() throws Exception {
+		MockHttpServletResponse response = serve(request(), file.asFallback());
+
+		assertFalse(response.getHeader("Cache-Control").contains("immutable"));
+	}
+
+	@Test
+	public void matchingEtagGivesNotModified() throws Exception {
+		MockHttpServletRequest request = request();
+		request.addHeader("If-None-Match", "\"autre\", \"14-abc\"");
+
+		MockHttpServletResponse response = serve(request, file);
+
+		assertEquals(304, response.getStatus());
+		assertEquals(0, response.getContentAsByteArray().length);
+	}
+
+	@Test
+	public void rangesArePartialContent() throws Exception {
+		MockHttpServletRequest request = request();
+		request.addHeader("Range", "bytes=5-9");
+		MockHttpServletResponse response = serve(request, file);
+
+		assertEquals(206, response.getStatus());
+		assertEquals("56789", response.getContentAsString());
+		assertEquals("bytes 5-9/20", response.getHeader("Content-Range"));
+
+		request = request();
+		request.addHeader("Range", "bytes=-3");
+		assertEquals("hij", serve(request, file).getContentAsString());
+	}
+
+	@Test
+	public void rangeBeyondTheEndIsNotSatisfiable() throws Exception {
+		MockHttpServletRequest request = request();
+		request.addHeader("Range", "bytes=20-");
+
+		MockHttpServletResponse response = serve(request, file);
+
+		assertEquals(416, response.getStatus());
+		assertEquals("bytes */20", response.getHeader("Content-Range"));
+	}
+
+	@Test
+	public void staleIfRangeGetsTheWholeFile() throws Exception {
+		MockHttpServletRequest request = request();
+		request.addHeader("Range", "bytes=0-4");
+		request.addHeader("If-Range", "\"ancienne-version\"");
+
+		MockHttpServletResponse response = serve(request, file);
+
+		assertEquals(200, response.getStatus());
+		assertEquals(20, response.getContentAsByteArray().length);
+	}
+
+	@Test
+	public void largeBodiesAreHandedToSendfile() throws Exception {
+		MockHttpServletRequest request = request();
+		request.setAttribute(StaticFileResponder.SENDFILE_SUPPORT, Boolean.TRUE);
+
+		MockHttpServletResponse response = serve(request, file);
+
+		assertEquals(file.path().toAbsolutePath().toString(), request.getAttribute(StaticFileResponder.SENDFILE_FILENAME));
+		assertEquals(0L, request.getAttribute(StaticFileResponder.SENDFILE_START));
+		assertEquals(20L, request.getAttribute(StaticFileResponder.SENDFILE_END));
+		assertEquals(0, response.getContentAsByteArray().length, "Le corps est écrit par le connecteur, pas par le contrôleur");
+	}
+
+	private static MockHttpServletRequest request() {
+		return new MockHttpServletRequest("GET", "/api/uploads/files/photo.txt");
+	}
+
+	private MockHttpServletResponse serve(MockHttpServletRequest request, StoredFile stored) throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+		responder.serve(stored, "photo.txt", request, response);
+		return response;
+	}
+}
@@ -1,10 +1,14 @@
-import { createContext, useContext, useState, useEffect, useCallback } from 'react';
+import { createContext, useContext, useState, useEffect, useCallback, useRef } from 'react';
 import { notificationService } from '../services/notificationService';
+import { openEventStream } from '../services/eventStream';
+import { useAuth } from './AuthContext';
 
 const NotificationContext = createContext();
 
 export function NotificationProvider({ children }) {
+  const { user } = useAuth();
   const [unreadCount, setUnreadCount] = useState(0);
+  const listenersRef = useRef(new Set());
 
   const loadUnreadCount = useCallback(async () => {
     try {
@@ -27,12 +31,26 @@ export function NotificationProvider({ children }) {
     setUnreadCount(0);
   }, []);
 
-  // Charger le compteur au montage et le rafraîchir tous les 10 secondes
+  // Être prévenu des nouvelles notifications (page des notifications)
+  const subscribeToNotifications = useCallback((listener) => {
+    listenersRef.current.add(listener);
+    return () => listenersRef.current.delete(listener);
+  }, []);
+
+  // Le serveur pousse le compteur et les nouvelles notifications (SSE) : plus de polling
   useEffect(() => {
-    loadUnreadCount();
-    const interval = setInterval(loadUnreadCount, 10000);
-    return () => clearInterval(interval);
-  }, [loadUnreadCount]);
+    if (!user) {
+      setUnreadCount(0);
+      return undefined;
+    }
+    return openEventStream('/notifications/stream', (event, data) => {
+      if (event === 'unread-count') {
+        setUnreadCount(data?.count || 0);
+      } else if (event === 'notification') {
+        listenersRef.current.forEach((listener) => listener(data));
+      }
+    });
+  }, [user?.id]);
 
   return (
     <NotificationContext.Provider
@@ -42,6 +60,7 @@ export function NotificationProvider({ children }) {
         decrementCount,
         decrementCountBy,
         resetCount,
+        subscribeToNotifications,
       }}
     >
       {children}
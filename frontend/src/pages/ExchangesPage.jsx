@@ -9,28 +9,37 @@ import LoadingSpinner from '../components/common/LoadingSpinner';
 import Alert from '../components/common/Alert';
 import { EXCHANGE_STATUS } from '../utils/constants';
 
+const PAGE_SIZE = 10;
+const EMPTY_INBOX = { content: [], totalPages: 0, statusCounts: {} };
+
+const inboxTotal = (inbox) => Object.values(inbox.statusCounts || {}).reduce((sum, count) => sum + count, 0);
+
 export default function ExchangesPage() {
   const navigate = useNavigate();
   const [activeTab, setActiveTab] = useState('received');
-  const [receivedRequests, setReceivedRequests] = useState([]);
-  const [sentRequests, setSentRequests] = useState([]);
+  const [statut, setStatut] = useState('');
+  const [page, setPage] = useState(0);
+  const [received, setReceived] = useState(EMPTY_INBOX);
+  const [sent, setSent] = useState(EMPTY_INBOX);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState('');
   const [success, setSuccess] = useState('');
 
   useEffect(() => {
     loadExchanges();
-  }, []);
+  }, [activeTab, statut, page]);
 
   const loadExchanges = async () => {
     setLoading(true);
     try {
+      // Onglet actif : page et filtre demandés ; l'autre onglet ne sert qu'à son total
+      const params = { page, size: PAGE_SIZE, ...(statut ? { statut } : {}) };
       const [receivedRes, sentRes] = await Promise.all([
-        exchangeService.getReceived(),
-        exchangeService.getSent(),
+        exchangeService.getReceivedInbox(activeTab === 'received' ? params : { size: 1 }),
+        exchangeService.getSentInbox(activeTab === 'sent' ? params : { size: 1 }),
       ]);
-      setReceivedRequests(receivedRes.data || []);
-      setSentRequests(sentRes.data || []);
+      setReceived(receivedRes.data || EMPTY_INBOX);
+      setSent(sentRes.data || EMPTY_INBOX);
     } catch (error) {
       console.error('Error loading exchanges:', error);
       setError('Erreur lors du chargement des échanges');
@@ -188,7 +197,20 @@ export default function ExchangesPage() {
 
   if (loading) return <LoadingSpinner />;
 
-  const requests = activeTab === 'received' ? receivedRequests : sentRequests;
+  const inbox = activeTab === 'received' ? received : sent;
+  const requests = inbox.content || [];
+  const totalPages = inbox.totalPages || 0;
+
+  const selectTab = (tab) => {
+    setActiveTab(tab);
+    setStatut('');
+    setPage(0);
+  };
+
+  const selectStatut = (value) => {
+    setStatut(value);
+    setPage(0);
+  };
 
   return (
     <div className="max-w-5xl mx-auto px-4 py-8">
@@ -202,28 +224,49 @@ export default function ExchangesPage() {
         <div className="border-b">
           <div className="flex">
             <button
-              onClick={() => setActiveTab('received')}
+              onClick={() => selectTab('received')}
               className={`px-6 py-4 font-semibold transition ${
                 activeTab === 'received'
                   ? 'border-b-2 border-indigo-600 text-indigo-600'
                   : 'text-gray-600 hover:text-gray-900'
               }`}
             >
-              Demandes reçues ({receivedRequests.length})
+              Demandes reçues ({inboxTotal(received)})
             </button>
             <button
-              onClick={() => setActiveTab('sent')}
+              onClick={() => selectTab('sent')}
               className={`px-6 py-4 font-semibold transition ${
                 activeTab === 'sent'
                   ? 'border-b-2 border-indigo-600 text-indigo-600'
                   : 'text-gray-600 hover:text-gray-900'
               }`}
             >
-              Demandes envoyées ({sentRequests.length})
+              Demandes envoyées ({inboxTotal(sent)})
             </button>
           </div>
         </div>
 
+        {/* Filtre par statut */}
+        <div className="flex flex-wrap gap-2 px-6 pt-4">
+          <Button
+            size="sm"
+            variant={statut === '' ? 'primary' : 'secondary'}
+            onClick={() => selectStatut('')}
+          >
+            Tous ({inboxTotal(inbox)})
+          </Button>
+          {Object.entries(EXCHANGE_STATUS).map(([value, label]) => (
+            <Button
+              key={value}
+              size="sm"
+              variant={statut === value ? 'primary' : 'secondary'}
+              onClick={() => selectStatut(value)}
+            >
+              {label} ({inbox.statusCounts?.[value] || 0})
+            </Button>
+          ))}
+        </div>
+
         {/* Liste */}
         <div className="p-6">
           {requests.length === 0 ? (
@@ -244,6 +287,29 @@ export default function ExchangesPage() {
               />
             ))
           )}
+
+          {/* Pagination */}
+          {totalPages > 1 && (
+            <div className="flex justify-center gap-2 mt-6">
+              <Button
+                variant="secondary"
+                disabled={page === 0}
+                onClick={() => setPage(page - 1)}
+              >
+                Précédent
+              </Button>
+              <span className="px-4 py-2 text-gray-600">
+                Page {page + 1} sur {totalPages}
+              </span>
+              <Button
+                variant="secondary"
+                disabled={page >= totalPages - 1}
+                onClick={() => setPage(page + 1)}
+              >
+                Suivant
+              </Button>
+            </div>
+          )}
         </div>
       </Card>
     </div>
@@ -12,6 +12,7 @@ import LoadingSpinner from '../components/common/LoadingSpinner';
 import Alert from '../components/common/Alert';
 import Rating from '../components/common/Rating';
 import Card from '../components/common/Card';
+import { imageVariant } from '../utils/images';
 
 export default function ItemDetailPage() {
   const { id } = useParams();
@@ -107,7 +108,7 @@ export default function ItemDetailPage() {
             <div className="rounded-xl overflow-hidden">
               {console.log('Rendering images:', images)}
               <img 
-                src={images[0]} 
+                src={imageVariant(images[0], 'full')} 
                 alt="main" 
                 className="w-full h-96 object-cover rounded-lg" 
                 onError={(e) => {
@@ -120,7 +121,7 @@ export default function ItemDetailPage() {
                   {images.map((src, idx) => (
                     <img 
                       key={idx} 
-                      src={src} 
+                      src={imageVariant(src, 'thumb')} 
                       alt={`thumb-${idx}`} 
                       className="w-20 h-20 object-cover rounded cursor-pointer" 
                       onError={(e) => {
@@ -10,6 +10,7 @@ import Input from '../components/common/Input';
 import Select from '../components/common/Select';
 import LoadingSpinner from '../components/common/LoadingSpinner';
 import Rating from '../components/common/Rating';
+import { imageVariant } from '../utils/images';
 
 export default function ItemsPage() {
   const { user } = useAuth();
@@ -19,11 +20,16 @@ export default function ItemsPage() {
   const [categorie, setCategorie] = useState('');
   const [page, setPage] = useState(0);
   const [totalPages, setTotalPages] = useState(0);
+  const [facets, setFacets] = useState({});
 
   useEffect(() => {
     loadItems();
   }, [search, categorie, page]);
 
+  useEffect(() => {
+    loadFacets();
+  }, [search]);
+
   const loadItems = async () => {
     setLoading(true);
     try {
@@ -41,6 +47,21 @@ export default function ItemsPage() {
     }
   };
 
+  // Nombre d'objets disponibles par catégorie, pour la recherche en cours
+  const loadFacets = async () => {
+    try {
+      const res = await itemService.getFacets(search);
+      setFacets(Object.fromEntries(res.data.map((facet) => [facet.categorie, facet.count])));
+    } catch (error) {
+      console.error('Error loading facets:', error);
+    }
+  };
+
+  const categoryOptions = CATEGORIES.map((option) => ({
+    ...option,
+    label: `${option.label} (${facets[option.value] || 0})`,
+  }));
+
   const handleSearch = (e) => {
     e.preventDefault();
     setPage(0);
@@ -73,7 +94,7 @@ export default function ItemsPage() {
           </div>
           <div className="w-48">
             <Select
-              options={CATEGORIES}
+              options={categoryOptions}
               value={categorie}
               onChange={(e) => setCategorie(e.target.value)}
               placeholder="Toutes catégories"
@@ -120,7 +141,7 @@ export default function ItemsPage() {
                 <Card hover>
                   <div className="bg-gradient-to-br from-indigo-100 to-purple-100 h-48 flex items-center justify-center overflow-hidden">
                     {imageUrl ? (
-                      <img src={imageUrl} alt={item.titre} className="w-full h-full object-cover" />
+                      <img src={imageVariant(imageUrl, 'card')} alt={item.titre} className="w-full h-full object-cover" />
                     ) : (
                       <span className="text-6xl">📦</span>
                     )}
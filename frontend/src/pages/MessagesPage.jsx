@@ -2,33 +2,74 @@ import { useState, useEffect, useRef } from 'react';
 import { useParams } from 'react-router-dom';
 import { Send } from 'lucide-react';
 import { messageService } from '../services/messageService';
+import { openEventStream } from '../services/eventStream';
 import { useAuth } from '../context/AuthContext';
 import Card from '../components/common/Card';
 import Button from '../components/common/Button';
 import LoadingSpinner from '../components/common/LoadingSpinner';
 
+const PAGE_SIZE = 50;
+
+// Ajoute des messages sans doublon, triés par rang (ordre de validation dans la conversation)
+const mergeMessages = (current, added) => {
+  const ids = new Set(current.map(m => m.id));
+  return [...current, ...added.filter(m => !ids.has(m.id))].sort((a, b) => a.numero - b.numero);
+};
+
 export default function MessagesPage() {
   const { exchangeId } = useParams();
   const { user } = useAuth();
   const [messages, setMessages] = useState([]);
   const [newMessage, setNewMessage] = useState('');
   const [loading, setLoading] = useState(true);
+  const [hasOlder, setHasOlder] = useState(false);
+  const [loadingOlder, setLoadingOlder] = useState(false);
   const messagesEndRef = useRef(null);
+  const lastNumeroRef = useRef(null);
 
+  // Les nouveaux messages arrivent par le flux ; "resync" demande de rattraper ceux qui ont été manqués
   useEffect(() => {
+    setMessages([]);
+    lastNumeroRef.current = null;
     loadMessages();
-    const interval = setInterval(loadMessages, 5000); // Rafraîchir toutes les 5s
-    return () => clearInterval(interval);
+    return openEventStream(`/messages/conversation/${exchangeId}/stream`, (event, data) => {
+      if (event === 'message') {
+        addMessage(data);
+      } else if (event === 'resync') {
+        loadNewer();
+      }
+    });
   }, [exchangeId]);
 
+  // Défiler vers le bas seulement quand un message arrive en fin de conversation, pas au chargement des précédents
   useEffect(() => {
-    scrollToBottom();
+    const lastNumero = messages.length > 0 ? messages[messages.length - 1].numero : null;
+    if (lastNumero !== lastNumeroRef.current) {
+      lastNumeroRef.current = lastNumero;
+      scrollToBottom();
+    }
   }, [messages]);
 
+  // Marquer lus en une requête les messages reçus affichés
+  useEffect(() => {
+    const unread = messages.filter(m => !m.lu && m.destinataireId === user?.id);
+    if (unread.length === 0) return;
+    const upTo = Math.max(...unread.map(m => m.numero));
+    messageService.markConversationRead(exchangeId, upTo)
+      .then(() => setMessages((prev) => prev.map(m => (
+        m.destinataireId === user?.id && m.numero <= upTo ? { ...m, lu: true } : m
+      ))))
+      .catch((error) => console.error('Error marking conversation read:', error));
+  }, [messages, exchangeId, user?.id]);
+
+  // Derniers messages ; fusion : un message reçu par le flux pendant le chargement ne doit pas disparaître
   const loadMessages = async () => {
     try {
-      const res = await messageService.getConversation(exchangeId);
-      setMessages(res.data || []);
+      const res = await messageService.getConversation(exchangeId, { limit: PAGE_SIZE });
+      const loaded = res.data || [];
+      setHasOlder(loaded.length === PAGE_SIZE);
+      setMessages((prev) => mergeMessages(
+        prev.filter(m => m.exchangeRequestId === parseInt(exchangeId)), loaded));
     } catch (error) {
       console.error('Error loading messages:', error);
     } finally {
@@ -36,6 +77,45 @@ export default function MessagesPage() {
     }
   };
 
+  // Messages postérieurs au dernier affiché, page après page
+  const loadNewer = async () => {
+    try {
+      let after = lastNumeroRef.current;
+      if (after === null) {
+        await loadMessages();
+        return;
+      }
+      for (;;) {
+        const res = await messageService.getConversation(exchangeId, { after, limit: PAGE_SIZE });
+        const loaded = res.data || [];
+        setMessages((prev) => mergeMessages(prev, loaded));
+        if (loaded.length < PAGE_SIZE) break;
+        after = loaded[loaded.length - 1].numero;
+      }
+    } catch (error) {
+      console.error('Error loading new messages:', error);
+    }
+  };
+
+  const loadOlder = async () => {
+    if (messages.length === 0) return;
+    setLoadingOlder(true);
+    try {
+      const res = await messageService.getConversation(exchangeId, { before: messages[0].numero, limit: PAGE_SIZE });
+      const loaded = res.data || [];
+      setHasOlder(loaded.length === PAGE_SIZE);
+      setMessages((prev) => mergeMessages(prev, loaded));
+    } catch (error) {
+      console.error('Error loading older messages:', error);
+    } finally {
+      setLoadingOlder(false);
+    }
+  };
+
+  const addMessage = (message) => {
+    setMessages((prev) => mergeMessages(prev, [message]));
+  };
+
   const scrollToBottom = () => {
     messagesEndRef.current?.scrollIntoView({ behavior: 'smooth' });
   };
@@ -45,12 +125,12 @@ export default function MessagesPage() {
     if (!newMessage.trim()) return;
 
     try {
-      await messageService.send({
+      const res = await messageService.send({
         contenu: newMessage,
         exchangeRequestId: parseInt(exchangeId),
       });
       setNewMessage('');
-      loadMessages();
+      addMessage(res.data);
     } catch (error) {
       console.error('Error sending message:', error);
     }
@@ -65,6 +145,13 @@ export default function MessagesPage() {
       <Card className="h-[600px] flex flex-col">
         {/* Messages */}
         <div className="flex-1 overflow-y-auto p-6 space-y-4">
+          {hasOlder && (
+            <div className="text-center">
+              <Button variant="secondary" size="sm" onClick={loadOlder} disabled={loadingOlder}>
+                {loadingOlder ? 'Chargement...' : 'Charger les messages précédents'}
+              </Button>
+            </div>
+          )}
           {messages.length === 0 ? (
             <div className="text-center text-gray-500 py-12">
               Aucun message. Commencez la conversation !
@@ -9,7 +9,7 @@ import { format } from 'date-fns';
 
 export default function NotificationsPage() {
   const navigate = useNavigate();
-  const { decrementCount, decrementCountBy } = useNotification();
+  const { decrementCount, decrementCountBy, subscribeToNotifications } = useNotification();
   const [notifications, setNotifications] = useState([]);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState('');
@@ -18,6 +18,15 @@ export default function NotificationsPage() {
     loadNotifications();
   }, []);
 
+  // Ajouter en tête les notifications reçues en direct
+  useEffect(() => {
+    return subscribeToNotifications((notification) => {
+      setNotifications((prev) => (
+        prev.some(n => n.id === notification.id) ? prev : [notification, ...prev]
+      ));
+    });
+  }, [subscribeToNotifications]);
+
   const loadNotifications = async () => {
     setLoading(true);
     try {
@@ -45,9 +54,9 @@ export default function NotificationsPage() {
   const handleMarkAll = async () => {
     try {
       const unreadNotifications = notifications.filter(n => !n.read).length;
-      await notificationService.markAllAsRead();
+      const res = await notificationService.markAllAsRead();
       setNotifications((prev) => prev.map(n => ({ ...n, read: true })));
-      decrementCountBy(unreadNotifications);
+      decrementCountBy(res.data?.count ?? unreadNotifications);
     } catch (err) {
       console.error('Error marking all read', err);
       setError('Erreur lors de la mise à jour');
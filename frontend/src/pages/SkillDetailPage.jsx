@@ -12,6 +12,7 @@ import LoadingSpinner from '../components/common/LoadingSpinner';
 import Alert from '../components/common/Alert';
 import Rating from '../components/common/Rating';
 import Card from '../components/common/Card';
+import { imageVariant } from '../utils/images';
 
 export default function SkillDetailPage() {
   const { id } = useParams();
@@ -99,11 +100,11 @@ export default function SkillDetailPage() {
         <div>
           {images && images.length > 0 ? (
             <div className="rounded-xl overflow-hidden">
-              <img src={images[0]} alt="main" className="w-full h-96 object-cover rounded-lg" />
+              <img src={imageVariant(images[0], 'full')} alt="main" className="w-full h-96 object-cover rounded-lg" />
               {images.length > 1 && (
                 <div className="mt-2 flex gap-2">
                   {images.map((src, idx) => (
-                    <img key={idx} src={src} alt={`thumb-${idx}`} className="w-20 h-20 object-cover rounded cursor-pointer" />
+                    <img key={idx} src={imageVariant(src, 'thumb')} alt={`thumb-${idx}`} className="w-20 h-20 object-cover rounded cursor-pointer" />
                   ))}
                 </div>
               )}
@@ -8,6 +8,7 @@ import Button from '../components/common/Button';
 import Input from '../components/common/Input';
 import LoadingSpinner from '../components/common/LoadingSpinner';
 import Rating from '../components/common/Rating';
+import { imageVariant } from '../utils/images';
 
 export default function SkillsPage() {
   const { user } = useAuth();
@@ -108,7 +109,7 @@ export default function SkillsPage() {
                 <Card hover>
                   <div className="bg-gradient-to-br from-purple-100 to-pink-100 h-48 flex items-center justify-center overflow-hidden">
                     {imageUrl ? (
-                      <img src={imageUrl} alt={skill.titre} className="w-full h-full object-cover" />
+                      <img src={imageVariant(imageUrl, 'card')} alt={skill.titre} className="w-full h-full object-cover" />
                     ) : (
                       <div className="flex items-center justify-center w-full h-full">
                         <Briefcase size={48} className="text-purple-600" />
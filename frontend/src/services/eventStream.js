@@ -0,0 +1,112 @@
+import api from './api';
+
+const MIN_RETRY_DELAY = 1000;
+const MAX_RETRY_DELAY = 30000;
+
+/**
+ * Ouvre un flux Server-Sent Events authentifié.
+ * EventSource ne permet pas d'envoyer l'en-tête Authorization : on lit le flux avec fetch,
+ * et on se reconnecte avec Last-Event-ID pour que le serveur rejoue les événements manqués.
+ * Retourne une fonction qui ferme le flux.
+ */
+export function openEventStream(path, onEvent) {
+  const controller = new AbortController();
+  let lastEventId = null;
+  let retryDelay = MIN_RETRY_DELAY;
+  let closed = false;
+
+  const connect = async () => {
+    const token = localStorage.getItem('token');
+    if (!token) {
+      return;
+    }
+
+    const headers = {
+      Accept: 'text/event-stream',
+      Authorization: `Bearer ${token}`,
+    };
+    if (lastEventId) {
+      headers['Last-Event-ID'] = lastEventId;
+    }
+
+    try {
+      const response = await fetch(`${api.defaults.baseURL}${path}`, {
+        headers,
+        signal: controller.signal,
+      });
+      if (response.status === 401 || response.status === 403) {
+        return;
+      }
+      if (!response.ok || !response.body) {
+        throw new Error(`Flux indisponible (${response.status})`);
+      }
+
+      retryDelay = MIN_RETRY_DELAY;
+      const reader = response.body.pipeThrough(new TextDecoderStream()).getReader();
+      let buffer = '';
+      for (;;) {
+        const { value, done } = await reader.read();
+        if (done) break;
+        buffer += value.replace(/\r\n?/g, '\n');
+
+        let separator;
+        while ((separator = buffer.indexOf('\n\n')) >= 0) {
+          const block = buffer.slice(0, separator);
+          buffer = buffer.slice(separator + 2);
+          const event = parseEvent(block);
+          if (event) {
+            if (event.id) lastEventId = event.id;
+            onEvent(event.name, event.data);
+          }
+        }
+      }
+    } catch (error) {
+      if (closed) return;
+      console.error('Event stream error:', error);
+    }
+
+    if (!closed) {
+      setTimeout(connect, retryDelay);
+      retryDelay = Math.min(retryDelay * 2, MAX_RETRY_DELAY);
+    }
+  };
+
+  connect();
+
+  return () => {
+    closed = true;
+    controller.abort();
+  };
+}
+
+function parseEvent(block) {
+  let id = null;
+  let name = 'message';
+  const data = [];
+
+  for (const line of block.split('\n')) {
+    // Les lignes commençant par ':' sont des commentaires (heartbeats)
+    if (!line || line.startsWith(':')) continue;
+    const colon = line.indexOf(':');
+    const field = colon < 0 ? line : line.slice(0, colon);
+    let value = colon < 0 ? '' : line.slice(colon + 1);
+    if (value.startsWith(' ')) value = value.slice(1);
+
+    if (field === 'id') id = value;
+    else if (field === 'event') name = value;
+    else if (field === 'data') data.push(value);
+  }
+
+  if (data.length === 0) {
+    return null;
+  }
+
+  const raw = data.join('\n');
+  let parsed = raw;
+  try {
+    parsed = JSON.parse(raw);
+  } catch {
+    // donnée texte
+  }
+  return { id, name, data: parsed };
+}
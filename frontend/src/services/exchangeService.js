@@ -4,6 +4,8 @@ export const exchangeService = {
   create: (data) => api.post('/exchanges', data),
   getReceived: () => api.get('/exchanges/received'),
   getSent: () => api.get('/exchanges/sent'),
+  getReceivedInbox: (params) => api.get('/exchanges/inbox/received', { params }),
+  getSentInbox: (params) => api.get('/exchanges/inbox/sent', { params }),
   getById: (id) => api.get(`/exchanges/${id}`),
   accept: (id) => api.put(`/exchanges/${id}/accept`),
   refuse: (id) => api.put(`/exchanges/${id}/refuse`),
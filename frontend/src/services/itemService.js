@@ -3,6 +3,7 @@ import api from './api';
 export const itemService = {
   getAll: (params) => api.get('/items', { params }),
   getById: (id) => api.get(`/items/${id}`),
+  getFacets: (search) => api.get('/items/facets', { params: search ? { search } : {} }),
   create: (data) => api.post('/items', data),
   update: (id, data) => api.put(`/items/${id}`, data),
   delete: (id) => api.delete(`/items/${id}`),
@@ -2,6 +2,10 @@ import api from './api';
 
 export const messageService = {
   send: (data) => api.post('/messages', data),
-  getConversation: (exchangeId) => api.get(`/messages/conversation/${exchangeId}`),
+  // params : limit, before (messages précédents) ou after (nouveaux messages), rangs (numero) dans la conversation
+  getConversation: (exchangeId, params) => api.get(`/messages/conversation/${exchangeId}`, { params }),
+  getUnreadCount: () => api.get('/messages/unread-count'),
   markAsRead: (id) => api.put(`/messages/${id}/read`),
+  markConversationRead: (exchangeId, upTo) =>
+    api.put(`/messages/conversation/${exchangeId}/read`, null, { params: { upTo } }),
 };
\ No newline at end of file
@@ -0,0 +1,11 @@
+/**
+ * URL d'une déclinaison redimensionnée (thumb, card, full) d'une image téléversée.
+ * Les autres URL (images externes) sont renvoyées telles quelles.
+ */
+export function imageVariant(url, variant) {
+  if (!url || !url.includes('/api/uploads/files/')) {
+    return url;
+  }
+  const separator = url.includes('?') ? '&' : '?';
+  return `${url}${separator}variant=${variant}`;
+}